@@ -1,10 +1,6 @@
 package com.arrayindex.kids_sync_app.config;
 
-import com.arrayindex.kids_sync_app.model.User;
-import com.arrayindex.kids_sync_app.repository.UserRepository;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,24 +17,37 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
-import java.util.Base64;
+import java.util.List;
 
+/**
+ * Authenticates requests carrying a bearer JWT.
+ *
+ * In stateless mode (the default) the principal is built from the verified token alone,
+ * without loading the user, so an authenticated request costs no database round trip;
+ * tokens of users who changed their credentials or deleted their profile are rejected
+ * through {@link TokenRevocations}. With {@code jwt.stateless-auth: false} the user is
+ * loaded through the {@link UserDetailsService} on every request instead.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    private final UserRepository userRepository;
-    private final SecretKey jwtSecretKey;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final TokenRevocations tokenRevocations;
     private final UserDetailsService userDetailsService;
+    private final boolean statelessAuth;
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
 
     @Autowired
-    public JwtAuthenticationFilter(UserRepository userRepository, SecretKey jwtSecretKey, UserDetailsService userDetailsService) {
-        this.userRepository = userRepository;
-        this.jwtSecretKey = jwtSecretKey;
+    public JwtAuthenticationFilter(JwtTokenVerifier jwtTokenVerifier, TokenRevocations tokenRevocations,
+                                   UserDetailsService userDetailsService,
+                                   @Value("${jwt.stateless-auth:true}") boolean statelessAuth) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        this.tokenRevocations = tokenRevocations;
         this.userDetailsService = userDetailsService;
+        this.statelessAuth = statelessAuth;
     }
 
     @Override
@@ -51,15 +60,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (jwt != null) {
                 logger.debug("JWT token found in request");
                 try {
-                    if (validateToken(jwt)) {
-                        logger.debug("JWT token is valid");
-                        String email = getEmailFromJWT(jwt);
-                        logger.debug("Email from JWT: {}", email);
+                    // Verified once per token: the signature check is skipped for cached tokens
+                    String email = verifyToken(jwt);
+                    if (email != null) {
+                        logger.debug("JWT token is valid for: {}", email);
 
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        UsernamePasswordAuthenticationToken authentication;
+                        if (statelessAuth) {
+                            // The verified token is enough; there are no authorities to load
+                            authentication = new UsernamePasswordAuthenticationToken(email, null, List.of());
+                        } else {
+                            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                            authentication = new UsernamePasswordAuthenticationToken(
+                                    userDetails, null, userDetails.getAuthorities());
+                        }
+                        authentication.setDetails(authenticationDetailsSource.buildDetails(request));
 
                         SecurityContextHolder.getContext().setAuthentication(authentication);
                         logger.debug("Authentication set in SecurityContext for user: {}", email);
@@ -91,25 +106,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 
-    private boolean validateToken(String token) {
+    private String verifyToken(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(jwtSecretKey)
-                .build()
-                .parseClaimsJws(token);
-            return true;
-        } catch (Exception ex) {
+            JwtTokenVerifier.VerifiedToken verified = jwtTokenVerifier.verify(token);
+            if (tokenRevocations.isRevoked(verified.subject(), verified.issuedAt())) {
+                logger.warn("Rejected revoked token of: {}", verified.subject());
+                return null;
+            }
+            return verified.subject();
+        } catch (JwtException | IllegalArgumentException ex) {
             logger.error("Token validation error: {}", ex.getMessage());
-            return false;
+            return null;
         }
     }
-
-    private String getEmailFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(jwtSecretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
-    }
-} 
\ No newline at end of file
+}
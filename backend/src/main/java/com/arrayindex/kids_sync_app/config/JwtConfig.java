@@ -1,5 +1,7 @@
 package com.arrayindex.kids_sync_app.config;
 
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,4 +23,14 @@ public class JwtConfig {
         byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
         return Keys.hmacShaKeyFor(keyBytes);
     }
+
+    /**
+     * Shared, thread-safe parser; building one per request is needlessly expensive
+     */
+    @Bean
+    public JwtParser jwtParser(SecretKey jwtSecretKey) {
+        return Jwts.parserBuilder()
+                .setSigningKey(jwtSecretKey)
+                .build();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.arrayindex.kids_sync_app.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verifies JWTs with the shared parser and remembers the ones that passed.
+ *
+ * Verified tokens are cached by their SHA-256 hash, so the raw tokens are not kept in
+ * memory, until the token's own expiry. A client repeating requests with the same token
+ * (the calendar page polls) therefore pays for the signature check and claims parsing only
+ * once. The cache is size-bounded, least recently used tokens evicted first.
+ */
+@Component
+@Slf4j
+public class JwtTokenVerifier {
+
+    private final JwtParser jwtParser;
+    private final int cacheSize;
+
+    // Verified tokens by hash, least recently used evicted first
+    private final Map<String, VerifiedToken> verified;
+
+    @Autowired
+    public JwtTokenVerifier(JwtParser jwtParser, @Value("${jwt.cache-size:10000}") int cacheSize) {
+        this.jwtParser = jwtParser;
+        this.cacheSize = cacheSize;
+        this.verified = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > JwtTokenVerifier.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Verify a token and return the claims authentication needs
+     * @param token The compact JWT from the Authorization header
+     * @return The subject and issue time of the token
+     * @throws JwtException If the signature is invalid, the token is malformed or has expired
+     */
+    public VerifiedToken verify(String token) {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+
+        synchronized (verified) {
+            VerifiedToken cached = verified.get(key);
+            if (cached != null) {
+                if (cached.expiresAt() > now) {
+                    return cached;
+                }
+                verified.remove(key);
+            }
+        }
+
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        VerifiedToken verifiedToken = new VerifiedToken(claims.getSubject(),
+                issuedAt != null ? issuedAt.getTime() : 0, expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        if (expiration != null && claims.getSubject() != null) {
+            synchronized (verified) {
+                verified.put(key, verifiedToken);
+            }
+        }
+        return verifiedToken;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The claims of a token whose signature has been verified
+     *
+     * @param subject The email address the token was issued to
+     * @param issuedAt When the token was issued, in epoch millis (0 if unknown)
+     * @param expiresAt When the token expires, in epoch millis
+     */
+    public record VerifiedToken(String subject, long issuedAt, long expiresAt) {
+    }
+}
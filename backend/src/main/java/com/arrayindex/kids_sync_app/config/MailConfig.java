@@ -1,8 +1,8 @@
 package com.arrayindex.kids_sync_app.config;
 
+import com.arrayindex.kids_sync_app.mail.SmtpDeliveryEngine;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.beans.factory.annotation.Value;
 
@@ -26,8 +26,20 @@ public class MailConfig {
     @Value("${spring.profiles.active:prod}")
     private String activeProfile;
 
+    @Value("${mail.pool.size:3}")
+    private int poolSize;
+
+    @Value("${mail.pool.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.pool.queue-capacity:5000}")
+    private int queueCapacity;
+
+    @Value("${mail.pool.stale-after-ms:30000}")
+    private long staleAfterMillis;
+
     @Bean
-    public JavaMailSender javaMailSender() {
+    public JavaMailSenderImpl javaMailSender() {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
         mailSender.setHost(host);
         mailSender.setPort(port);
@@ -51,4 +63,9 @@ public class MailConfig {
 
         return mailSender;
     }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public SmtpDeliveryEngine smtpDeliveryEngine(JavaMailSenderImpl javaMailSender) {
+        return new SmtpDeliveryEngine(javaMailSender, poolSize, batchSize, queueCapacity, staleAfterMillis);
+    }
 }
@@ -1,21 +1,35 @@
 package com.arrayindex.kids_sync_app.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
-    public RestClient restClient() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(5000); // 5 seconds
-        factory.setReadTimeout(5000);    // 5 seconds
-        
+    public RestClient restClient(
+            @Value("${http.client.connect-timeout-ms:5000}") long connectTimeoutMillis,
+            @Value("${http.client.read-timeout-ms:5000}") long readTimeoutMillis) {
+        // One shared JDK client keeps connections alive and reuses them across requests,
+        // instead of opening a new connection per request
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+
         return RestClient.builder()
             .requestFactory(factory)
             .build();
     }
-} 
\ No newline at end of file
+}
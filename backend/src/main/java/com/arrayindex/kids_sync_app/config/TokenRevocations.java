@@ -0,0 +1,110 @@
+package com.arrayindex.kids_sync_app.config;
+
+import com.arrayindex.kids_sync_app.model.TokenRevocation;
+import com.arrayindex.kids_sync_app.repository.TokenRevocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Record of users whose existing tokens are no longer valid.
+ *
+ * Stateless authentication trusts a verified token without looking the user up, so when
+ * a user changes their password or email, or deletes their profile, the tokens issued
+ * before that moment are revoked here. JWT issue times only have second precision, so a
+ * token issued within the same second as the revocation is still accepted.
+ *
+ * Revocations are stored in the {@code token_revocations} collection, loaded at startup
+ * and polled for changes from other instances, and checked against an in-memory copy.
+ * Entries are dropped once every token they could apply to has expired.
+ */
+@Component
+@Slf4j
+public class TokenRevocations {
+
+    /**
+     * How long tokens are issued for (10 days)
+     */
+    private static final long TOKEN_LIFETIME_MILLIS = 864_000_000L;
+
+    /**
+     * Revocations stored up to this long before the last poll are read again, to allow for clock differences
+     */
+    private static final long CLOCK_SKEW_MILLIS = 60_000L;
+
+    private final TokenRevocationRepository revocationRepository;
+
+    // Email -> tokens issued before this time (epoch millis, whole seconds) are revoked
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    // Revocations made since this time may not have been read yet
+    private volatile long syncedFrom;
+
+    public TokenRevocations(TokenRevocationRepository revocationRepository) {
+        this.revocationRepository = revocationRepository;
+    }
+
+    /**
+     * Revoke all tokens issued to a user until now, on every instance
+     * @param email The email address the tokens were issued to
+     */
+    public void revoke(String email) {
+        long now = System.currentTimeMillis();
+        long revokedAt = now / 1000 * 1000;
+        revocationRepository.save(new TokenRevocation(email, Instant.ofEpochMilli(revokedAt),
+                Instant.ofEpochMilli(revokedAt + TOKEN_LIFETIME_MILLIS)));
+        apply(email, revokedAt);
+        revokedBefore.values().removeIf(revoked -> revoked < now - TOKEN_LIFETIME_MILLIS);
+        log.debug("Revoked existing tokens of {}", email);
+    }
+
+    /**
+     * @param email The subject of a verified token
+     * @param issuedAtMillis When the token was issued, in epoch millis
+     * @return true if the token was issued before the user's tokens were revoked
+     */
+    public boolean isRevoked(String email, long issuedAtMillis) {
+        Long revokedAt = revokedBefore.get(email);
+        return revokedAt != null && issuedAtMillis < revokedAt;
+    }
+
+    /**
+     * Load the revocations of all tokens that have not expired yet
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int loaded = sync(System.currentTimeMillis() - TOKEN_LIFETIME_MILLIS);
+        log.info("Loaded {} token revocations", loaded);
+    }
+
+    /**
+     * Pick up revocations made by other instances
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocations.refresh-interval-ms:5000}",
+            initialDelayString = "${jwt.revocations.refresh-interval-ms:5000}")
+    public void refresh() {
+        sync(syncedFrom - CLOCK_SKEW_MILLIS);
+    }
+
+    private int sync(long sinceMillis) {
+        long startedAt = System.currentTimeMillis();
+        List<TokenRevocation> revocations =
+                revocationRepository.findByRevokedBeforeGreaterThanEqual(Instant.ofEpochMilli(sinceMillis));
+        for (TokenRevocation revocation : revocations) {
+            apply(revocation.getEmail(), revocation.getRevokedBefore().toEpochMilli());
+        }
+        syncedFrom = startedAt;
+        return revocations.size();
+    }
+
+    private void apply(String email, long revokedAt) {
+        revokedBefore.merge(email, revokedAt, Math::max);
+    }
+}
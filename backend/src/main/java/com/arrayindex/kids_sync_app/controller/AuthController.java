@@ -1,23 +1,27 @@
 package com.arrayindex.kids_sync_app.controller;
 
+import com.arrayindex.kids_sync_app.config.TokenRevocations;
 import com.arrayindex.kids_sync_app.dto.UserProfileUpdateRequest;
+import com.arrayindex.kids_sync_app.model.ErasureJob;
 import com.arrayindex.kids_sync_app.model.User;
 import com.arrayindex.kids_sync_app.repository.UserRepository;
-import com.arrayindex.kids_sync_app.service.EventService;
+import com.arrayindex.kids_sync_app.service.AccountErasureService;
+import com.arrayindex.kids_sync_app.service.LoginThrottle;
+import com.arrayindex.kids_sync_app.service.UserDirectory;
 import com.arrayindex.kids_sync_app.service.UserService;
-import io.jsonwebtoken.Jwts;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.bind.annotation.*;
 
-import javax.crypto.SecretKey;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -26,17 +30,19 @@ public class AuthController {
 
     private final UserRepository userRepository;
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
-    private final SecretKey jwtSecretKey;
-    private final EventService eventService;
+    private final AccountErasureService accountErasureService;
+    private final UserDirectory userDirectory;
+    private final TokenRevocations tokenRevocations;
+    private final LoginThrottle loginThrottle;
 
     @Autowired
-    public AuthController(UserRepository userRepository, UserService userService, PasswordEncoder passwordEncoder, SecretKey jwtSecretKey, EventService eventService) {
+    public AuthController(UserRepository userRepository, UserService userService, AccountErasureService accountErasureService, UserDirectory userDirectory, TokenRevocations tokenRevocations, LoginThrottle loginThrottle) {
         this.userRepository = userRepository;
         this.userService = userService;
-        this.passwordEncoder = passwordEncoder;
-        this.jwtSecretKey = jwtSecretKey;
-        this.eventService = eventService;
+        this.accountErasureService = accountErasureService;
+        this.userDirectory = userDirectory;
+        this.tokenRevocations = tokenRevocations;
+        this.loginThrottle = loginThrottle;
     }
 
     @PostMapping("/signup")
@@ -49,6 +55,11 @@ public class AuthController {
             if (email == null || password == null) {
                 return ResponseEntity.badRequest().body("Email and password are required");
             }
+
+            // The events of a deleted account with this email are still being removed
+            if (accountErasureService.isErasing(email)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Account deletion for this email is still in progress");
+            }
             
             User user = new User(email, password, whatsappNumber);
             String token = userService.registerUser(user);
@@ -58,36 +69,49 @@ public class AuthController {
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Server is busy, please try again shortly");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Registration failed: " + e.getMessage());
         }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> loginUser(@RequestBody Map<String, String> loginRequest) {
+    public ResponseEntity<?> loginUser(@RequestBody Map<String, String> loginRequest, HttpServletRequest request) {
         String email = loginRequest.get("email");
         String password = loginRequest.get("password");
+        String address = request.getRemoteAddr();
 
-        return userRepository.findByEmail(email)
-                .filter(user -> passwordEncoder.matches(password, user.getPassword()))
-                .map(user -> {
-                    String token = generateToken(email);
-                    Map<String, String> response = new HashMap<>();
-                    response.put("token", token);
-                    return ResponseEntity.ok(response);
-                })
-                .orElseGet(() -> {
-                    Map<String, String> errorResponse = new HashMap<>();
-                    errorResponse.put("error", "Invalid credentials");
-                    return ResponseEntity.badRequest().body(errorResponse);
-                });
+        // Refused before any hashing, so repeated guessing costs no CPU
+        if (loginThrottle.isBlocked(email, address)) {
+            return tooManyRequests("Too many failed login attempts, please try again later");
+        }
+
+        String token;
+        try {
+            token = userService.loginUser(email, password);
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests("Server is busy, please try again shortly");
+        }
+
+        if (token == null) {
+            loginThrottle.recordFailure(email, address);
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid credentials");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        loginThrottle.recordSuccess(email);
+        Map<String, String> response = new HashMap<>();
+        response.put("token", token);
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/profile")
     public ResponseEntity<?> getProfile(Authentication authentication) {
         String email = authentication.getName();
         try {
-            User user = userRepository.findByEmail(email)
+            User user = userDirectory.findByEmail(email)
                     .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
             return ResponseEntity.ok(user);
         } catch (Exception e) {
@@ -106,6 +130,8 @@ public class AuthController {
             response.put("message", "Profile updated successfully");
             response.put("user", updatedUser);
             return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests("Server is busy, please try again shortly");
         } catch (Exception e) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
@@ -121,29 +147,50 @@ public class AuthController {
             User user = userRepository.findByEmail(email)
                     .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-            // Delete all events associated with the user
-            eventService.deleteAllUserEvents(email);
-            
-            // Delete the user profile
+            // Recorded before the user is deleted, so a signup with the same email that no
+            // longer finds the user is refused by isErasing; the events are erased in the background
+            ErasureJob job = accountErasureService.requestErasure(email);
+
+            // Delete the user profile; the account cannot be used from here on
             userRepository.delete(user);
-            
+            userDirectory.evict(email);
+            tokenRevocations.revoke(email);
+
             Map<String, Object> response = new HashMap<>();
-            response.put("message", "Profile and associated data deleted successfully");
+            response.put("message", "Profile deleted; associated data is being erased");
             response.put("user", email);
-            return ResponseEntity.ok(response);
+            response.put("erasureJobId", job.getId());
+            return ResponseEntity.accepted().body(response);
         } catch (Exception e) {
+            // The error is answered, not thrown, so the erasure job must not be committed
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
         }
     }
 
-    private String generateToken(String email) {
-        return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 864000000)) // 10 days
-                .signWith(jwtSecretKey)
-                .compact();
+    /**
+     * Get the progress of an erasure job. Needs no token, since the account's tokens are
+     * revoked when it is deleted: the random job ID is the only credential, so only the
+     * status and the event counts are returned.
+     */
+    @GetMapping("/erasures/{id}")
+    public ResponseEntity<?> getErasureStatus(@PathVariable String id) {
+        return accountErasureService.getJob(id)
+                .map(job -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("status", job.getStatus());
+                    response.put("eventsTotal", job.getEventsTotal());
+                    response.put("eventsDeleted", job.getEventsDeleted());
+                    return ResponseEntity.ok(response);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<Map<String, String>> tooManyRequests(String message) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", message);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(errorResponse);
     }
-} 
\ No newline at end of file
+}
@@ -1,18 +1,32 @@
 package com.arrayindex.kids_sync_app.controller;
 
+import com.arrayindex.kids_sync_app.dto.EventBatchOperation;
+import com.arrayindex.kids_sync_app.dto.EventBatchResult;
+import com.arrayindex.kids_sync_app.dto.EventPage;
 import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.OutboxMessage;
 import com.arrayindex.kids_sync_app.service.EventService;
+import com.arrayindex.kids_sync_app.service.OutboxService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/events")
@@ -20,11 +34,21 @@ import java.util.List;
 public class EventController {
 
     private final EventService eventService;
+    private final OutboxService outboxService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter eventWriter;
+    private final int pageLimit;
     private static final Logger log = LoggerFactory.getLogger(EventController.class);
 
     @Autowired
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService, OutboxService outboxService, ObjectMapper objectMapper,
+                           @Value("${events.page.limit:100}") int pageLimit) {
         this.eventService = eventService;
+        this.outboxService = outboxService;
+        this.objectMapper = objectMapper;
+        // Events are flushed by the output buffer, not one by one
+        this.eventWriter = objectMapper.writerFor(Event.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.pageLimit = pageLimit;
     }
 
     /**
@@ -46,16 +70,58 @@ public class EventController {
     }
 
     /**
-     * Get all events for the current user
-     * @return List of events
+     * Create, update and delete several events of the current user in one request
+     * @param operations The operations to apply
+     * @return The result of each operation, in the order of the operations
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<EventBatchResult>> applyBatch(@RequestBody List<EventBatchOperation> operations) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userId = authentication.getName();
+
+        try {
+            return ResponseEntity.ok(eventService.applyBatch(userId, operations));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected event batch from user {}: {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get all events of the current user, streamed as one JSON array ordered by date.
+     *
+     * Mapped separately from the paged variant so the handler's declared return type is a
+     * {@link StreamingResponseBody}, which is what makes Spring stream it asynchronously.
+     * @return All events, ordered by date
+     */
+    @GetMapping(params = {"!limit", "!cursor"})
+    public ResponseEntity<StreamingResponseBody> getEvents() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userId = authentication.getName();
+
+        return streamEvents(userId);
+    }
+
+    /**
+     * Get one page of the current user's events, ordered by date, together with the cursor
+     * of the next page
+     * @param limit The maximum number of events on the page (optional)
+     * @param cursor The cursor returned with the previous page (optional)
+     * @return One page of events
      */
     @GetMapping
-    public ResponseEntity<List<Event>> getEvents() {
+    public ResponseEntity<EventPage> getEventPage(@RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) String cursor) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userId = authentication.getName();
-        
-        List<Event> events = eventService.getEventsByUserId(userId);
-        return ResponseEntity.ok(events);
+
+        try {
+            EventPage page = eventService.getEventPage(userId, cursor, limit != null ? limit : pageLimit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid event cursor from user {}: {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -103,40 +169,34 @@ public class EventController {
 
     /**
      * Get upcoming events for the current user
-     * @return List of upcoming events
+     * @param limit The maximum number of events to return (optional)
+     * @return List of upcoming events, soonest first
      */
     @GetMapping("/upcoming")
-    public ResponseEntity<List<Event>> getUpcomingEvents() {
+    public ResponseEntity<List<Event>> getUpcomingEvents(@RequestParam(required = false) Integer limit) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userId = authentication.getName();
         
         log.info("Getting upcoming events for user: {}", userId);
-        List<Event> upcomingEvents = eventService.getUpcomingEvents(userId);
+        List<Event> upcomingEvents = limit != null
+                ? eventService.getUpcomingEvents(userId, limit)
+                : eventService.getUpcomingEvents(userId);
         log.info("Found {} upcoming events for user: {}", upcomingEvents.size(), userId);
         
         return ResponseEntity.ok(upcomingEvents);
     }
 
     /**
-     * Get all events for the current user with detailed logging
-     * @return List of all events
+     * Get all events for the current user, streamed as one JSON array
+     * @return All events, ordered by date
      */
     @GetMapping("/all")
-    public ResponseEntity<List<Event>> getAllEventsWithLogging() {
+    public ResponseEntity<StreamingResponseBody> getAllEvents() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userId = authentication.getName();
-        
-        log.info("Getting all events for user: {}", userId);
-        List<Event> allEvents = eventService.getEventsByUserId(userId);
-        log.info("Found {} total events for user: {}", allEvents.size(), userId);
-        
-        // Log each event for debugging
-        for (Event event : allEvents) {
-            log.info("Event: id={}, name={}, dateTime={}, userId={}, recurrence={}", 
-                    event.getId(), event.getName(), event.getDateTime(), event.getUserId(), event.getRecurrence());
-        }
-        
-        return ResponseEntity.ok(allEvents);
+
+        log.info("Streaming all events for user: {}", userId);
+        return streamEvents(userId);
     }
 
     /**
@@ -186,4 +246,37 @@ public class EventController {
                     return ResponseEntity.notFound().build();
                 });
     }
-} 
\ No newline at end of file
+
+    /**
+     * Get the delivery status of the latest notification for an event
+     * @param id The ID of the event
+     * @return The outbox message if one exists
+     */
+    @GetMapping("/{id}/notification")
+    public ResponseEntity<OutboxMessage> getNotificationStatus(@PathVariable String id) {
+        return outboxService.getNotificationStatus(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Write a user's events to the response as they are read from the database cursor,
+     * so memory use does not grow with the number of events
+     * @param userId The ID of the user
+     * @return The streaming JSON array response
+     */
+    private ResponseEntity<StreamingResponseBody> streamEvents(String userId) {
+        StreamingResponseBody body = output -> {
+            try (Stream<Event> events = eventService.streamEventsByUserId(userId);
+                 JsonGenerator json = objectMapper.getFactory().createGenerator(output)) {
+                json.writeStartArray();
+                Iterator<Event> iterator = events.iterator();
+                while (iterator.hasNext()) {
+                    eventWriter.writeValue(json, iterator.next());
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -1,12 +1,20 @@
 package com.arrayindex.kids_sync_app.controller;
 
+import com.arrayindex.kids_sync_app.mail.OutboundMailQueue;
 import com.arrayindex.kids_sync_app.model.ReminderWindow;
+import com.arrayindex.kids_sync_app.notification.NotificationFanout;
+import com.arrayindex.kids_sync_app.reminder.PartitionLeaseManager;
+import com.arrayindex.kids_sync_app.reminder.ReminderDispatcher;
 import com.arrayindex.kids_sync_app.service.ReminderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 /**
  * Controller for reminder-related operations
@@ -18,12 +26,74 @@ import java.util.List;
 public class ReminderController {
 
     private final ReminderService reminderService;
+    private final OutboundMailQueue outboundMailQueue;
+    private final PartitionLeaseManager partitionLeaseManager;
+    private final ReminderDispatcher reminderDispatcher;
+    private final NotificationFanout notificationFanout;
 
     /**
-     * Get all configured reminder windows
+     * Get the reminder windows of the current user, or the default windows when not signed in
      */
     @GetMapping("/windows")
-    public ResponseEntity<List<ReminderWindow>> getReminderWindows() {
-        return ResponseEntity.ok(reminderService.getReminderWindows());
+    public ResponseEntity<List<ReminderWindow>> getReminderWindows(Authentication authentication) {
+        if (authentication == null) {
+            return ResponseEntity.ok(reminderService.getReminderWindows());
+        }
+        return ResponseEntity.ok(reminderService.getReminderWindows(authentication.getName()));
     }
-} 
\ No newline at end of file
+
+    /**
+     * Replace the reminder windows of the current user. An empty list restores the defaults.
+     */
+    @PutMapping("/windows")
+    public ResponseEntity<?> updateReminderWindows(@RequestBody List<ReminderWindow> windows,
+                                                   Authentication authentication) {
+        try {
+            return ResponseEntity.ok(reminderService.updateReminderWindows(authentication.getName(), windows));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    /**
+     * Get the outbound mail queue depth, oldest item age and remaining sending quota
+     */
+    @GetMapping("/queue")
+    public ResponseEntity<Map<String, Object>> getQueueStats() {
+        return ResponseEntity.ok(outboundMailQueue.getStats());
+    }
+
+    /**
+     * Get the sends, misses and latency against target of each reminder dispatch lane, and the
+     * reminders missed before they reached a lane
+     */
+    @GetMapping("/lanes")
+    public ResponseEntity<Map<String, Object>> getLaneStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("lanes", reminderDispatcher.getLaneStats());
+        response.put("missedBeforeDispatch", reminderService.getMissedBeforeDispatchCount());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the circuit state and delivery counts of each notification channel
+     */
+    @GetMapping("/channels")
+    public ResponseEntity<Map<String, Map<String, Object>>> getChannelStats() {
+        return ResponseEntity.ok(notificationFanout.getStats());
+    }
+
+    /**
+     * Get the reminder partitions this instance currently sends reminders for
+     */
+    @GetMapping("/partitions")
+    public ResponseEntity<Map<String, Object>> getPartitions() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("nodeId", partitionLeaseManager.getNodeId());
+        response.put("enabled", partitionLeaseManager.isEnabled());
+        response.put("ownedPartitions", new TreeSet<>(partitionLeaseManager.getOwnedPartitions()));
+        return ResponseEntity.ok(response);
+    }
+}
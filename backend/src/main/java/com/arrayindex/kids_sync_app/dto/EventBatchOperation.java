@@ -0,0 +1,29 @@
+package com.arrayindex.kids_sync_app.dto;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One create, update or delete in a batch of event changes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventBatchOperation {
+
+    public enum Type { CREATE, UPDATE, DELETE }
+
+    private Type type;
+
+    /**
+     * The ID of the event to update or delete
+     */
+    private String id;
+
+    /**
+     * The event to create, or the new data of the event to update
+     */
+    private Event event;
+}
@@ -0,0 +1,33 @@
+package com.arrayindex.kids_sync_app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of one operation in a batch of event changes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventBatchResult {
+
+    public enum Status { CREATED, UPDATED, DELETED, NOT_FOUND, FAILED }
+
+    /**
+     * Position of the operation in the batch
+     */
+    private int index;
+
+    /**
+     * The ID of the created, updated or deleted event
+     */
+    private String id;
+
+    private Status status;
+
+    /**
+     * Why the operation failed, if it did
+     */
+    private String error;
+}
@@ -0,0 +1,55 @@
+package com.arrayindex.kids_sync_app.dto;
+
+import com.arrayindex.kids_sync_app.model.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a user's event list, which is ordered by date and then by ID.
+ *
+ * Handed to clients as an opaque string; the next page starts after the event at this
+ * position, so pages stay consistent while events are added or removed.
+ *
+ * @param dateTime The date of the last event on the previous page
+ * @param id The ID of the last event on the previous page
+ */
+public record EventCursor(LocalDateTime dateTime, String id) {
+
+    /**
+     * @param event The last event on a page
+     * @return The cursor pointing after it
+     */
+    public static EventCursor after(Event event) {
+        return new EventCursor(event.getDateTime(), event.getId());
+    }
+
+    /**
+     * @return The opaque cursor string
+     */
+    public String encode() {
+        String position = dateTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read a cursor string produced by {@link #encode()}
+     * @param cursor The cursor string from the client
+     * @return The position it points to
+     * @throws IllegalArgumentException If the string is not a valid cursor
+     */
+    public static EventCursor decode(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            if (separator < 0 || separator == position.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new EventCursor(LocalDateTime.parse(position.substring(0, separator)), position.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.arrayindex.kids_sync_app.dto;
+
+import com.arrayindex.kids_sync_app.model.Event;
+
+import java.util.List;
+
+/**
+ * One page of a user's events, ordered by date and then by ID
+ *
+ * @param events The events on this page
+ * @param nextCursor Cursor of the next page, or null if this is the last page
+ */
+public record EventPage(List<Event> events, String nextCursor) {
+}
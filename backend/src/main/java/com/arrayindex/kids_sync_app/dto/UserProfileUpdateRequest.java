@@ -12,5 +12,6 @@ public class UserProfileUpdateRequest {
     private String password;
     private String email;
     private String whatsappNumber;
+    private Boolean reminderDigest;
 
 }
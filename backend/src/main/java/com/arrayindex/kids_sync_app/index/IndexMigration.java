@@ -0,0 +1,22 @@
+package com.arrayindex.kids_sync_app.index;
+
+import org.springframework.data.mongodb.core.index.Index;
+
+import java.util.List;
+
+/**
+ * A versioned set of indexes to build, or drop, on one collection
+ *
+ * @param version Migrations are applied once each, in ascending version order
+ * @param description What the indexes are for
+ * @param collection The collection to build them on
+ * @param indexes The indexes to build
+ * @param dropped The names of indexes to drop, e.g. ones made redundant by a wider index
+ */
+public record IndexMigration(int version, String description, String collection, List<Index> indexes,
+                             List<String> dropped) {
+
+    public IndexMigration(int version, String description, String collection, List<Index> indexes) {
+        this(version, description, collection, indexes, List.of());
+    }
+}
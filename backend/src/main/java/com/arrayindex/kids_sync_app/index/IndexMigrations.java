@@ -0,0 +1,35 @@
+package com.arrayindex.kids_sync_app.index;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+
+import java.util.List;
+
+/**
+ * The index migrations of the application, oldest first.
+ *
+ * Add a new migration with the next version instead of changing an applied one; an
+ * applied version is never run again. Event indexes are defined here only: one declared
+ * on the model as well would be rebuilt by {@code auto-index-creation} after a later
+ * migration dropped it.
+ */
+public final class IndexMigrations {
+
+    public static final List<IndexMigration> ALL = List.of(
+            new IndexMigration(1, "Events by user and time", "events", List.of(
+                    new Index().on("userId", Sort.Direction.ASC).on("dateTime", Sort.Direction.ASC)
+                            .named("user_date_time"))),
+            new IndexMigration(2, "Events by time, for reminder and occurrence scans", "events", List.of(
+                    new Index().on("dateTime", Sort.Direction.ASC).named("date_time"))),
+            new IndexMigration(3, "Recurring events by start time", "events", List.of(
+                    new Index().on("recurrence", Sort.Direction.ASC).on("dateTime", Sort.Direction.ASC)
+                            .named("recurrence_date_time"))),
+            new IndexMigration(4, "Events by user, time and ID, for cursor paging", "events", List.of(
+                    new Index().on("userId", Sort.Direction.ASC).on("dateTime", Sort.Direction.ASC)
+                            .on("_id", Sort.Direction.ASC).named("user_date_time_id"))),
+            new IndexMigration(5, "Drop events by user and time, a prefix of user_date_time_id", "events",
+                    List.of(), List.of("user_date_time")));
+
+    private IndexMigrations() {
+    }
+}
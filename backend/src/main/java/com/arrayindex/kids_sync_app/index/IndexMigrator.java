@@ -0,0 +1,102 @@
+package com.arrayindex.kids_sync_app.index;
+
+import com.arrayindex.kids_sync_app.model.AppliedIndexMigration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the pending {@link IndexMigrations} at startup, before the application reports
+ * ready, and records each applied version in the {@code index_migrations} collection.
+ *
+ * Indexes are built with the background option, so reads and writes on the collection
+ * continue while a build runs. Building an index that already exists is a no-op and only
+ * existing indexes are dropped, so two instances starting together may both run a
+ * migration without harm.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class IndexMigrator implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final List<IndexMigration> migrations;
+    private final boolean enabled;
+
+    @Autowired
+    public IndexMigrator(MongoTemplate mongoTemplate, @Value("${indexes.migrations.enabled:true}") boolean enabled) {
+        this(mongoTemplate, IndexMigrations.ALL, enabled);
+    }
+
+    IndexMigrator(MongoTemplate mongoTemplate, List<IndexMigration> migrations, boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.migrations = migrations;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    /**
+     * Build the indexes of every migration not applied yet, in version order
+     * @return The number of migrations applied
+     */
+    public int migrate() {
+        Set<Integer> applied = mongoTemplate.findAll(AppliedIndexMigration.class).stream()
+                .map(AppliedIndexMigration::getVersion)
+                .collect(Collectors.toSet());
+
+        List<IndexMigration> pending = migrations.stream()
+                .filter(migration -> !applied.contains(migration.version()))
+                .sorted(Comparator.comparingInt(IndexMigration::version))
+                .toList();
+
+        for (IndexMigration migration : pending) {
+            long start = System.nanoTime();
+            IndexOperations indexOps = mongoTemplate.indexOps(migration.collection());
+            for (Index index : migration.indexes()) {
+                indexOps.ensureIndex(index.background());
+            }
+            if (!migration.dropped().isEmpty()) {
+                // Dropping a missing index is an error, e.g. on a fresh database or after another instance
+                Set<String> existing = indexOps.getIndexInfo().stream()
+                        .map(IndexInfo::getName)
+                        .collect(Collectors.toSet());
+                migration.dropped().stream().filter(existing::contains).forEach(indexOps::dropIndex);
+            }
+            record(migration);
+            log.info("Applied index migration {} ({}) on {} in {} ms", migration.version(), migration.description(),
+                    migration.collection(), (System.nanoTime() - start) / 1_000_000);
+        }
+        return pending.size();
+    }
+
+    private void record(IndexMigration migration) {
+        try {
+            mongoTemplate.insert(new AppliedIndexMigration(migration.version(), migration.description(), LocalDateTime.now()));
+        } catch (DuplicateKeyException e) {
+            // Another instance applied the same migration at the same time
+            log.debug("Index migration {} was recorded by another instance", migration.version());
+        }
+    }
+}
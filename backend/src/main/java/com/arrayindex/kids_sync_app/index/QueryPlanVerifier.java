@@ -0,0 +1,159 @@
+package com.arrayindex.kids_sync_app.index;
+
+import com.mongodb.ExplainVerbosity;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Checks at startup that the event queries are answered from an index.
+ *
+ * Each check mirrors a query of {@code EventRepository}, one per query method (and per
+ * overload), and asks MongoDB for its winning plan without running it. A test fails when a
+ * repository method has no check, so new queries cannot skip it. A plan that falls back to a collection scan is logged
+ * as a warning, or fails startup with {@code indexes.plan-check: fail}. Runs after
+ * {@link IndexMigrator}, so the migrated indexes are already in place.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Slf4j
+public class QueryPlanVerifier implements ApplicationRunner {
+
+    public enum Mode { OFF, WARN, FAIL }
+
+    private static final Date SAMPLE_TIME = new Date(0);
+    private static final ObjectId SAMPLE_ID = new ObjectId("000000000000000000000000");
+    private static final String SAMPLE_USER = "plan-check@example.invalid";
+    private static final List<String> RECURRING = List.of("DAILY", "WEEKLY", "MONTHLY");
+
+    static final List<PlanCheck> CHECKS = List.of(
+            new PlanCheck("findByUserId", "events", new Query(Criteria.where("userId").is(SAMPLE_USER))),
+            new PlanCheck("findByUserId", "events",
+                    new Query(Criteria.where("userId").is(SAMPLE_USER))
+                            .with(Sort.by(Sort.Direction.ASC, "dateTime", "_id"))),
+            new PlanCheck("findIdsByUserId", "events", new Query(Criteria.where("userId").is(SAMPLE_USER))),
+            new PlanCheck("countByUserId", "events", new Query(Criteria.where("userId").is(SAMPLE_USER))),
+            new PlanCheck("deleteByIdIn", "events", new Query(Criteria.where("_id").in(SAMPLE_ID))),
+            new PlanCheck("findByDateTimeBetween", "events",
+                    new Query(Criteria.where("dateTime").gte(SAMPLE_TIME).lt(SAMPLE_TIME))),
+            new PlanCheck("findByUserIdAndDateTimeBetween", "events",
+                    new Query(Criteria.where("userId").is(SAMPLE_USER).and("dateTime").gte(SAMPLE_TIME).lt(SAMPLE_TIME))),
+            new PlanCheck("findByUserIdAndDateTimeGreaterThan", "events",
+                    new Query(Criteria.where("userId").is(SAMPLE_USER).and("dateTime").gt(SAMPLE_TIME))),
+            new PlanCheck("findByUserIdAndDateTimeBetweenOrderByDateTimeAsc", "events",
+                    new Query(Criteria.where("userId").is(SAMPLE_USER).and("dateTime").gt(SAMPLE_TIME).lt(SAMPLE_TIME))
+                            .with(Sort.by(Sort.Direction.ASC, "dateTime"))),
+            new PlanCheck("findByUserIdAfter", "events",
+                    new Query(Criteria.where("userId").is(SAMPLE_USER)
+                            .orOperator(Criteria.where("dateTime").gt(SAMPLE_TIME),
+                                    Criteria.where("dateTime").is(SAMPLE_TIME).and("_id").gt(SAMPLE_ID)))
+                            .with(Sort.by(Sort.Direction.ASC, "dateTime", "_id"))),
+            new PlanCheck("streamByUserIdOrderByDateTimeAscIdAsc", "events",
+                    new Query(Criteria.where("userId").is(SAMPLE_USER))
+                            .with(Sort.by(Sort.Direction.ASC, "dateTime", "_id"))),
+            new PlanCheck("findOneOffByUserIdAfter", "events",
+                    new Query(Criteria.where("userId").is(SAMPLE_USER)
+                            .and("dateTime").gt(SAMPLE_TIME)
+                            .and("recurrence").nin(RECURRING))
+                            .with(Sort.by(Sort.Direction.ASC, "dateTime"))),
+            new PlanCheck("findRecurringByUserIdEndingNotBefore", "events",
+                    new Query(Criteria.where("userId").is(SAMPLE_USER).and("recurrence").in(RECURRING)
+                            .and("dateTime").lte(SAMPLE_TIME)
+                            .orOperator(Criteria.where("recurrenceEndDate").is(null),
+                                    Criteria.where("recurrenceEndDate").gte(SAMPLE_TIME)))),
+            new PlanCheck("findRecurringEndingNotBefore", "events",
+                    new Query(Criteria.where("recurrence").in(RECURRING).and("dateTime").lte(SAMPLE_TIME)
+                            .orOperator(Criteria.where("recurrenceEndDate").is(null),
+                                    Criteria.where("recurrenceEndDate").gte(SAMPLE_TIME)))));
+
+    private final MongoTemplate mongoTemplate;
+    private final Mode mode;
+
+    @Autowired
+    public QueryPlanVerifier(MongoTemplate mongoTemplate, @Value("${indexes.plan-check:warn}") String mode) {
+        this.mongoTemplate = mongoTemplate;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (mode == Mode.OFF) {
+            return;
+        }
+
+        List<String> scanning = verify(CHECKS);
+        if (scanning.isEmpty()) {
+            log.info("All {} checked queries use an index", CHECKS.size());
+            return;
+        }
+
+        String message = "Queries planned as a collection scan: " + String.join(", ", scanning);
+        if (mode == Mode.FAIL) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+
+    /**
+     * Explain each query and collect the ones whose winning plan scans the collection
+     * @param checks The queries to check
+     * @return The names of the queries that would not use an index
+     */
+    List<String> verify(List<PlanCheck> checks) {
+        List<String> scanning = new ArrayList<>();
+        for (PlanCheck check : checks) {
+            Document explain = mongoTemplate.getCollection(check.collection())
+                    .find(check.query().getQueryObject())
+                    .sort(check.query().getSortObject())
+                    .explain(ExplainVerbosity.QUERY_PLANNER);
+            Document queryPlanner = explain.get("queryPlanner", Document.class);
+            if (queryPlanner == null || usesCollectionScan(queryPlanner.get("winningPlan"))) {
+                scanning.add(check.name());
+            }
+        }
+        return scanning;
+    }
+
+    /**
+     * @param plan A plan stage, or a list of stages
+     * @return true if the stage or any of its input stages scans the whole collection
+     */
+    static boolean usesCollectionScan(Object plan) {
+        if (plan instanceof Document stage) {
+            if ("COLLSCAN".equals(stage.get("stage"))) {
+                return true;
+            }
+            return stage.values().stream().anyMatch(QueryPlanVerifier::usesCollectionScan);
+        }
+        if (plan instanceof List<?> stages) {
+            return stages.stream().anyMatch(QueryPlanVerifier::usesCollectionScan);
+        }
+        return false;
+    }
+
+    /**
+     * A repository query whose plan is checked
+     *
+     * @param name The repository method the query mirrors
+     * @param collection The collection it runs on
+     * @param query An equivalent query with sample values
+     */
+    record PlanCheck(String name, String collection, Query query) {
+    }
+}
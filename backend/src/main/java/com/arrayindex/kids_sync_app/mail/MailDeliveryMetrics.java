@@ -0,0 +1,59 @@
+package com.arrayindex.kids_sync_app.mail;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and latency counters for outgoing mail.
+ * Latency is measured from the moment a message is queued until the SMTP server accepts it.
+ */
+public class MailDeliveryMetrics {
+
+    private final long startedAt = System.nanoTime();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    void recordSent(long queuedAtNanos) {
+        long latency = System.nanoTime() - queuedAtNanos;
+        sent.increment();
+        latencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    void recordFailed() {
+        failed.increment();
+    }
+
+    void recordBatch() {
+        batches.increment();
+    }
+
+    void recordConnect() {
+        connects.increment();
+    }
+
+    /**
+     * @return A point-in-time copy of the counters
+     */
+    public Snapshot snapshot() {
+        long sentCount = sent.sum();
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        return new Snapshot(
+                sentCount,
+                failed.sum(),
+                batches.sum(),
+                connects.sum(),
+                sentCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(latencyNanos.sum() / sentCount),
+                TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()),
+                elapsedSeconds > 0 ? sentCount / elapsedSeconds : 0);
+    }
+
+    public record Snapshot(long sent, long failed, long batches, long connects,
+                           long averageLatencyMillis, long maxLatencyMillis, double messagesPerSecond) {
+    }
+}
@@ -0,0 +1,229 @@
+package com.arrayindex.kids_sync_app.mail;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Priority-aware outbound mail queue that keeps sending within the provider's quotas.
+ *
+ * Sends are ordered by lead time (minutes before the event, so a "5m" reminder goes before
+ * a "24h" one) and each send takes one token from a per-minute and a per-day token bucket.
+ * Low-urgency sends only take tokens while both buckets are above a reserve, keeping budget
+ * for urgent reminders at busy times. A low-urgency send that cannot get a token within a
+ * short wait is deferred (completed with false) so the caller can retry later; other sends
+ * wait for a token until their deadline. A caller of {@link #send} waits at most the
+ * quota wait plus the send timeout, and withdraws a send that has not started by then.
+ */
+@Component
+@Slf4j
+public class OutboundMailQueue {
+
+    /**
+     * Lead time used for mail that is not tied to a reminder window
+     */
+    public static final int DEFAULT_LEAD_MINUTES = 60;
+
+    private final TokenBucket perMinute;
+    private final TokenBucket perDay;
+    private final int lowUrgencyLeadMinutes;
+    private final double lowUrgencyReserve;
+    private final long lowUrgencyMaxWaitMillis;
+
+    private final PriorityBlockingQueue<QueuedSend> queue = new PriorityBlockingQueue<>(64,
+            Comparator.comparingInt(QueuedSend::leadMinutes).thenComparingLong(QueuedSend::sequence));
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${mail.rate-limit.send-timeout-ms:60000}")
+    private long sendTimeoutMillis = 60000;
+
+    private Thread drainer;
+    private volatile boolean running;
+
+    public OutboundMailQueue(
+            @Value("${mail.rate-limit.per-minute:20}") long perMinuteLimit,
+            @Value("${mail.rate-limit.per-day:500}") long perDayLimit,
+            @Value("${mail.rate-limit.low-urgency-lead-hours:6}") int lowUrgencyLeadHours,
+            @Value("${mail.rate-limit.low-urgency-reserve:0.2}") double lowUrgencyReserve,
+            @Value("${mail.rate-limit.low-urgency-max-wait-ms:2000}") long lowUrgencyMaxWaitMillis) {
+        this.perMinute = new TokenBucket(perMinuteLimit, TimeUnit.MINUTES.toNanos(1));
+        this.perDay = new TokenBucket(perDayLimit, TimeUnit.DAYS.toNanos(1));
+        this.lowUrgencyLeadMinutes = lowUrgencyLeadHours * 60;
+        this.lowUrgencyReserve = lowUrgencyReserve;
+        this.lowUrgencyMaxWaitMillis = lowUrgencyMaxWaitMillis;
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        drainer = Thread.ofPlatform().daemon().name("mail-queue-drainer").start(this::drain);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (drainer != null) {
+            drainer.interrupt();
+        }
+        senders.shutdown();
+        QueuedSend send;
+        while ((send = queue.poll()) != null) {
+            send.result().complete(false);
+        }
+    }
+
+    /**
+     * Queue a send and wait for its outcome
+     *
+     * @param leadMinutes Minutes between the send and the event; lower is more urgent
+     * @param maxWait How long the send may wait for quota
+     * @param send Performs the actual send and reports success
+     * @return true if the mail was sent, false if it failed, expired, was deferred or timed out
+     */
+    public boolean send(int leadMinutes, Duration maxWait, BooleanSupplier send) {
+        CompletableFuture<Boolean> result = submit(leadMinutes, maxWait, send);
+        try {
+            return result.get(maxWait.toMillis() + sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Withdrawn if the drainer has not reached it yet; a send already running is left to finish
+            result.cancel(false);
+            expired.incrementAndGet();
+            log.warn("Queued send did not finish within {} ms", maxWait.toMillis() + sendTimeoutMillis);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.error("Queued send failed: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Queue a send
+     *
+     * @param leadMinutes Minutes between the send and the event; lower is more urgent
+     * @param maxWait How long the send may wait for quota
+     * @param send Performs the actual send and reports success
+     * @return Completes with the outcome of the send
+     */
+    public CompletableFuture<Boolean> submit(int leadMinutes, Duration maxWait, BooleanSupplier send) {
+        long now = System.nanoTime();
+        QueuedSend queued = new QueuedSend(leadMinutes, sequence.incrementAndGet(), now,
+                now + maxWait.toNanos(), send, new CompletableFuture<>());
+        if (!running) {
+            queued.result().complete(false);
+        } else {
+            queue.add(queued);
+        }
+        return queued.result();
+    }
+
+    /**
+     * @return Queue depth, oldest item age and remaining quota
+     */
+    public Map<String, Object> getStats() {
+        long now = System.nanoTime();
+        long oldest = queue.stream().mapToLong(QueuedSend::enqueuedAt).min().orElse(now);
+        synchronized (this) {
+            return Map.of(
+                    "depth", queue.size(),
+                    "oldestItemAgeMillis", TimeUnit.NANOSECONDS.toMillis(now - oldest),
+                    "minuteTokensAvailable", (long) perMinute.available(),
+                    "dayTokensAvailable", (long) perDay.available(),
+                    "deferred", deferred.get(),
+                    "expired", expired.get());
+        }
+    }
+
+    private void drain() {
+        try {
+            while (running) {
+                QueuedSend next = queue.take();
+                if (next.result().isDone()) {
+                    // Withdrawn by a caller that stopped waiting
+                    continue;
+                }
+                long now = System.nanoTime();
+                boolean lowUrgency = next.leadMinutes() >= lowUrgencyLeadMinutes;
+
+                if (now > next.deadline()) {
+                    expired.incrementAndGet();
+                    next.result().complete(false);
+                    continue;
+                }
+
+                long waitNanos = tryAcquire(lowUrgency);
+                if (waitNanos == 0) {
+                    senders.submit(() -> run(next));
+                    continue;
+                }
+
+                if (lowUrgency && now - next.enqueuedAt() > TimeUnit.MILLISECONDS.toNanos(lowUrgencyMaxWaitMillis)) {
+                    // Leave the budget to urgent reminders; the caller retries on a later tick
+                    deferred.incrementAndGet();
+                    next.result().complete(false);
+                    continue;
+                }
+
+                queue.add(next);
+                TimeUnit.NANOSECONDS.sleep(Math.min(waitNanos, TimeUnit.MILLISECONDS.toNanos(100)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Take a token from both buckets if possible
+     * @param lowUrgency Whether the send may only use budget above the reserve
+     * @return 0 if a token was taken, otherwise nanoseconds until one may be available
+     */
+    private synchronized long tryAcquire(boolean lowUrgency) {
+        double minuteRequired = lowUrgency ? 1 + perMinute.getCapacity() * lowUrgencyReserve : 1;
+        double dayRequired = lowUrgency ? 1 + perDay.getCapacity() * lowUrgencyReserve : 1;
+
+        long waitNanos = Math.max(perMinute.nanosUntil(minuteRequired), perDay.nanosUntil(dayRequired));
+        if (waitNanos == 0) {
+            perMinute.consume();
+            perDay.consume();
+        }
+        return waitNanos;
+    }
+
+    private void run(QueuedSend send) {
+        if (send.result().isDone()) {
+            return;
+        }
+        try {
+            send.result().complete(send.send().getAsBoolean());
+        } catch (Exception e) {
+            log.error("Queued send failed: {}", e.getMessage(), e);
+            send.result().complete(false);
+        }
+    }
+
+    private record QueuedSend(int leadMinutes, long sequence, long enqueuedAt, long deadline,
+                              BooleanSupplier send, CompletableFuture<Boolean> result) {
+    }
+}
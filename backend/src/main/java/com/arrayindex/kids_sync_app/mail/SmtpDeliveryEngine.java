@@ -0,0 +1,225 @@
+package com.arrayindex.kids_sync_app.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends mail over a small pool of long-lived, authenticated SMTP connections.
+ *
+ * Each worker thread owns one {@link Transport}. Messages are queued and a worker takes
+ * up to {@code batchSize} of them at a time and sends them back to back over its
+ * connection, so the TCP, STARTTLS and AUTH handshakes are paid once per connection
+ * instead of once per message. Only a connection that has been idle longer than
+ * {@code staleAfterMillis} is checked with NOOP before use; otherwise a connection that fails
+ * is noticed when a send fails, and it is reopened and the message retried once.
+ */
+@Slf4j
+public class SmtpDeliveryEngine {
+
+    private final JavaMailSenderImpl mailSender;
+    private final int poolSize;
+    private final int batchSize;
+    private final long staleAfterMillis;
+    private final BlockingQueue<QueuedMail> queue;
+    private final MailDeliveryMetrics metrics = new MailDeliveryMetrics();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+    private long lastLoggedSent;
+
+    public SmtpDeliveryEngine(JavaMailSenderImpl mailSender, int poolSize, int batchSize,
+                              int queueCapacity, long staleAfterMillis) {
+        this.mailSender = mailSender;
+        this.poolSize = poolSize;
+        this.batchSize = batchSize;
+        this.staleAfterMillis = staleAfterMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Start the worker threads
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < poolSize; i++) {
+            Thread worker = Thread.ofPlatform().daemon().name("smtp-worker-" + i).start(this::runWorker);
+            workers.add(worker);
+        }
+        log.info("SMTP delivery engine started with {} connections, batch size {}", poolSize, batchSize);
+    }
+
+    /**
+     * Stop the workers and close their connections. Queued messages are failed.
+     */
+    public synchronized void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+
+        QueuedMail mail;
+        while ((mail = queue.poll()) != null) {
+            mail.result().complete(false);
+        }
+    }
+
+    /**
+     * Queue a message for delivery
+     * @param message The message to send
+     * @return Completes with true once the server accepted the message, false if it could not be sent.
+     *         Cancelling it before a connection picks the message up withdraws the message.
+     */
+    public CompletableFuture<Boolean> submit(MimeMessage message) {
+        QueuedMail mail = new QueuedMail(message, System.nanoTime(), new CompletableFuture<>());
+        if (!running || !queue.offer(mail)) {
+            log.warn("SMTP delivery queue is full or stopped, rejecting message");
+            metrics.recordFailed();
+            mail.result().complete(false);
+        }
+        return mail.result();
+    }
+
+    /**
+     * @return The delivery metrics
+     */
+    public MailDeliveryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Log throughput and latency when there was any traffic since the last report
+     */
+    @Scheduled(fixedRateString = "${mail.pool.metrics-log-interval-ms:300000}")
+    public void logMetrics() {
+        MailDeliveryMetrics.Snapshot snapshot = metrics.snapshot();
+        if (snapshot.sent() == lastLoggedSent) {
+            return;
+        }
+        lastLoggedSent = snapshot.sent();
+        log.info("SMTP delivery: sent={}, failed={}, batches={}, connects={}, avgLatency={} ms, maxLatency={} ms, rate={} msg/s, queued={}",
+                snapshot.sent(), snapshot.failed(), snapshot.batches(), snapshot.connects(),
+                snapshot.averageLatencyMillis(), snapshot.maxLatencyMillis(),
+                String.format("%.2f", snapshot.messagesPerSecond()), queue.size());
+    }
+
+    /**
+     * @return The number of messages waiting for a connection
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void runWorker() {
+        Transport transport = null;
+        long lastUsed = 0;
+        List<QueuedMail> batch = new ArrayList<>(batchSize);
+
+        try {
+            while (running) {
+                QueuedMail first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                metrics.recordBatch();
+
+                if (transport != null && System.currentTimeMillis() - lastUsed > staleAfterMillis
+                        && !transport.isConnected()) {
+                    log.debug("SMTP connection went stale, reconnecting");
+                    close(transport);
+                    transport = null;
+                }
+
+                for (QueuedMail mail : batch) {
+                    // Withdrawn by a caller that stopped waiting; it may already be retrying the message
+                    if (mail.result().isDone()) {
+                        log.debug("Skipping SMTP message withdrawn after {} ms in the queue",
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mail.queuedAtNanos()));
+                        continue;
+                    }
+                    transport = send(transport, mail);
+                }
+                lastUsed = System.currentTimeMillis();
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            batch.forEach(mail -> mail.result().complete(false));
+            close(transport);
+        }
+    }
+
+    /**
+     * Send one message, opening the connection if there is none and reopening it if the send fails
+     * @return The transport to use for the next message (null if it could not be opened)
+     */
+    private Transport send(Transport transport, QueuedMail mail) {
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            try {
+                if (transport == null) {
+                    transport = connect();
+                }
+                MimeMessage message = mail.message();
+                message.saveChanges();
+                transport.sendMessage(message, message.getAllRecipients());
+                metrics.recordSent(mail.queuedAtNanos());
+                mail.result().complete(true);
+                return transport;
+            } catch (MessagingException | IllegalStateException e) {
+                // IllegalStateException: the transport noticed it was disconnected
+                log.warn("SMTP send attempt {} failed: {}", attempt, e.getMessage());
+                close(transport);
+                transport = null;
+            }
+        }
+
+        metrics.recordFailed();
+        mail.result().complete(false);
+        return null;
+    }
+
+    private Transport connect() throws MessagingException {
+        String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp";
+        Transport transport = mailSender.getSession().getTransport(protocol);
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        metrics.recordConnect();
+        return transport;
+    }
+
+    private void close(Transport transport) {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private record QueuedMail(MimeMessage message, long queuedAtNanos, CompletableFuture<Boolean> result) {
+    }
+}
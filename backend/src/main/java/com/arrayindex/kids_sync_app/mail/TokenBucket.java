@@ -0,0 +1,52 @@
+package com.arrayindex.kids_sync_app.mail;
+
+/**
+ * Token bucket that refills continuously at {@code capacity} tokens per period.
+ * Not thread-safe on its own; callers synchronize.
+ */
+class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(long capacity, long periodNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / periodNanos;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * @return Tokens currently available
+     */
+    double available() {
+        refill();
+        return tokens;
+    }
+
+    void consume() {
+        refill();
+        tokens -= 1;
+    }
+
+    /**
+     * @param required Tokens that must be available
+     * @return Nanoseconds until that many tokens are available (0 if already available)
+     */
+    long nanosUntil(double required) {
+        double missing = required - available();
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / tokensPerNano);
+    }
+
+    long getCapacity() {
+        return capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
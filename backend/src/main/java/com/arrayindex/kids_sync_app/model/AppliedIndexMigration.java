@@ -0,0 +1,32 @@
+package com.arrayindex.kids_sync_app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that an index migration has been applied to this database
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "index_migrations")
+public class AppliedIndexMigration {
+
+    /**
+     * The version of the migration
+     */
+    @Id
+    private int version;
+
+    private String description;
+
+    /**
+     * When the migration's indexes were built
+     */
+    private LocalDateTime appliedAt;
+}
@@ -0,0 +1,36 @@
+package com.arrayindex.kids_sync_app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The position up to which a change stream has been applied, so it can resume
+ * there after a restart
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "change_stream_checkpoints")
+public class ChangeStreamCheckpoint {
+
+    /**
+     * The stream and the instance reading it
+     */
+    @Id
+    private String id;
+
+    /**
+     * The resume token of the last change applied, as JSON
+     */
+    private String resumeToken;
+
+    /**
+     * When the checkpoint was stored
+     */
+    private Instant updatedAt;
+}
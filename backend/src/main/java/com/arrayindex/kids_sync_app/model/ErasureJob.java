@@ -0,0 +1,95 @@
+package com.arrayindex.kids_sync_app.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Background removal of a deleted account's events.
+ * Claimed by one instance at a time; a job whose claim ran out is picked up again and
+ * continues with the events that are left.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "erasure_jobs")
+@CompoundIndex(name = "status_claimed_until", def = "{'status': 1, 'claimedUntil': 1}")
+public class ErasureJob {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE
+    }
+
+    private static final SecureRandom ID_RANDOM = new SecureRandom();
+
+    /**
+     * Unguessable random ID (192 bits from a SecureRandom, URL-safe Base64), so progress can
+     * be looked up after the account and its tokens are gone. It is the only credential for
+     * the public status endpoint.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The email of the deleted user, which is the user ID of their events
+     */
+    @Indexed
+    private String email;
+
+    private Status status = Status.PENDING;
+
+    /**
+     * Number of events the account had when erasure was requested
+     */
+    private long eventsTotal;
+
+    private long eventsDeleted;
+
+    /**
+     * Number of times the job was claimed, including resumes after a failure or restart
+     */
+    private int attempts;
+
+    /**
+     * The reason the last run stopped early
+     */
+    private String lastError;
+
+    /**
+     * The job can be claimed by another run after this time
+     */
+    private LocalDateTime claimedUntil;
+
+    private LocalDateTime requestedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+
+    /**
+     * Set when the job is done; the TTL index removes the job after this time
+     */
+    @Indexed(name = "expires_at_ttl", expireAfter = "0s")
+    private LocalDateTime expiresAt;
+
+    public ErasureJob(String email, long eventsTotal, LocalDateTime now) {
+        this.id = newId();
+        this.email = email;
+        this.eventsTotal = eventsTotal;
+        this.claimedUntil = now;
+        this.requestedAt = now;
+        this.updatedAt = now;
+    }
+
+    private static String newId() {
+        byte[] bytes = new byte[24];
+        ID_RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,76 @@
+package com.arrayindex.kids_sync_app.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A concrete occurrence of an event inside the materialized horizon.
+ *
+ * One-off events have a single occurrence and recurring events one per repetition.
+ * The event fields needed to show the occurrence or send its reminders are copied in,
+ * so range and reminder queries are answered from this collection alone.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "event_occurrences")
+@CompoundIndex(name = "user_date_time", def = "{'userId': 1, 'dateTime': 1}")
+public class EventOccurrence {
+
+    /**
+     * The event ID and occurrence time, so rewriting an occurrence is idempotent
+     */
+    @Id
+    private String id;
+
+    /**
+     * The ID of the event (series) this is an occurrence of
+     */
+    @Indexed
+    private String eventId;
+
+    private String userId;
+
+    /**
+     * The date and time of this occurrence
+     */
+    @Indexed
+    private LocalDateTime dateTime;
+
+    private String name;
+    private String recurrence;
+    private LocalDateTime recurrenceEndDate;
+    private String notes;
+    private boolean completed;
+
+    /**
+     * Create the stored form of an occurrence
+     * @param occurrence The event at the time of the occurrence
+     * @return The occurrence document
+     */
+    public static EventOccurrence of(Event occurrence) {
+        EventOccurrence stored = new EventOccurrence();
+        stored.setId(occurrence.getId() + "@" + occurrence.getDateTime());
+        stored.setEventId(occurrence.getId());
+        stored.setUserId(occurrence.getUserId());
+        stored.setDateTime(occurrence.getDateTime());
+        stored.setName(occurrence.getName());
+        stored.setRecurrence(occurrence.getRecurrence());
+        stored.setRecurrenceEndDate(occurrence.getRecurrenceEndDate());
+        stored.setNotes(occurrence.getNotes());
+        stored.setCompleted(occurrence.isCompleted());
+        return stored;
+    }
+
+    /**
+     * @return The occurrence as an event with the series ID and the occurrence time
+     */
+    public Event toEvent() {
+        return new Event(eventId, name, dateTime, userId, recurrence, recurrenceEndDate, notes, completed);
+    }
+}
@@ -0,0 +1,34 @@
+package com.arrayindex.kids_sync_app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * The time range for which the occurrences of all events have been materialized
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "occurrence_horizon")
+public class OccurrenceHorizon {
+
+    public static final String ID = "events";
+
+    @Id
+    private String id;
+
+    /**
+     * Occurrences from this time on are materialized
+     */
+    private LocalDateTime materializedFrom;
+
+    /**
+     * Occurrences up to this time are materialized
+     */
+    private LocalDateTime materializedThrough;
+}
@@ -0,0 +1,75 @@
+package com.arrayindex.kids_sync_app.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification waiting to be delivered by the outbox drainer.
+ * Written in the same transaction as the event it belongs to, or, for batches, before the
+ * events are written and held back until the write is done.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "outbox")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class OutboxMessage {
+
+    public enum Status {
+        PENDING,
+        SENT,
+        CANCELLED,
+        DEAD
+    }
+
+    @Id
+    private String id;
+
+    /**
+     * The ID of the event the notification is about
+     */
+    @Indexed
+    private String eventId;
+
+    /**
+     * The ID of the user who owns the event
+     */
+    private String userId;
+
+    private Status status = Status.PENDING;
+
+    /**
+     * Number of delivery attempts started so far
+     */
+    private int attempts;
+
+    /**
+     * The earliest time of the next delivery attempt
+     */
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * The reason the last attempt failed
+     */
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    /**
+     * When the message reached SENT or CANCELLED; such messages are removed a week later
+     */
+    @Indexed(name = "completed_at_ttl", expireAfter = "7d")
+    private LocalDateTime completedAt;
+
+    public OutboxMessage(String eventId, String userId, LocalDateTime now) {
+        this.eventId = eventId;
+        this.userId = userId;
+        this.createdAt = now;
+        this.nextAttemptAt = now;
+    }
+}
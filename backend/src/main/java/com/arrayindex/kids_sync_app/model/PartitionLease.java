@@ -0,0 +1,36 @@
+package com.arrayindex.kids_sync_app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Lease on one hash partition of the reminder workload.
+ * The owning node renews it periodically; once it expires any node may claim it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "reminder_partitions")
+public class PartitionLease {
+
+    /**
+     * The partition number
+     */
+    @Id
+    private Integer id;
+
+    /**
+     * The node holding the lease, or null if the partition is free
+     */
+    private String owner;
+
+    /**
+     * When the lease runs out unless it is renewed
+     */
+    private Instant expiresAt;
+}
@@ -0,0 +1,30 @@
+package com.arrayindex.kids_sync_app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Heartbeat of a backend instance taking part in reminder partitioning.
+ * Rows of stopped nodes are removed by MongoDB once they expire.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "reminder_nodes")
+public class ReminderNode {
+
+    @Id
+    private String id;
+
+    /**
+     * When the node is considered gone unless it sends another heartbeat
+     */
+    @Indexed(name = "expires_at_ttl", expireAfter = "0s")
+    private Instant expiresAt;
+}
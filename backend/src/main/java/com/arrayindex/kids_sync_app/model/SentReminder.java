@@ -0,0 +1,54 @@
+package com.arrayindex.kids_sync_app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that a reminder has been sent for an event and reminder window.
+ * Rows are removed by MongoDB once the event has passed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "sent_reminders")
+@CompoundIndex(name = "event_window_unique", def = "{'eventId': 1, 'windowKey': 1}", unique = true)
+public class SentReminder {
+
+    @Id
+    private String id;
+
+    /**
+     * The ID of the event the reminder was sent for
+     */
+    private String eventId;
+
+    /**
+     * The key of the reminder window (e.g., "24h", "5m")
+     */
+    private String windowKey;
+
+    /**
+     * When the reminder was sent
+     */
+    private LocalDateTime sentAt;
+
+    /**
+     * When the row can be removed (after the event has passed)
+     */
+    @Indexed(name = "expires_at_ttl", expireAfter = "0s")
+    private LocalDateTime expiresAt;
+
+    public SentReminder(String eventId, String windowKey, LocalDateTime sentAt, LocalDateTime expiresAt) {
+        this.eventId = eventId;
+        this.windowKey = windowKey;
+        this.sentAt = sentAt;
+        this.expiresAt = expiresAt;
+    }
+}
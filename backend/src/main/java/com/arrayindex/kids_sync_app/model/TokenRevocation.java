@@ -0,0 +1,38 @@
+package com.arrayindex.kids_sync_app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Tokens issued to a user before a point in time that are no longer accepted, shared by all instances
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "token_revocations")
+public class TokenRevocation {
+
+    /**
+     * The email address the tokens were issued to
+     */
+    @Id
+    private String email;
+
+    /**
+     * Tokens issued before this time are revoked (whole seconds)
+     */
+    @Indexed
+    private Instant revokedBefore;
+
+    /**
+     * When every token the revocation applies to has expired; the TTL index removes it then
+     */
+    @Indexed(name = "expires_at_ttl", expireAfter = "0s")
+    private Instant expiresAt;
+}
@@ -8,6 +8,8 @@ import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import java.util.List;
+
 @Document(collection = "users")
 @Getter
 @Setter
@@ -24,6 +26,8 @@ public class User {
     @JsonIgnore
     private String password; // Hashed
     private String whatsappNumber; // Optional, for WhatsApp reminders
+    private boolean reminderDigest; // Combine reminders due at the same time into one email
+    private List<ReminderWindow> reminderWindows; // Own reminder windows, or null for the defaults
 
     // Constructor for registration (password hashing happens in service/controller)
     public User(String email, String password, String whatsappNumber) {
@@ -0,0 +1,16 @@
+package com.arrayindex.kids_sync_app.notification;
+
+import java.time.Duration;
+
+/**
+ * How the {@link NotificationFanout} guards the sends of one channel
+ *
+ * @param timeout How long one attempt may take, on top of the notification's maximum wait
+ * @param maxAttempts Attempts per notification, including the first
+ * @param retryBackoff Pause before the second attempt, doubled for every further attempt
+ * @param failureThreshold Consecutive failed notifications after which the circuit opens
+ * @param openDuration How long an open circuit rejects sends before letting a trial through
+ */
+public record ChannelPolicy(Duration timeout, int maxAttempts, Duration retryBackoff,
+                            int failureThreshold, Duration openDuration) {
+}
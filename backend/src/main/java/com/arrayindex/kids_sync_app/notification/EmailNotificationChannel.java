@@ -0,0 +1,60 @@
+package com.arrayindex.kids_sync_app.notification;
+
+import com.arrayindex.kids_sync_app.mail.OutboundMailQueue;
+import com.arrayindex.kids_sync_app.model.User;
+import com.arrayindex.kids_sync_app.service.EmailService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Sends reminders by email through the rate-limited {@link OutboundMailQueue}, which
+ * orders them by urgency within the provider's quota
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EmailNotificationChannel implements NotificationChannel {
+
+    private final OutboundMailQueue outboundMailQueue;
+    private final EmailService emailService;
+    private final ChannelPolicy policy;
+
+    public EmailNotificationChannel(
+            OutboundMailQueue outboundMailQueue,
+            EmailService emailService,
+            @Value("${notifications.email.timeout-ms:60000}") long timeoutMillis,
+            @Value("${notifications.email.max-attempts:1}") int maxAttempts,
+            @Value("${notifications.email.retry-backoff-ms:1000}") long retryBackoffMillis,
+            @Value("${notifications.email.failure-threshold:10}") int failureThreshold,
+            @Value("${notifications.email.open-seconds:30}") long openSeconds) {
+        this.outboundMailQueue = outboundMailQueue;
+        this.emailService = emailService;
+        this.policy = new ChannelPolicy(Duration.ofMillis(timeoutMillis), maxAttempts,
+                Duration.ofMillis(retryBackoffMillis), failureThreshold, Duration.ofSeconds(openSeconds));
+    }
+
+    @Override
+    public String getName() {
+        return "email";
+    }
+
+    @Override
+    public ChannelPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public boolean isEnabledFor(User user) {
+        return user.getEmail() != null && !user.getEmail().isBlank();
+    }
+
+    @Override
+    public boolean send(Notification notification, User user) {
+        return outboundMailQueue.send(notification.leadMinutes(), notification.maxWait(), () -> notification.isDigest()
+                ? emailService.sendReminderDigest(notification.events(), user.getEmail())
+                : emailService.sendEventReminder(notification.events().get(0), user.getEmail()));
+    }
+}
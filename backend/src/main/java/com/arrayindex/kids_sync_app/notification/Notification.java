@@ -0,0 +1,23 @@
+package com.arrayindex.kids_sync_app.notification;
+
+import com.arrayindex.kids_sync_app.model.Event;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A reminder to deliver to one user: a single event, or several events combined into a digest
+ *
+ * @param events The events to remind about, soonest first
+ * @param leadMinutes Minutes before the (soonest) event at which the reminder window opened; lower is more urgent
+ * @param maxWait How long a channel may hold the notification back, e.g. for sending quota
+ */
+public record Notification(List<Event> events, int leadMinutes, Duration maxWait) {
+
+    /**
+     * @return true if the notification combines several events
+     */
+    public boolean isDigest() {
+        return events.size() > 1;
+    }
+}
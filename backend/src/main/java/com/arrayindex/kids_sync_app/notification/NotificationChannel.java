@@ -0,0 +1,35 @@
+package com.arrayindex.kids_sync_app.notification;
+
+import com.arrayindex.kids_sync_app.model.User;
+
+/**
+ * A way of reaching a user with reminders, such as email or WhatsApp
+ */
+public interface NotificationChannel {
+
+    /**
+     * @return A short name for logs and metrics, e.g. "email"
+     */
+    String getName();
+
+    /**
+     * @return The timeout, retry and circuit breaker settings for this channel
+     */
+    ChannelPolicy getPolicy();
+
+    /**
+     * Check whether a user can be reached through this channel
+     * @param user The recipient
+     * @return true if the channel is enabled and the user has an address for it
+     */
+    boolean isEnabledFor(User user);
+
+    /**
+     * Deliver a notification. Called once per attempt by the {@link NotificationFanout}.
+     *
+     * @param notification The reminder to deliver
+     * @param user The recipient
+     * @return true if the notification was delivered
+     */
+    boolean send(Notification notification, User user);
+}
@@ -0,0 +1,161 @@
+package com.arrayindex.kids_sync_app.notification;
+
+import com.arrayindex.kids_sync_app.model.User;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers a notification to every channel a user can be reached on, in parallel.
+ *
+ * Each channel is guarded separately according to its {@link ChannelPolicy}: every attempt
+ * runs on its own virtual thread and is abandoned after the channel's timeout, failed
+ * attempts are retried with exponential backoff, and a {@link CircuitBreaker} stops calling
+ * a channel that keeps failing, so a slow WhatsApp gateway cannot hold up email.
+ *
+ * A notification counts as delivered when at least one channel delivered it; failures on
+ * the other channels are logged and counted but do not cause a resend on every channel.
+ */
+@Component
+@Slf4j
+public class NotificationFanout {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, GuardedChannel> channels = new LinkedHashMap<>();
+
+    public NotificationFanout(List<NotificationChannel> channels) {
+        for (NotificationChannel channel : channels) {
+            this.channels.put(channel.getName(), new GuardedChannel(channel));
+        }
+    }
+
+    /**
+     * Deliver a notification on all of the user's channels
+     *
+     * @param notification The reminder to deliver
+     * @param user The recipient
+     * @return true if at least one channel delivered it
+     */
+    public boolean send(Notification notification, User user) {
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>();
+        for (GuardedChannel guarded : channels.values()) {
+            if (guarded.channel.isEnabledFor(user)) {
+                sends.add(CompletableFuture.supplyAsync(() -> guarded.send(notification, user), executor));
+            }
+        }
+        if (sends.isEmpty()) {
+            log.warn("User {} cannot be reached on any notification channel", user.getEmail());
+            return false;
+        }
+
+        boolean delivered = false;
+        for (CompletableFuture<Boolean> send : sends) {
+            delivered |= send.join();
+        }
+        return delivered;
+    }
+
+    /**
+     * @return Per channel: circuit state and the number of delivered, failed, retried and rejected notifications
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        channels.forEach((name, guarded) -> stats.put(name, Map.of(
+                "circuit", guarded.circuitBreaker.getState(),
+                "delivered", guarded.delivered.get(),
+                "failed", guarded.failed.get(),
+                "retries", guarded.retries.get(),
+                "rejected", guarded.rejected.get())));
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private final class GuardedChannel {
+
+        private final NotificationChannel channel;
+        private final ChannelPolicy policy;
+        private final CircuitBreaker circuitBreaker;
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+
+        GuardedChannel(NotificationChannel channel) {
+            this.channel = channel;
+            this.policy = channel.getPolicy();
+            this.circuitBreaker = new CircuitBreaker(policy.failureThreshold(), policy.openDuration());
+        }
+
+        boolean send(Notification notification, User user) {
+            if (!circuitBreaker.tryAcquire()) {
+                rejected.incrementAndGet();
+                log.debug("Circuit of channel {} is open, skipping notification to {}", channel.getName(), user.getEmail());
+                return false;
+            }
+
+            long timeoutMillis = policy.timeout().plus(notification.maxWait()).toMillis();
+            for (int attempt = 1; attempt <= policy.maxAttempts(); attempt++) {
+                if (attempt > 1) {
+                    retries.incrementAndGet();
+                    if (!pause(policy.retryBackoff().toMillis() << (attempt - 2))) {
+                        break;
+                    }
+                }
+
+                if (attempt(notification, user, timeoutMillis)) {
+                    delivered.incrementAndGet();
+                    circuitBreaker.recordSuccess();
+                    return true;
+                }
+            }
+
+            failed.incrementAndGet();
+            circuitBreaker.recordFailure();
+            return false;
+        }
+
+        private boolean attempt(Notification notification, User user, long timeoutMillis) {
+            Future<Boolean> send = executor.submit(() -> channel.send(notification, user));
+            try {
+                return send.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                send.cancel(true);
+                log.warn("Channel {} timed out after {} ms sending to {}", channel.getName(), timeoutMillis, user.getEmail());
+            } catch (ExecutionException e) {
+                log.warn("Channel {} failed sending to {}: {}", channel.getName(), user.getEmail(),
+                        e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                send.cancel(true);
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        private boolean pause(long millis) {
+            try {
+                Thread.sleep(millis);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
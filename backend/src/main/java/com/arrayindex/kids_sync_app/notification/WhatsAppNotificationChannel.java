@@ -0,0 +1,99 @@
+package com.arrayindex.kids_sync_app.notification;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * Sends reminders as WhatsApp messages through an HTTP messaging gateway.
+ *
+ * Each message is a JSON {@code POST} of the recipient's number and the text to the
+ * configured gateway URL, over the shared pooled {@link RestClient}. Users without a
+ * WhatsApp number are skipped.
+ */
+@Component
+@Slf4j
+public class WhatsAppNotificationChannel implements NotificationChannel {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("EEE d MMM, h:mm a");
+
+    private final RestClient restClient;
+    private final boolean enabled;
+    private final String gatewayUrl;
+    private final String apiToken;
+    private final ChannelPolicy policy;
+
+    public WhatsAppNotificationChannel(
+            RestClient restClient,
+            @Value("${notifications.whatsapp.enabled:false}") boolean enabled,
+            @Value("${notifications.whatsapp.gateway-url:http://localhost:8090/messages}") String gatewayUrl,
+            @Value("${notifications.whatsapp.api-token:}") String apiToken,
+            @Value("${notifications.whatsapp.timeout-ms:5000}") long timeoutMillis,
+            @Value("${notifications.whatsapp.max-attempts:3}") int maxAttempts,
+            @Value("${notifications.whatsapp.retry-backoff-ms:500}") long retryBackoffMillis,
+            @Value("${notifications.whatsapp.failure-threshold:5}") int failureThreshold,
+            @Value("${notifications.whatsapp.open-seconds:60}") long openSeconds) {
+        this.restClient = restClient;
+        this.enabled = enabled;
+        this.gatewayUrl = gatewayUrl;
+        this.apiToken = apiToken;
+        this.policy = new ChannelPolicy(Duration.ofMillis(timeoutMillis), maxAttempts,
+                Duration.ofMillis(retryBackoffMillis), failureThreshold, Duration.ofSeconds(openSeconds));
+    }
+
+    @Override
+    public String getName() {
+        return "whatsapp";
+    }
+
+    @Override
+    public ChannelPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public boolean isEnabledFor(User user) {
+        return enabled && user.getWhatsappNumber() != null && !user.getWhatsappNumber().isBlank();
+    }
+
+    @Override
+    public boolean send(Notification notification, User user) {
+        RestClient.RequestBodySpec request = restClient.post()
+                .uri(gatewayUrl)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (!apiToken.isBlank()) {
+            request.header("Authorization", "Bearer " + apiToken);
+        }
+
+        // Errors (4xx/5xx, I/O) are thrown and counted as a failed attempt by the fan-out
+        request.body(Map.of("to", user.getWhatsappNumber(), "text", formatMessage(notification)))
+                .retrieve()
+                .toBodilessEntity();
+        log.debug("Sent WhatsApp reminder to {}", user.getWhatsappNumber());
+        return true;
+    }
+
+    static String formatMessage(Notification notification) {
+        if (!notification.isDigest()) {
+            return "Reminder: " + describe(notification.events().get(0));
+        }
+
+        StringBuilder text = new StringBuilder("Reminders:");
+        for (Event event : notification.events()) {
+            text.append("\n- ").append(describe(event));
+        }
+        return text.toString();
+    }
+
+    private static String describe(Event event) {
+        return event.getName() + " on " + event.getDateTime().format(TIME_FORMATTER);
+    }
+}
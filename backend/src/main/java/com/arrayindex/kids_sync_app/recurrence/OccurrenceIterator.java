@@ -0,0 +1,63 @@
+package com.arrayindex.kids_sync_app.recurrence;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily yields the occurrence times of a recurring event inside a query window.
+ *
+ * The iterator jumps straight to the first occurrence in the window and computes each
+ * following one on demand, so nothing is stored per occurrence and the cost depends only
+ * on the number of occurrences inside the window, not on how long ago the series started.
+ */
+public class OccurrenceIterator implements Iterator<LocalDateTime> {
+
+    private final LocalDateTime first;
+    private final Recurrence recurrence;
+    private final LocalDateTime last;
+
+    private long index;
+    private LocalDateTime next;
+
+    /**
+     * @param first The first occurrence of the series
+     * @param recurrence The recurrence pattern
+     * @param until The last time an occurrence may fall on, or null for an open-ended series
+     * @param from The start of the query window (inclusive)
+     * @param to The end of the query window (inclusive)
+     */
+    public OccurrenceIterator(LocalDateTime first, Recurrence recurrence, LocalDateTime until,
+                              LocalDateTime from, LocalDateTime to) {
+        this.first = first;
+        this.recurrence = recurrence;
+        this.last = until != null && until.isBefore(to) ? until : to;
+
+        if (recurrence.isRecurring()) {
+            index = recurrence.firstIndexFrom(first, from);
+            next = bounded(recurrence.occurrence(first, index));
+        } else {
+            next = first.isBefore(from) ? null : bounded(first);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public LocalDateTime next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+
+        LocalDateTime current = next;
+        next = recurrence.isRecurring() ? bounded(recurrence.occurrence(first, ++index)) : null;
+        return current;
+    }
+
+    private LocalDateTime bounded(LocalDateTime candidate) {
+        return candidate.isAfter(last) ? null : candidate;
+    }
+}
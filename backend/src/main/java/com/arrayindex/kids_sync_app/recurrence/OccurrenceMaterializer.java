@@ -0,0 +1,268 @@
+package com.arrayindex.kids_sync_app.recurrence;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.EventOccurrence;
+import com.arrayindex.kids_sync_app.model.OccurrenceHorizon;
+import com.arrayindex.kids_sync_app.repository.EventOccurrenceRepository;
+import com.arrayindex.kids_sync_app.repository.EventRepository;
+import com.arrayindex.kids_sync_app.repository.OccurrenceHorizonRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes the concrete occurrences of all events into the {@code event_occurrences}
+ * collection for a rolling horizon, so range and reminder queries become a single
+ * indexed lookup instead of expanding recurring events on every read.
+ *
+ * The horizon is built once, extended by one slice each night and trimmed to the
+ * retention period. Saving or deleting an event only rebuilds that event's occurrences.
+ * Reads outside the materialized horizon fall back to expanding at read time
+ * (see {@link Occurrences}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OccurrenceMaterializer {
+
+    private final EventRepository eventRepository;
+    private final EventOccurrenceRepository occurrenceRepository;
+    private final OccurrenceHorizonRepository horizonRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${events.occurrences.enabled:true}")
+    private boolean enabled = true;
+
+    // How many days ahead occurrences are materialized
+    @Value("${events.occurrences.horizon-days:90}")
+    private long horizonDays = 90;
+
+    // How many days of past occurrences are kept
+    @Value("${events.occurrences.retention-days:365}")
+    private long retentionDays = 365;
+
+    // Occurrences are written between these times when events are saved
+    private volatile LocalDateTime materializedFrom;
+    private volatile LocalDateTime writeThrough;
+
+    // Queries up to this time can be answered from the collection
+    private volatile LocalDateTime readThrough;
+
+    /**
+     * Load the stored horizon, or build it the first time, before the reminder index is loaded
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+
+        Optional<OccurrenceHorizon> stored = horizonRepository.findById(OccurrenceHorizon.ID);
+        if (stored.isPresent()) {
+            materializedFrom = stored.get().getMaterializedFrom();
+            writeThrough = stored.get().getMaterializedThrough();
+            readThrough = writeThrough;
+            extendHorizon();
+            return;
+        }
+
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        LocalDateTime through = from.plusDays(horizonDays);
+
+        // Open the horizon for writes first so events saved while building are not missed
+        materializedFrom = from;
+        writeThrough = through;
+        int written = materialize(from.minusNanos(1), through);
+        horizonRepository.save(new OccurrenceHorizon(OccurrenceHorizon.ID, from, through));
+        readThrough = through;
+
+        log.info("Materialized {} event occurrences from {} to {}", written, from, through);
+    }
+
+    /**
+     * Move the horizon forward by the days that passed since the last extension and
+     * drop occurrences older than the retention period
+     */
+    @Scheduled(cron = "${events.occurrences.extend-cron:0 30 2 * * *}")
+    public void extendHorizon() {
+        LocalDateTime previousThrough = writeThrough;
+        if (previousThrough == null) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDateTime through = today.atStartOfDay().plusDays(horizonDays);
+        if (through.isAfter(previousThrough)) {
+            writeThrough = through;
+            int written = materialize(previousThrough, through);
+            log.info("Extended event occurrences to {} with {} occurrences", through, written);
+        } else {
+            through = previousThrough;
+        }
+
+        LocalDateTime keepFrom = today.atStartOfDay().minusDays(retentionDays);
+        if (keepFrom.isAfter(materializedFrom)) {
+            materializedFrom = keepFrom;
+            occurrenceRepository.deleteByDateTimeBefore(keepFrom);
+        }
+
+        horizonRepository.save(new OccurrenceHorizon(OccurrenceHorizon.ID, materializedFrom, through));
+        readThrough = through;
+    }
+
+    /**
+     * Replace the stored occurrences of an event after it was created or updated
+     * @param event The saved event
+     */
+    public void rebuildSeries(Event event) {
+        LocalDateTime through = writeThrough;
+        if (through == null || event.getId() == null || event.getDateTime() == null) {
+            return;
+        }
+
+        occurrenceRepository.deleteByEventId(event.getId());
+        write(Occurrences.expand(event, materializedFrom, through).stream()
+                .map(EventOccurrence::of)
+                .toList());
+    }
+
+    /**
+     * Replace the stored occurrences of a batch of written events with one delete and one bulk write
+     * @param savedEvents The created or updated events
+     * @param deletedEventIds The IDs of deleted events
+     */
+    public void rebuildSeries(List<Event> savedEvents, Collection<String> deletedEventIds) {
+        LocalDateTime through = writeThrough;
+        if (through == null) {
+            return;
+        }
+
+        List<String> eventIds = new ArrayList<>(deletedEventIds);
+        List<EventOccurrence> occurrences = new ArrayList<>();
+        for (Event event : savedEvents) {
+            if (event.getId() != null && event.getDateTime() != null) {
+                eventIds.add(event.getId());
+                Occurrences.expand(event, materializedFrom, through).forEach(occurrence -> occurrences.add(EventOccurrence.of(occurrence)));
+            }
+        }
+        if (!eventIds.isEmpty()) {
+            occurrenceRepository.deleteByEventIdIn(eventIds);
+        }
+        write(occurrences);
+    }
+
+    /**
+     * Remove the stored occurrences of a deleted event
+     * @param eventId The ID of the event
+     */
+    public void removeSeries(String eventId) {
+        if (writeThrough != null) {
+            occurrenceRepository.deleteByEventId(eventId);
+        }
+    }
+
+    /**
+     * Remove the stored occurrences of several deleted events with one delete
+     * @param eventIds The IDs of the events
+     */
+    public void removeSeries(Collection<String> eventIds) {
+        if (writeThrough != null && !eventIds.isEmpty()) {
+            occurrenceRepository.deleteByEventIdIn(eventIds);
+        }
+    }
+
+    /**
+     * Check whether a time range lies completely inside the materialized horizon
+     * @param from The start of the range
+     * @param to The end of the range
+     * @return true if the range can be answered from the occurrences collection
+     */
+    public boolean covers(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime through = readThrough;
+        return through != null && !from.isBefore(materializedFrom) && !to.isAfter(through);
+    }
+
+    /**
+     * Find the occurrences of a user's events within a range covered by the horizon
+     * @param userId The ID of the user
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return The occurrences as events, ordered by time
+     */
+    public List<Event> findByUserIdBetween(String userId, LocalDateTime from, LocalDateTime to) {
+        return occurrenceRepository.findByUserIdAndDateTimeBetweenOrderByDateTimeAsc(userId, from, to).stream()
+                .map(EventOccurrence::toEvent)
+                .toList();
+    }
+
+    /**
+     * Find the occurrences of all events within a range covered by the horizon
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return The occurrences as events
+     */
+    public List<Event> findBetween(LocalDateTime from, LocalDateTime to) {
+        return occurrenceRepository.findByDateTimeBetween(from, to).stream()
+                .map(EventOccurrence::toEvent)
+                .toList();
+    }
+
+    /**
+     * Write the occurrences of all events in a slice of time
+     * @param after The start of the slice (exclusive)
+     * @param through The end of the slice (inclusive)
+     * @return The number of occurrences written
+     */
+    private int materialize(LocalDateTime after, LocalDateTime through) {
+        List<EventOccurrence> occurrences = new ArrayList<>();
+
+        // The repository range is exclusive, so widen it and apply the exact bounds here
+        for (Event event : eventRepository.findByDateTimeBetween(after.minusSeconds(1), through.plusSeconds(1))) {
+            if (!Occurrences.isRecurring(event)
+                    && event.getDateTime().isAfter(after) && !event.getDateTime().isAfter(through)) {
+                occurrences.add(EventOccurrence.of(event));
+            }
+        }
+
+        LocalDateTime from = after.plusNanos(1);
+        for (Event series : eventRepository.findRecurringActiveBetween(from, through)) {
+            Occurrences.expand(series, from, through).forEach(occurrence -> occurrences.add(EventOccurrence.of(occurrence)));
+        }
+
+        write(occurrences);
+        return occurrences.size();
+    }
+
+    private void write(List<EventOccurrence> occurrences) {
+        if (occurrences.isEmpty()) {
+            return;
+        }
+
+        // Upsert by ID so a slice written twice (e.g. by two instances) does not duplicate occurrences
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EventOccurrence.class);
+        for (EventOccurrence occurrence : occurrences) {
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(occurrence.getId())), occurrence,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+}
@@ -0,0 +1,111 @@
+package com.arrayindex.kids_sync_app.recurrence;
+
+import com.arrayindex.kids_sync_app.model.Event;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Expands events into their concrete occurrences inside a time window.
+ *
+ * An occurrence is a copy of the series event with the same ID and the occurrence
+ * time as its {@code dateTime}. Events that do not repeat are their own single
+ * occurrence.
+ */
+public final class Occurrences {
+
+    private Occurrences() {
+    }
+
+    /**
+     * @param event The event
+     * @return true if the event repeats
+     */
+    public static boolean isRecurring(Event event) {
+        return Recurrence.of(event.getRecurrence()).isRecurring();
+    }
+
+    /**
+     * Iterate over the occurrence times of an event inside a window.
+     * The recurrence end date is inclusive: occurrences on that day are still returned.
+     *
+     * @param event The event
+     * @param from The start of the window (inclusive)
+     * @param to The end of the window (inclusive)
+     * @return The occurrence times in order
+     */
+    public static OccurrenceIterator times(Event event, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime until = event.getRecurrenceEndDate() != null
+                ? event.getRecurrenceEndDate().toLocalDate().atTime(LocalTime.MAX)
+                : null;
+        return new OccurrenceIterator(event.getDateTime(), Recurrence.of(event.getRecurrence()), until, from, to);
+    }
+
+    /**
+     * Expand an event into its occurrences inside a window
+     *
+     * @param event The event
+     * @param from The start of the window (inclusive)
+     * @param to The end of the window (inclusive)
+     * @return The occurrences in order
+     */
+    public static List<Event> expand(Event event, LocalDateTime from, LocalDateTime to) {
+        return expand(event, from, to, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Expand an event into at most a number of its first occurrences inside a window
+     *
+     * @param event The event
+     * @param from The start of the window (inclusive)
+     * @param to The end of the window (inclusive)
+     * @param limit The most occurrences to return
+     * @return The occurrences in order
+     */
+    public static List<Event> expand(Event event, LocalDateTime from, LocalDateTime to, int limit) {
+        List<Event> occurrences = new ArrayList<>();
+        if (event.getDateTime() == null) {
+            return occurrences;
+        }
+
+        OccurrenceIterator times = times(event, from, to);
+        while (occurrences.size() < limit && times.hasNext()) {
+            LocalDateTime time = times.next();
+            occurrences.add(time.equals(event.getDateTime()) ? event : occurrence(event, time));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Expand many events into their occurrences inside a window
+     *
+     * @param events The events
+     * @param from The start of the window (inclusive)
+     * @param to The end of the window (inclusive)
+     * @return The occurrences of all events, ordered by time
+     */
+    public static List<Event> expandAll(Collection<Event> events, LocalDateTime from, LocalDateTime to) {
+        List<Event> occurrences = new ArrayList<>();
+        for (Event event : events) {
+            occurrences.addAll(expand(event, from, to));
+        }
+        occurrences.sort(Comparator.comparing(Event::getDateTime));
+        return occurrences;
+    }
+
+    /**
+     * Create a single occurrence of a series
+     *
+     * @param series The series event
+     * @param dateTime The time of the occurrence
+     * @return A copy of the series event at the given time
+     */
+    public static Event occurrence(Event series, LocalDateTime dateTime) {
+        return new Event(series.getId(), series.getName(), dateTime, series.getUserId(), series.getRecurrence(),
+                series.getRecurrenceEndDate(), series.getNotes(), series.isCompleted());
+    }
+}
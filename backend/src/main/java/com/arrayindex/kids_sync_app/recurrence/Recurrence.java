@@ -0,0 +1,84 @@
+package com.arrayindex.kids_sync_app.recurrence;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Recurrence patterns supported for events, matching the values stored in
+ * {@code Event.recurrence}
+ */
+public enum Recurrence {
+    NONE(null),
+    DAILY(ChronoUnit.DAYS),
+    WEEKLY(ChronoUnit.WEEKS),
+    MONTHLY(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unit;
+
+    Recurrence(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Parse a stored recurrence value. Missing or unknown values mean the event does not repeat.
+     * @param value The stored value, e.g. "WEEKLY"
+     * @return The recurrence pattern
+     */
+    public static Recurrence of(String value) {
+        if (value == null || value.isBlank()) {
+            return NONE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return NONE;
+        }
+    }
+
+    /**
+     * Normalize a recurrence value before it is stored. Queries match the stored value
+     * exactly, so it must be the upper case name that {@link #of(String)} resolves to.
+     * @param value The value sent by a client, e.g. "weekly"
+     * @return The stored value, e.g. "WEEKLY", or null when no value was given
+     */
+    public static String normalize(String value) {
+        return value == null ? null : of(value).name();
+    }
+
+    public boolean isRecurring() {
+        return this != NONE;
+    }
+
+    /**
+     * Compute an occurrence directly from the first one. Monthly occurrences are always
+     * derived from the first date, so an event on the 31st falls on the last day of
+     * shorter months without drifting.
+     *
+     * @param first The first occurrence
+     * @param index The number of periods after the first occurrence
+     * @return The occurrence
+     */
+    LocalDateTime occurrence(LocalDateTime first, long index) {
+        return index == 0 ? first : first.plus(index, unit);
+    }
+
+    /**
+     * Find the index of the first occurrence at or after a point in time without
+     * stepping through the occurrences before it
+     *
+     * @param first The first occurrence
+     * @param from The point in time
+     * @return The index of the first occurrence not before {@code from}
+     */
+    long firstIndexFrom(LocalDateTime first, LocalDateTime from) {
+        if (!from.isAfter(first)) {
+            return 0;
+        }
+        long index = unit.between(first, from);
+        while (occurrence(first, index).isBefore(from)) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,292 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.ChangeStreamCheckpoint;
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.service.ReminderService;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Applies changes to the {@code events} collection to the reminder index as they happen,
+ * including changes made by other instances or by scripts that bypass the event service.
+ *
+ * The stream is read on its own thread. The resume token of the last applied change is
+ * stored in {@code change_stream_checkpoints}, so after a reconnect or a restart the stream
+ * continues where it stopped. If the stored position is no longer in the oplog the
+ * reminder index is reloaded once and the stream starts again from the present.
+ * The position is also handed to the {@link ReminderSnapshotStore}, so snapshots of the
+ * index record where to replay changes from.
+ *
+ * Change streams need a replica set; a single node started with {@code --replSet} is enough.
+ * Against a standalone server the listener logs a warning and stays off.
+ */
+@Component
+@Slf4j
+public class EventChangeListener {
+
+    // Server errors meaning the stored resume token can no longer be used
+    private static final Set<Integer> LOST_POSITION_CODES = Set.of(260, 280, 286);
+
+    // Server error for change streams on a standalone server
+    private static final int NOT_A_REPLICA_SET = 40573;
+
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReminderService reminderService;
+    private final ReminderSnapshotStore snapshotStore;
+    private final boolean enabled;
+    private final String checkpointId;
+    private final long checkpointIntervalMillis;
+
+    private volatile boolean running;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    private Thread reader;
+
+    private volatile BsonDocument resumeToken;
+    private BsonDocument storedToken;
+    private long lastCheckpointMillis;
+
+    public EventChangeListener(
+            MongoTemplate mongoTemplate,
+            ReminderService reminderService,
+            ReminderSnapshotStore snapshotStore,
+            @Value("${reminders.change-stream.enabled:true}") boolean enabled,
+            @Value("${reminders.change-stream.checkpoint-id:events}") String checkpointId,
+            @Value("${reminders.change-stream.checkpoint-interval-ms:1000}") long checkpointIntervalMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.reminderService = reminderService;
+        this.snapshotStore = snapshotStore;
+        this.enabled = enabled;
+        this.checkpointId = "events:" + checkpointId;
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+    }
+
+    /**
+     * Open the stream before the reminder index is loaded, so no change falls between the two.
+     * When a snapshot of the index is going to be restored, the stream opens at the position
+     * the snapshot was taken at, so the changes made since are replayed on top of it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public synchronized void start() {
+        if (!enabled) {
+            snapshotStore.discard();
+            return;
+        }
+        if (running) {
+            return;
+        }
+
+        Optional<ReminderSnapshot> snapshot = snapshotStore.restorable();
+        ChangeStreamCheckpoint checkpoint = mongoTemplate.findById(checkpointId, ChangeStreamCheckpoint.class);
+        if (checkpoint != null && checkpoint.getResumeToken() != null) {
+            storedToken = BsonDocument.parse(checkpoint.getResumeToken());
+        }
+        resumeToken = snapshot.map(restorable -> BsonDocument.parse(restorable.getStreamPosition())).orElse(storedToken);
+
+        try {
+            cursor = open();
+        } catch (MongoCommandException e) {
+            snapshotStore.discard();
+            if (e.getErrorCode() == NOT_A_REPLICA_SET) {
+                log.warn("MongoDB is not running as a replica set, event changes made elsewhere "
+                        + "reach the reminder index only through periodic reloads");
+                return;
+            }
+            if (!LOST_POSITION_CODES.contains(e.getErrorCode())) {
+                throw e;
+            }
+            log.warn("Stored events change stream position is gone ({}), starting from now", e.getErrorMessage());
+            resumeToken = null;
+            cursor = open();
+        }
+
+        running = true;
+        snapshotStore.recordStreamPosition(resumeToken);
+        log.info("Listening to event changes{}", resumeToken != null ? " from the stored position" : "");
+    }
+
+    /**
+     * Start applying changes once the reminder index has been loaded or restored
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public synchronized void startReading() {
+        if (running && reader == null) {
+            reader = Thread.ofPlatform().daemon().name("events-change-stream").start(this::run);
+        }
+    }
+
+    /**
+     * Stop reading and store the position reached
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        closeCursor();
+        if (reader != null) {
+            reader.interrupt();
+            try {
+                reader.join(RECONNECT_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        storeCheckpoint();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+                if (current == null) {
+                    current = open();
+                    cursor = current;
+                }
+                ChangeStreamDocument<Document> change = current.tryNext();
+                if (change != null) {
+                    apply(change);
+                }
+                // Also advances while idle, so the stored position does not fall out of the oplog
+                if (cursor == current && current.getResumeToken() != null) {
+                    advance(current.getResumeToken());
+                }
+                if (System.currentTimeMillis() - lastCheckpointMillis >= checkpointIntervalMillis) {
+                    storeCheckpoint();
+                }
+            } catch (MongoCommandException e) {
+                if (!running) {
+                    return;
+                }
+                closeCursor();
+                if (LOST_POSITION_CODES.contains(e.getErrorCode())) {
+                    log.warn("Events change stream position is gone ({}), reloading the reminder index",
+                            e.getErrorMessage());
+                    advance(null);
+                    reminderService.reloadReminderIndex();
+                } else {
+                    log.error("Events change stream failed, reconnecting: {}", e.getMessage());
+                    pause();
+                }
+            } catch (MongoException | IllegalStateException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Events change stream failed, reconnecting: {}", e.getMessage());
+                closeCursor();
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Apply one change to the reminder index
+     * @param change The change to the events collection
+     */
+    void apply(ChangeStreamDocument<Document> change) {
+        switch (change.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> {
+                Document document = change.getFullDocument();
+                if (document == null) {
+                    // Deleted before the update could be looked up; the delete follows
+                    return;
+                }
+                reminderService.scheduleReminder(mongoTemplate.getConverter().read(Event.class, document));
+            }
+            case DELETE -> reminderService.cancelReminder(idOf(change.getDocumentKey().get("_id")));
+            case DROP, INVALIDATE -> {
+                // The stream cannot be resumed past an invalidate, so start over from the present
+                log.warn("Events collection was dropped, reloading the reminder index");
+                advance(null);
+                closeCursor();
+                reminderService.reloadReminderIndex();
+                return;
+            }
+            default -> {
+                // Other operations do not affect reminders
+            }
+        }
+        advance(change.getResumeToken());
+    }
+
+    private void advance(BsonDocument token) {
+        resumeToken = token;
+        snapshotStore.recordStreamPosition(token);
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Event.class))
+                .watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    private void storeCheckpoint() {
+        lastCheckpointMillis = System.currentTimeMillis();
+        BsonDocument token = resumeToken;
+        if (token == null || token.equals(storedToken)) {
+            return;
+        }
+        try {
+            mongoTemplate.save(new ChangeStreamCheckpoint(checkpointId, token.toJson(), Instant.now()));
+            storedToken = token;
+        } catch (Exception e) {
+            log.warn("Failed to store events change stream position: {}", e.getMessage());
+        }
+    }
+
+    private void closeCursor() {
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+        cursor = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (Exception e) {
+                log.debug("Failed to close events change stream: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String idOf(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+}
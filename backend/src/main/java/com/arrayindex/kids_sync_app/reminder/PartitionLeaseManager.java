@@ -0,0 +1,235 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.PartitionLease;
+import com.arrayindex.kids_sync_app.model.ReminderNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Splits the reminder workload between backend instances.
+ *
+ * Users are hashed into a fixed number of partitions. Each partition has a lease document
+ * in MongoDB that one node holds at a time and renews on every heartbeat. Nodes also
+ * publish a heartbeat of their own, so each node knows how many are alive and claims
+ * only its fair share of the partitions, releasing any surplus so a node that just joined
+ * can pick it up. When a node dies its leases run out and the surviving nodes claim them
+ * on their next heartbeat.
+ *
+ * A node treats its partitions as owned only until shortly before the leases it last
+ * renewed run out, so it stops sending before another node can take them over.
+ */
+@Component
+@Slf4j
+public class PartitionLeaseManager {
+
+    private static final Instant FREE = Instant.EPOCH;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int partitionCount;
+    private final Duration leaseDuration;
+    private final String nodeId;
+
+    private volatile Set<Integer> ownedPartitions = Set.of();
+    private volatile Instant ownedUntil = FREE;
+
+    public PartitionLeaseManager(
+            MongoTemplate mongoTemplate,
+            @Value("${reminders.partitions.enabled:true}") boolean enabled,
+            @Value("${reminders.partitions.count:16}") int partitionCount,
+            @Value("${reminders.partitions.lease-seconds:30}") long leaseSeconds,
+            @Value("${reminders.partitions.node-id:}") String nodeId) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.partitionCount = partitionCount;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId;
+    }
+
+    /**
+     * Create the lease documents if they do not exist yet and take a first share
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PartitionLease.class);
+        for (int partition = 0; partition < partitionCount; partition++) {
+            bulk.upsert(Query.query(Criteria.where("_id").is(partition)), new Update().setOnInsert("expiresAt", FREE));
+        }
+        bulk.execute();
+
+        log.info("Reminder partitioning enabled on node {} with {} partitions", nodeId, partitionCount);
+        renewLeases();
+    }
+
+    /**
+     * Send a heartbeat, renew the leases this node holds, claim free partitions up to its
+     * fair share and release partitions above it
+     */
+    @Scheduled(fixedDelayString = "${reminders.partitions.renew-interval-ms:10000}",
+            initialDelayString = "${reminders.partitions.renew-interval-ms:10000}")
+    public void renewLeases() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Instant now = Instant.now();
+            Instant expiresAt = now.plus(leaseDuration);
+
+            mongoTemplate.save(new ReminderNode(nodeId, expiresAt));
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("owner").is(nodeId).and("expiresAt").gt(now)),
+                    new Update().set("expiresAt", expiresAt),
+                    PartitionLease.class);
+
+            long liveNodes = Math.max(1, mongoTemplate.count(
+                    Query.query(Criteria.where("expiresAt").gt(now)), ReminderNode.class));
+            int fairShare = (int) ((partitionCount + liveNodes - 1) / liveNodes);
+
+            TreeSet<Integer> owned = new TreeSet<>();
+            List<Integer> free = new ArrayList<>();
+            for (PartitionLease lease : mongoTemplate.findAll(PartitionLease.class)) {
+                if (nodeId.equals(lease.getOwner()) && lease.getExpiresAt().isAfter(now)) {
+                    owned.add(lease.getId());
+                } else if (lease.getOwner() == null || !lease.getExpiresAt().isAfter(now)) {
+                    free.add(lease.getId());
+                }
+            }
+
+            // Claim in random order so nodes starting together do not contend for the same partitions
+            Collections.shuffle(free);
+            for (Integer partition : free) {
+                if (owned.size() >= fairShare) {
+                    break;
+                }
+                if (claim(partition, now, expiresAt)) {
+                    owned.add(partition);
+                }
+            }
+
+            while (owned.size() > fairShare) {
+                Integer partition = owned.pollLast();
+                release(partition);
+            }
+
+            if (!owned.equals(ownedPartitions)) {
+                log.info("Node {} now owns reminder partitions {} ({} nodes alive)", nodeId, owned, liveNodes);
+            }
+            ownedPartitions = Set.copyOf(owned);
+            ownedUntil = expiresAt.minus(leaseDuration.dividedBy(3));
+        } catch (Exception e) {
+            // Ownership lapses on its own if the leases cannot be renewed
+            log.error("Failed to renew reminder partition leases on node {}", nodeId, e);
+        }
+    }
+
+    /**
+     * Release all partitions so other nodes can take them over straight away
+     */
+    @PreDestroy
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+
+        Set<Integer> owned = ownedPartitions;
+        ownedPartitions = Set.of();
+        ownedUntil = FREE;
+        try {
+            owned.forEach(this::release);
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(nodeId)), ReminderNode.class);
+        } catch (Exception e) {
+            log.warn("Failed to release reminder partitions on node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Check whether this node is responsible for a user's reminders
+     * @param userId The ID of the user
+     * @return true if this node currently holds the lease on the user's partition
+     */
+    public boolean owns(String userId) {
+        if (!enabled) {
+            return true;
+        }
+        if (Instant.now().isAfter(ownedUntil)) {
+            return false;
+        }
+        return ownedPartitions.contains(partitionOf(userId, partitionCount));
+    }
+
+    /**
+     * Map a user to a partition. {@link String#hashCode()} is fixed by the language
+     * specification, so every node computes the same partition.
+     *
+     * @param userId The ID of the user
+     * @param partitionCount The number of partitions
+     * @return The partition number
+     */
+    public static int partitionOf(String userId, int partitionCount) {
+        return Math.floorMod(userId == null ? 0 : userId.hashCode(), partitionCount);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The partitions this node currently holds
+     */
+    public Set<Integer> getOwnedPartitions() {
+        return Instant.now().isAfter(ownedUntil) ? Set.of() : new HashSet<>(ownedPartitions);
+    }
+
+    private boolean claim(int partition, Instant now, Instant expiresAt) {
+        Query query = Query.query(Criteria.where("_id").is(partition)
+                .orOperator(Criteria.where("owner").is(null), Criteria.where("expiresAt").lte(now)));
+        Update update = new Update().set("owner", nodeId).set("expiresAt", expiresAt);
+        return mongoTemplate.updateFirst(query, update, PartitionLease.class).getModifiedCount() == 1;
+    }
+
+    private void release(int partition) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(partition).and("owner").is(nodeId)),
+                new Update().set("owner", null).set("expiresAt", FREE),
+                PartitionLease.class);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,91 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.ReminderWindow;
+import com.arrayindex.kids_sync_app.recurrence.Occurrences;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single (event occurrence, reminder window) pair handed out by {@link ReminderIndex#pollDue}.
+ *
+ * The index only stores the event ID, so the event itself is attached with
+ * {@link #withEvent} once it has been loaded for sending. The reminder keeps pointing at its
+ * slot in the index until it is completed, retried or postponed.
+ */
+@Getter
+public class PendingReminder {
+
+    @Getter(AccessLevel.PACKAGE)
+    private final int slot;
+
+    private final String eventId;
+    private final String userId;
+    private final ReminderWindow window;
+
+    /**
+     * Minutes before the event at which the window opens
+     */
+    private final int leadMinutes;
+
+    /**
+     * The time of the event occurrence the reminder is for
+     */
+    private final LocalDateTime occurrenceTime;
+
+    /**
+     * The earliest time the reminder may be sent (start of the window, or the retry time)
+     */
+    private final LocalDateTime fireAt;
+
+    /**
+     * The latest time the reminder may be sent (end of the window)
+     */
+    private final LocalDateTime deadline;
+
+    /**
+     * The event occurrence, or null while it has not been loaded
+     */
+    private final Event event;
+
+    PendingReminder(int slot, String eventId, String userId, ReminderSchedule schedule, int ordinal,
+                    LocalDateTime occurrenceTime, LocalDateTime fireAt) {
+        this(slot, eventId, userId, schedule.window(ordinal), schedule.leadMinutes(ordinal), occurrenceTime, fireAt,
+                occurrenceTime.minusMinutes(schedule.closeMinutes(ordinal)), null);
+    }
+
+    private PendingReminder(int slot, String eventId, String userId, ReminderWindow window, int leadMinutes,
+                            LocalDateTime occurrenceTime, LocalDateTime fireAt, LocalDateTime deadline, Event event) {
+        this.slot = slot;
+        this.eventId = eventId;
+        this.userId = userId;
+        this.window = window;
+        this.leadMinutes = leadMinutes;
+        this.occurrenceTime = occurrenceTime;
+        this.fireAt = fireAt;
+        this.deadline = deadline;
+        this.event = event;
+    }
+
+    /**
+     * Copy of this reminder with its event occurrence attached
+     * @param occurrence The loaded event occurrence
+     * @return The reminder, ready to be sent
+     */
+    public PendingReminder withEvent(Event occurrence) {
+        return new PendingReminder(slot, eventId, userId, window, leadMinutes, occurrenceTime, fireAt, deadline, occurrence);
+    }
+
+    /**
+     * Key of this reminder in the {@link ReminderLedger}. Occurrences of a recurring event
+     * share the event ID, so their window key is qualified with the occurrence time.
+     * Only available once the event is attached.
+     *
+     * @return The window key to record the reminder under
+     */
+    public String getLedgerKey() {
+        return Occurrences.isRecurring(event) ? window.getKey() + "@" + event.getDateTime() : window.getKey();
+    }
+}
@@ -0,0 +1,305 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fans due reminders out onto virtual threads, in separate lanes per urgency class.
+ *
+ * Every delivery is put in a {@link ReminderLane} by its lead time, and the lanes are
+ * started most urgent first. The number of sends in flight at once is capped by a
+ * semaphore so a large batch cannot open an unbounded number of SMTP connections; a share
+ * of that cap is reserved for the urgent lane (and a further share for the soon lane) so
+ * a large batch of "24 hours before" reminders can never take the permits a "5 minutes
+ * before" reminder needs. The reservations are tiered: the soon and routine lanes together
+ * draw from one pool that excludes the urgent share, and the routine lane is further capped
+ * to exclude the soon share. Within a lane, each recipient's deliveries are sent in order on
+ * one virtual thread, chained behind any of that recipient's sends still running from an
+ * earlier tick.
+ *
+ * A delivery whose deadline has passed by the time it gets a permit would arrive after the
+ * event (or after its window closed), so it is dropped and counted as missed instead of
+ * being sent. For every lane the lag between a delivery becoming due and its send starting
+ * is compared with the lane's latency target.
+ *
+ * Each dispatch waits at most one tick interval and reports how much of that budget
+ * the batch used.
+ */
+@Component
+@Slf4j
+public class ReminderDispatcher {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final long tickBudgetMillis;
+    private final int urgentLeadMinutes;
+    private final int routineLeadMinutes;
+    private final Map<ReminderLane, Lane> lanes = new EnumMap<>(ReminderLane.class);
+
+    // Last queued batch per lane and recipient, so batches for the same recipient run in order
+    private final Map<String, CompletableFuture<Void>> recipientTails = new ConcurrentHashMap<>();
+
+    private volatile long lastDispatchMillis;
+
+    public ReminderDispatcher(int maxInFlight, long tickBudgetMillis) {
+        this(maxInFlight, tickBudgetMillis, 60, 360, 0.3, 0.2, 120, 300, 900);
+    }
+
+    @Autowired
+    public ReminderDispatcher(
+            @Value("${reminders.dispatch.max-in-flight:50}") int maxInFlight,
+            @Value("${reminders.tick-interval-ms:60000}") long tickBudgetMillis,
+            @Value("${reminders.dispatch.urgent-lead-minutes:60}") int urgentLeadMinutes,
+            @Value("${reminders.dispatch.routine-lead-minutes:360}") int routineLeadMinutes,
+            @Value("${reminders.dispatch.urgent-share:0.3}") double urgentShare,
+            @Value("${reminders.dispatch.soon-share:0.2}") double soonShare,
+            @Value("${reminders.dispatch.urgent-slo-seconds:120}") long urgentSloSeconds,
+            @Value("${reminders.dispatch.soon-slo-seconds:300}") long soonSloSeconds,
+            @Value("${reminders.dispatch.routine-slo-seconds:900}") long routineSloSeconds) {
+        this.inFlight = new Semaphore(maxInFlight, true);
+        this.maxInFlight = maxInFlight;
+        this.tickBudgetMillis = tickBudgetMillis;
+        this.urgentLeadMinutes = urgentLeadMinutes;
+        this.routineLeadMinutes = routineLeadMinutes;
+
+        // Each lane may use the permits not reserved for the lanes more urgent than itself. The
+        // soon and routine lanes also share one pool, so together they cannot take the urgent share.
+        int urgentReserved = (int) Math.round(maxInFlight * urgentShare);
+        int soonReserved = (int) Math.round(maxInFlight * soonShare);
+        Semaphore nonUrgent = new Semaphore(Math.max(1, maxInFlight - urgentReserved), true);
+        lanes.put(ReminderLane.URGENT, new Lane(maxInFlight, urgentSloSeconds, null));
+        lanes.put(ReminderLane.SOON,
+                new Lane(Math.max(1, maxInFlight - urgentReserved), soonSloSeconds, nonUrgent));
+        lanes.put(ReminderLane.ROUTINE,
+                new Lane(Math.max(1, maxInFlight - urgentReserved - soonReserved), routineSloSeconds, nonUrgent));
+    }
+
+    /**
+     * Send a batch of deliveries concurrently and wait for it within the tick budget
+     *
+     * @param deliveries The deliveries to send, in the order they should go out per recipient
+     * @param describe Describes the recipient, urgency and timing of a delivery
+     * @param sender Sends a single delivery; must handle its own failures
+     * @param missed Called instead of the sender for a delivery whose deadline has passed
+     * @param <T> The delivery type
+     */
+    public <T> void dispatch(List<T> deliveries, Function<T, Delivery> describe, Consumer<T> sender, Consumer<T> missed) {
+        long start = System.nanoTime();
+
+        Map<String, List<Queued<T>>> byRecipient = new LinkedHashMap<>();
+        for (T delivery : deliveries) {
+            Delivery description = describe.apply(delivery);
+            ReminderLane lane = laneFor(description.leadMinutes());
+            byRecipient.computeIfAbsent(lane + ":" + description.recipient(), key -> new ArrayList<>())
+                    .add(new Queued<>(delivery, description, lane));
+        }
+
+        // Most urgent lane first, so its sends queue for permits ahead of the others
+        List<CompletableFuture<Void>> batches = new ArrayList<>(byRecipient.size());
+        byRecipient.entrySet().stream()
+                .sorted(Comparator.comparing(entry -> entry.getValue().get(0).lane()))
+                .forEach(entry -> batches.add(enqueue(entry.getKey(),
+                        () -> entry.getValue().forEach(queued -> send(queued, sender, missed)))));
+
+        boolean completed = awaitWithinBudget(CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])));
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastDispatchMillis = elapsedMillis;
+
+        if (completed) {
+            log.info("Dispatched {} reminders to {} recipients in {} ms ({}% of {} ms tick budget)",
+                    deliveries.size(), byRecipient.size(), elapsedMillis,
+                    elapsedMillis * 100 / tickBudgetMillis, tickBudgetMillis);
+        } else {
+            log.warn("Reminder dispatch exceeded the {} ms tick budget; {} sends still in flight",
+                    tickBudgetMillis, inFlightCount());
+        }
+    }
+
+    /**
+     * @param leadMinutes Minutes before the event at which the reminder window opens
+     * @return The lane reminders with this lead time are dispatched in
+     */
+    public ReminderLane laneFor(int leadMinutes) {
+        if (leadMinutes <= urgentLeadMinutes) {
+            return ReminderLane.URGENT;
+        }
+        return leadMinutes < routineLeadMinutes ? ReminderLane.SOON : ReminderLane.ROUTINE;
+    }
+
+    /**
+     * @return Per lane: sends, misses, permits, latency target and how far behind it the lane is
+     */
+    public Map<ReminderLane, Map<String, Object>> getLaneStats() {
+        Map<ReminderLane, Map<String, Object>> stats = new EnumMap<>(ReminderLane.class);
+        lanes.forEach((lane, state) -> stats.put(lane, state.stats()));
+        return stats;
+    }
+
+    /**
+     * @return How long the last dispatch took, in milliseconds
+     */
+    public long getLastDispatchMillis() {
+        return lastDispatchMillis;
+    }
+
+    /**
+     * @return The number of sends currently in progress
+     */
+    public int inFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private CompletableFuture<Void> enqueue(String key, Runnable work) {
+        CompletableFuture<Void> batch = recipientTails.compute(key, (ignored, tail) ->
+                (tail != null ? tail : CompletableFuture.<Void>completedFuture(null))
+                        .handle((result, error) -> null)
+                        .thenRunAsync(work, executor));
+        batch.whenComplete((result, error) -> recipientTails.remove(key, batch));
+        return batch;
+    }
+
+    private <T> void send(Queued<T> queued, Consumer<T> sender, Consumer<T> missed) {
+        Lane lane = lanes.get(queued.lane());
+        // Always acquired in the same order (lane, shared lower-lane pool, overall cap)
+        List<Semaphore> acquired = new ArrayList<>(3);
+        try {
+            for (Semaphore permits : lane.pools(inFlight)) {
+                permits.acquire();
+                acquired.add(permits);
+            }
+        } catch (InterruptedException e) {
+            release(acquired);
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (now.isAfter(queued.description().deadline())) {
+                // Sending now would arrive after the event or after the window closed
+                lane.missed.incrementAndGet();
+                missed.accept(queued.delivery());
+                return;
+            }
+
+            lane.recordLag(Duration.between(queued.description().dueAt(), now).toMillis());
+            sender.accept(queued.delivery());
+        } catch (Exception e) {
+            log.error("Reminder send failed: {}", e.getMessage(), e);
+        } finally {
+            release(acquired);
+        }
+    }
+
+    private static void release(List<Semaphore> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).release();
+        }
+    }
+
+    private boolean awaitWithinBudget(CompletableFuture<Void> all) {
+        try {
+            all.get(tickBudgetMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            log.error("Reminder dispatch failed: {}", e.getMessage(), e);
+            return true;
+        }
+    }
+
+    /**
+     * What the dispatcher needs to know about a delivery
+     *
+     * @param recipient The recipient; deliveries to one recipient in one lane are sent in order
+     * @param leadMinutes Minutes before the event at which the (most urgent) window opens
+     * @param dueAt When the delivery became due
+     * @param deadline The latest time the delivery may start
+     */
+    public record Delivery(String recipient, int leadMinutes, LocalDateTime dueAt, LocalDateTime deadline) {
+    }
+
+    private record Queued<T>(T delivery, Delivery description, ReminderLane lane) {
+    }
+
+    private static final class Lane {
+
+        private final Semaphore permits;
+        private final Semaphore shared;
+        private final int maxPermits;
+        private final long sloMillis;
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong missed = new AtomicLong();
+        private final AtomicLong sloBreaches = new AtomicLong();
+        private final AtomicLong lastLagMillis = new AtomicLong();
+        private final AtomicLong maxLagMillis = new AtomicLong();
+
+        Lane(int maxPermits, long sloSeconds, Semaphore shared) {
+            this.permits = new Semaphore(maxPermits, true);
+            this.shared = shared;
+            this.maxPermits = maxPermits;
+            this.sloMillis = TimeUnit.SECONDS.toMillis(sloSeconds);
+        }
+
+        List<Semaphore> pools(Semaphore inFlight) {
+            return shared != null ? List.of(permits, shared, inFlight) : List.of(permits, inFlight);
+        }
+
+        void recordLag(long lagMillis) {
+            sent.incrementAndGet();
+            lastLagMillis.set(lagMillis);
+            maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+            if (lagMillis > sloMillis) {
+                sloBreaches.incrementAndGet();
+            }
+        }
+
+        Map<String, Object> stats() {
+            long lag = lastLagMillis.get();
+            return Map.of(
+                    "sent", sent.get(),
+                    "missed", missed.get(),
+                    "maxInFlight", maxPermits,
+                    "inFlight", maxPermits - permits.availablePermits(),
+                    "sloMillis", sloMillis,
+                    "lastLagMillis", lag,
+                    "maxLagMillis", maxLagMillis.get(),
+                    "behindSloMillis", Math.max(0, lag - sloMillis),
+                    "sloBreaches", sloBreaches.get());
+        }
+    }
+}
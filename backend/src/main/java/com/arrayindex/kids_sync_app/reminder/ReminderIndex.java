@@ -0,0 +1,712 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.ReminderWindow;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-memory index of pending reminders ordered by the instant they become due.
+ *
+ * Every (event occurrence, reminder window) pair is stored once, keyed by its fire time, so
+ * a scheduler tick only has to look at the head of the queue instead of reading
+ * and re-evaluating the whole reminder horizon from MongoDB.
+ *
+ * Entries are stored as a struct of arrays rather than as objects: an entry is a slot in a
+ * set of parallel primitive arrays (fire time in epoch minutes, occurrence time, event,
+ * window set and window ordinals) and a binary heap of slot numbers orders the slots by
+ * fire time. Event IDs, user IDs and window sets are interned in dictionaries, so an entry
+ * costs a few dozen bytes and the index holds no {@link Event} documents; the caller loads
+ * the events of the reminders {@link #pollDue} hands out.
+ *
+ * Entries handed out by {@link #pollDue} keep their slot until they are
+ * {@link #complete completed}, {@link #retry retried} or {@link #postpone postponed}, so a
+ * cancel that races with a send also suppresses the retry.
+ *
+ * Every time an event is indexed it is stamped with a sequence number, so a full
+ * reload can {@link #retainOnly drop the events it did not see} without dropping
+ * events indexed while it was running.
+ */
+public class ReminderIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NONE = -1;
+
+    // Heap positions of slots that are not in the heap
+    private static final int IN_FLIGHT = -1;
+    private static final int ORPHANED = -2;
+    private static final int FREE = -3;
+
+    // Per slot: the epoch minute at which the entry is due
+    private long[] fireAt = new long[INITIAL_CAPACITY];
+
+    // Per slot: the epoch millisecond of the event occurrence
+    private long[] occursAt = new long[INITIAL_CAPACITY];
+
+    // Per slot: the event ordinal, window set ordinal and window ordinal
+    private int[] entryEvent = new int[INITIAL_CAPACITY];
+    private int[] entrySchedule = new int[INITIAL_CAPACITY];
+    private byte[] entryWindow = new byte[INITIAL_CAPACITY];
+
+    // Per slot: the position in the heap, or IN_FLIGHT, ORPHANED (in flight, event cancelled) or FREE
+    private int[] heapPosition = new int[INITIAL_CAPACITY];
+
+    // Per slot: the next slot of the same event, or the next free slot
+    private int[] nextSlot = new int[INITIAL_CAPACITY];
+
+    private int slotCount;
+    private int freeSlot = NONE;
+
+    // Binary min-heap of slots ordered by fire time
+    private int[] heap = new int[INITIAL_CAPACITY];
+    private int heapSize;
+
+    // Event dictionary; per event ordinal the ID, user ordinal, first slot and last indexing sequence
+    private final Map<String, Integer> eventOrdinals = new HashMap<>();
+    private String[] eventIds = new String[INITIAL_CAPACITY];
+    private int[] eventUser = new int[INITIAL_CAPACITY];
+    private int[] firstSlot = new int[INITIAL_CAPACITY];
+    private long[] indexedAt = new long[INITIAL_CAPACITY];
+    private int eventCount;
+    private int freeEvent = NONE;
+
+    // User dictionary; only grows, bounded by the users
+    private final Map<String, Integer> userOrdinals = new HashMap<>();
+    private final List<String> userIds = new ArrayList<>();
+
+    // Window set dictionary; per window set ordinal the windows and the number of slots using them.
+    // Users can save any number of window sets, so a set is released once no slot uses it
+    private final Map<List<ReminderWindow>, Integer> scheduleOrdinals = new HashMap<>();
+    private ReminderSchedule[] schedules = new ReminderSchedule[16];
+    private int[] scheduleReferences = new int[16];
+    private int scheduleCount;
+    private int freeSchedule = NONE;
+
+    private final Clock clock;
+
+    private int size;
+    private long sequence;
+    private long missedCount;
+
+    public ReminderIndex() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock The clock that decides which reminder windows have already closed when
+     *              entries are added
+     */
+    public ReminderIndex(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Index all reminder windows for an event, replacing any previous entries
+     * @param event The event to index
+     * @param schedule The compiled reminder windows that apply to the event
+     */
+    public void schedule(Event event, ReminderSchedule schedule) {
+        schedule(event.getId(), List.of(event), schedule);
+    }
+
+    /**
+     * Index all reminder windows for the occurrences of an event, replacing any previous entries
+     * @param eventId The ID of the event
+     * @param occurrences The occurrences of the event to index
+     * @param schedule The compiled reminder windows that apply to the event
+     */
+    public synchronized void schedule(String eventId, List<Event> occurrences, ReminderSchedule schedule) {
+        removeEvent(eventId);
+        add(eventId, occurrences, schedule);
+    }
+
+    /**
+     * Index more occurrences of an event, keeping the entries already pending for it.
+     * Windows that already closed are not indexed, so they are not counted as missed.
+     * @param eventId The ID of the event
+     * @param occurrences The occurrences of the event to add
+     * @param schedule The compiled reminder windows that apply to the event
+     */
+    public synchronized void add(String eventId, List<Event> occurrences, ReminderSchedule schedule) {
+        if (occurrences.isEmpty()) {
+            return;
+        }
+
+        long nowMillis = toMillis(LocalDateTime.now(clock));
+        int event = eventOrdinal(eventId, occurrences.get(0).getUserId());
+        int scheduleOrdinal = scheduleOrdinal(schedule);
+        for (Event occurrence : occurrences) {
+            LocalDateTime dateTime = occurrence.getDateTime();
+            long occurs = toMillis(dateTime);
+            for (int window = 0; window < schedule.size(); window++) {
+                if (occurs - schedule.closeMinutes(window) * 60_000L <= nowMillis) {
+                    continue;
+                }
+                int slot = allocate(event, scheduleOrdinal, window, occurs,
+                        toMinute(dateTime.minusMinutes(schedule.leadMinutes(window))));
+                heapAdd(slot);
+            }
+        }
+        releaseScheduleIfUnused(scheduleOrdinal);
+
+        if (firstSlot[event] == NONE) {
+            eventOrdinals.remove(eventId);
+            releaseEvent(event);
+            return;
+        }
+        indexedAt[event] = ++sequence;
+    }
+
+    /**
+     * Apply the reminder changes of a batch of event writes at once
+     * @param cancelledEventIds IDs of deleted events, whose pending reminders are removed
+     * @param scheduled Saved events, whose pending reminders are replaced
+     */
+    public synchronized void update(Collection<String> cancelledEventIds, List<Scheduled> scheduled) {
+        for (String eventId : cancelledEventIds) {
+            removeEvent(eventId);
+        }
+        for (Scheduled event : scheduled) {
+            removeEvent(event.eventId());
+            add(event.eventId(), event.occurrences(), event.schedule());
+        }
+    }
+
+    /**
+     * Remove all pending reminders for an event
+     * @param eventId The ID of the event
+     */
+    public synchronized void cancel(String eventId) {
+        removeEvent(eventId);
+    }
+
+    /**
+     * Check whether an event has any pending reminders
+     * @param eventId The ID of the event
+     * @return true if at least one reminder is pending for the event
+     */
+    public synchronized boolean contains(String eventId) {
+        return eventOrdinals.containsKey(eventId);
+    }
+
+    /**
+     * @return The sequence number of the last time an event was indexed
+     */
+    public synchronized long currentSequence() {
+        return sequence;
+    }
+
+    /**
+     * Remove the reminders of all events that are not in the given set and were last
+     * indexed before a reload started
+     *
+     * @param eventIds The events found by the reload
+     * @param sinceSequence The {@link #currentSequence()} taken when the reload started
+     * @return The number of events removed
+     */
+    public synchronized int retainOnly(Set<String> eventIds, long sinceSequence) {
+        int removed = 0;
+        for (Iterator<Map.Entry<String, Integer>> iterator = eventOrdinals.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, Integer> event = iterator.next();
+            if (!eventIds.contains(event.getKey()) && indexedAt[event.getValue()] <= sinceSequence) {
+                iterator.remove();
+                removeSlots(event.getValue());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Take all reminders whose fire time has been reached.
+     * Reminders whose window already closed are dropped and counted as missed.
+     *
+     * @param now The current time
+     * @return The reminders that are due, in fire time order, without their events loaded
+     */
+    public synchronized List<PendingReminder> pollDue(LocalDateTime now) {
+        long nowMinute = toMinute(now);
+        long nowMillis = toMillis(now);
+        List<PendingReminder> due = new ArrayList<>();
+
+        while (heapSize > 0 && fireAt[heap[0]] <= nowMinute) {
+            int slot = heapPoll();
+
+            if (nowMillis > deadlineMillis(slot)) {
+                missedCount++;
+                unlink(slot);
+                continue;
+            }
+
+            ReminderSchedule schedule = schedules[entrySchedule[slot]];
+            int event = entryEvent[slot];
+            due.add(new PendingReminder(slot, eventIds[event], userIds.get(eventUser[event]), schedule,
+                    entryWindow[slot], fromMillis(occursAt[slot]), fromMinute(fireAt[slot])));
+        }
+
+        return due;
+    }
+
+    /**
+     * Mark a reminder returned by {@link #pollDue} as finished
+     * @param entry The reminder that was handled
+     */
+    public synchronized void complete(PendingReminder entry) {
+        int slot = entry.getSlot();
+        if (heapPosition[slot] == ORPHANED) {
+            release(slot);
+        } else if (heapPosition[slot] == IN_FLIGHT) {
+            unlink(slot);
+        }
+    }
+
+    /**
+     * Drop a reminder returned by {@link #pollDue} that can no longer be delivered in time.
+     * It is not counted as missed here; the dispatcher that found it late counts it in its lane.
+     * @param entry The reminder that was not sent
+     */
+    public synchronized void drop(PendingReminder entry) {
+        complete(entry);
+    }
+
+    /**
+     * Put a reminder returned by {@link #pollDue} back into the queue for another attempt.
+     * Nothing is queued if the event was cancelled meanwhile or the window has closed.
+     *
+     * @param entry The reminder that could not be delivered
+     * @param nextAttempt When to try again
+     */
+    public synchronized void retry(PendingReminder entry, LocalDateTime nextAttempt) {
+        requeue(entry, nextAttempt, true);
+    }
+
+    /**
+     * Put a reminder returned by {@link #pollDue} back into the queue because this node may
+     * not send it right now. Unlike {@link #retry}, a reminder whose window closes meanwhile
+     * is dropped without being counted as missed, since another node is responsible for it.
+     *
+     * @param entry The reminder to put back
+     * @param nextAttempt When to look at it again
+     */
+    public synchronized void postpone(PendingReminder entry, LocalDateTime nextAttempt) {
+        requeue(entry, nextAttempt, false);
+    }
+
+    /**
+     * @return A compact copy of all reminders that are queued or in flight, e.g. to write a snapshot
+     */
+    public synchronized Entries entries() {
+        String[] events = new String[eventOrdinals.size()];
+        String[] users = new String[events.length];
+        int event = 0;
+        for (int ordinal : eventOrdinals.values()) {
+            events[event] = eventIds[ordinal];
+            users[event++] = userIds.get(eventUser[ordinal]);
+        }
+
+        Entries entries = new Entries(events, users, size);
+        event = 0;
+        int entry = 0;
+        for (int ordinal : eventOrdinals.values()) {
+            for (int slot = firstSlot[ordinal]; slot != NONE; slot = nextSlot[slot]) {
+                entries.event[entry] = event;
+                entries.schedule[entry] = schedules[entrySchedule[slot]];
+                entries.window[entry] = entryWindow[slot];
+                entries.occursAt[entry] = occursAt[slot];
+                entries.fireAt[entry] = fireAt[slot];
+                entry++;
+            }
+            event++;
+        }
+        return entries;
+    }
+
+    /**
+     * Add reminders read back from a snapshot, keeping the entries already indexed
+     * @param entries The reminders to add
+     */
+    public synchronized void restore(Entries entries) {
+        ensureSlotCapacity(slotCount + entries.size());
+        int[] events = new int[entries.eventIds.length];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = eventOrdinal(entries.eventIds[i], entries.userIds[i]);
+            indexedAt[events[i]] = ++sequence;
+        }
+
+        for (int i = 0; i < entries.size(); i++) {
+            int slot = allocate(events[entries.event[i]], scheduleOrdinal(entries.schedule[i]),
+                    entries.window[i], entries.occursAt[i], entries.fireAt[i]);
+            ensureHeapCapacity();
+            heap[heapSize] = slot;
+            heapPosition[slot] = heapSize++;
+        }
+
+        // Build the heap in one pass instead of sifting every entry up
+        for (int position = heapSize / 2 - 1; position >= 0; position--) {
+            siftDown(position);
+        }
+    }
+
+    /**
+     * @return The fire time of the next reminder, if any
+     */
+    public synchronized Optional<LocalDateTime> nextFireTime() {
+        return heapSize == 0 ? Optional.empty() : Optional.of(fromMinute(fireAt[heap[0]]));
+    }
+
+    /**
+     * @return The number of reminders that are queued or in flight
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of reminders dropped because their window closed before they came due
+     */
+    public synchronized long getMissedCount() {
+        return missedCount;
+    }
+
+    private void requeue(PendingReminder entry, LocalDateTime nextAttempt, boolean countMissed) {
+        int slot = entry.getSlot();
+        if (heapPosition[slot] == ORPHANED) {
+            release(slot);
+            return;
+        }
+        if (heapPosition[slot] != IN_FLIGHT) {
+            return;
+        }
+
+        if (toMillis(nextAttempt) > deadlineMillis(slot)) {
+            if (countMissed) {
+                missedCount++;
+            }
+            unlink(slot);
+            return;
+        }
+
+        fireAt[slot] = toMinute(nextAttempt);
+        heapAdd(slot);
+    }
+
+    private long deadlineMillis(int slot) {
+        return occursAt[slot] - schedules[entrySchedule[slot]].closeMinutes(entryWindow[slot]) * 60_000L;
+    }
+
+    private int eventOrdinal(String eventId, String userId) {
+        Integer existing = eventOrdinals.get(eventId);
+        if (existing != null) {
+            return existing;
+        }
+
+        int event;
+        if (freeEvent != NONE) {
+            event = freeEvent;
+            freeEvent = firstSlot[event];
+        } else {
+            if (eventCount == eventIds.length) {
+                int capacity = eventCount * 2;
+                eventIds = Arrays.copyOf(eventIds, capacity);
+                eventUser = Arrays.copyOf(eventUser, capacity);
+                firstSlot = Arrays.copyOf(firstSlot, capacity);
+                indexedAt = Arrays.copyOf(indexedAt, capacity);
+            }
+            event = eventCount++;
+        }
+
+        eventIds[event] = eventId;
+        eventUser[event] = userIds.size();
+        Integer user = userOrdinals.putIfAbsent(userId, userIds.size());
+        if (user == null) {
+            userIds.add(userId);
+        } else {
+            eventUser[event] = user;
+        }
+        firstSlot[event] = NONE;
+        eventOrdinals.put(eventId, event);
+        return event;
+    }
+
+    /**
+     * Look up or intern a window set. A new set has no references until a slot is allocated
+     * with it; release it with {@link #releaseScheduleIfUnused} if none was.
+     */
+    private int scheduleOrdinal(ReminderSchedule schedule) {
+        Integer existing = scheduleOrdinals.get(schedule.getWindows());
+        if (existing != null) {
+            return existing;
+        }
+
+        int ordinal;
+        if (freeSchedule != NONE) {
+            ordinal = freeSchedule;
+            freeSchedule = scheduleReferences[ordinal];
+        } else {
+            if (scheduleCount == schedules.length) {
+                schedules = Arrays.copyOf(schedules, scheduleCount * 2);
+                scheduleReferences = Arrays.copyOf(scheduleReferences, scheduleCount * 2);
+            }
+            ordinal = scheduleCount++;
+        }
+        schedules[ordinal] = schedule;
+        scheduleReferences[ordinal] = 0;
+        scheduleOrdinals.put(schedule.getWindows(), ordinal);
+        return ordinal;
+    }
+
+    private void releaseScheduleIfUnused(int ordinal) {
+        if (scheduleReferences[ordinal] == 0) {
+            scheduleOrdinals.remove(schedules[ordinal].getWindows());
+            schedules[ordinal] = null;
+            scheduleReferences[ordinal] = freeSchedule;
+            freeSchedule = ordinal;
+        }
+    }
+
+    private int allocate(int event, int schedule, int window, long occurs, long fire) {
+        int slot;
+        if (freeSlot != NONE) {
+            slot = freeSlot;
+            freeSlot = nextSlot[slot];
+        } else {
+            if (slotCount == fireAt.length) {
+                ensureSlotCapacity(slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+
+        fireAt[slot] = fire;
+        occursAt[slot] = occurs;
+        entryEvent[slot] = event;
+        entrySchedule[slot] = schedule;
+        scheduleReferences[schedule]++;
+        entryWindow[slot] = (byte) window;
+        heapPosition[slot] = IN_FLIGHT;
+        nextSlot[slot] = firstSlot[event];
+        firstSlot[event] = slot;
+        size++;
+        return slot;
+    }
+
+    private void ensureSlotCapacity(int capacity) {
+        if (capacity > fireAt.length) {
+            fireAt = Arrays.copyOf(fireAt, capacity);
+            occursAt = Arrays.copyOf(occursAt, capacity);
+            entryEvent = Arrays.copyOf(entryEvent, capacity);
+            entrySchedule = Arrays.copyOf(entrySchedule, capacity);
+            entryWindow = Arrays.copyOf(entryWindow, capacity);
+            heapPosition = Arrays.copyOf(heapPosition, capacity);
+            nextSlot = Arrays.copyOf(nextSlot, capacity);
+        }
+        if (capacity > heap.length) {
+            heap = Arrays.copyOf(heap, capacity);
+        }
+    }
+
+    private void removeEvent(String eventId) {
+        Integer event = eventOrdinals.remove(eventId);
+        if (event != null) {
+            removeSlots(event);
+        }
+    }
+
+    /**
+     * Drop all slots of an event that was removed from the dictionary. Slots in flight
+     * are orphaned and released once their sender reports back.
+     */
+    private void removeSlots(int event) {
+        int slot = firstSlot[event];
+        while (slot != NONE) {
+            int next = nextSlot[slot];
+            size--;
+            if (heapPosition[slot] >= 0) {
+                heapRemove(slot);
+                release(slot);
+            } else {
+                heapPosition[slot] = ORPHANED;
+            }
+            slot = next;
+        }
+        releaseEvent(event);
+    }
+
+    /**
+     * Remove a slot that is not in the heap from its event and release it
+     */
+    private void unlink(int slot) {
+        int event = entryEvent[slot];
+        if (firstSlot[event] == slot) {
+            firstSlot[event] = nextSlot[slot];
+        } else {
+            int previous = firstSlot[event];
+            while (nextSlot[previous] != slot) {
+                previous = nextSlot[previous];
+            }
+            nextSlot[previous] = nextSlot[slot];
+        }
+        size--;
+        release(slot);
+
+        if (firstSlot[event] == NONE) {
+            eventOrdinals.remove(eventIds[event]);
+            releaseEvent(event);
+        }
+    }
+
+    private void release(int slot) {
+        int schedule = entrySchedule[slot];
+        scheduleReferences[schedule]--;
+        releaseScheduleIfUnused(schedule);
+        heapPosition[slot] = FREE;
+        nextSlot[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    private void releaseEvent(int event) {
+        eventIds[event] = null;
+        firstSlot[event] = freeEvent;
+        freeEvent = event;
+    }
+
+    private void ensureHeapCapacity() {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+    }
+
+    private void heapAdd(int slot) {
+        ensureHeapCapacity();
+        heap[heapSize] = slot;
+        heapPosition[slot] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int heapPoll() {
+        int slot = heap[0];
+        heapRemove(slot);
+        return slot;
+    }
+
+    private void heapRemove(int slot) {
+        int position = heapPosition[slot];
+        int last = heap[--heapSize];
+        heapPosition[slot] = IN_FLIGHT;
+        if (position == heapSize) {
+            return;
+        }
+
+        heap[position] = last;
+        heapPosition[last] = position;
+        siftDown(position);
+        if (heap[position] == last) {
+            siftUp(position);
+        }
+    }
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (fireAt[heap[parent]] <= fireAt[slot]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heapPosition[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = slot;
+        heapPosition[slot] = position;
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        int half = heapSize >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < heapSize && fireAt[heap[child + 1]] < fireAt[heap[child]]) {
+                child++;
+            }
+            if (fireAt[slot] <= fireAt[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapPosition[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = slot;
+        heapPosition[slot] = position;
+    }
+
+    static long toMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    static LocalDateTime fromMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000,
+                ZoneOffset.UTC);
+    }
+
+    /**
+     * The occurrences of a saved event to index, with the reminder windows that apply to it
+     *
+     * @param eventId The ID of the event
+     * @param occurrences The occurrences inside the index horizon; none removes the event's reminders
+     * @param schedule The compiled reminder windows
+     */
+    public record Scheduled(String eventId, List<Event> occurrences, ReminderSchedule schedule) {
+    }
+
+    /**
+     * A compact copy of the entries of an index, grouped by event
+     */
+    public static final class Entries {
+
+        // Per event
+        final String[] eventIds;
+        final String[] userIds;
+
+        // Per entry
+        final int[] event;
+        final ReminderSchedule[] schedule;
+        final byte[] window;
+        final long[] occursAt;
+        final long[] fireAt;
+
+        Entries(String[] eventIds, String[] userIds, int entries) {
+            this.eventIds = eventIds;
+            this.userIds = userIds;
+            event = new int[entries];
+            schedule = new ReminderSchedule[entries];
+            window = new byte[entries];
+            occursAt = new long[entries];
+            fireAt = new long[entries];
+        }
+
+        /**
+         * @return The number of entries
+         */
+        public int size() {
+            return event.length;
+        }
+    }
+}
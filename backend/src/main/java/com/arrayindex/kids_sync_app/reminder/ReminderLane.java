@@ -0,0 +1,21 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+/**
+ * Urgency classes that due reminders are dispatched in, most urgent first
+ */
+public enum ReminderLane {
+    /**
+     * Windows opening shortly before the event, e.g. "1 hour before" and "5 minutes before"
+     */
+    URGENT,
+
+    /**
+     * Windows opening a few hours before the event
+     */
+    SOON,
+
+    /**
+     * Windows opening long before the event, e.g. "24 hours before"
+     */
+    ROUTINE
+}
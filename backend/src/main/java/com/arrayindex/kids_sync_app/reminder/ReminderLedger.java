@@ -0,0 +1,126 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.SentReminder;
+import com.arrayindex.kids_sync_app.repository.SentReminderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable record of which reminders have been sent.
+ *
+ * Sent markers are stored in the {@code sent_reminders} collection, which has a unique
+ * (eventId, windowKey) index and a TTL index that removes rows once the event has passed,
+ * so the ledger survives restarts without growing forever. A small LRU cache of recently
+ * sent keys sits in front of MongoDB; its size is fixed, so memory stays flat no matter
+ * how long the service has been running.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReminderLedger {
+
+    private final SentReminderRepository sentReminderRepository;
+
+    @Value("${reminders.ledger.cache-size:10000}")
+    private int cacheSize = 10000;
+
+    // How long after the event a sent marker is kept
+    @Value("${reminders.ledger.retention-hours:24}")
+    private long retentionHours = 24;
+
+    // Recently sent reminder keys, least recently used evicted first
+    private final Map<String, Boolean> recentlySent = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    /**
+     * Generate a unique key for an event and reminder window combination
+     *
+     * @param eventId The ID of the event
+     * @param windowKey The key of the reminder window
+     * @return A unique key for the event and window combination
+     */
+    public static String reminderKey(String eventId, String windowKey) {
+        return eventId + "_" + windowKey;
+    }
+
+    /**
+     * Check if a reminder has already been sent for a specific event and window
+     *
+     * @param eventId The ID of the event
+     * @param windowKey The key of the reminder window
+     * @return true if the reminder has already been sent
+     */
+    public boolean hasBeenSent(String eventId, String windowKey) {
+        String key = reminderKey(eventId, windowKey);
+        synchronized (recentlySent) {
+            if (recentlySent.containsKey(key)) {
+                return true;
+            }
+        }
+
+        boolean sent = sentReminderRepository.existsByEventIdAndWindowKey(eventId, windowKey);
+        if (sent) {
+            remember(key);
+        }
+        return sent;
+    }
+
+    /**
+     * Mark a reminder as sent for a specific event and window
+     *
+     * @param event The event the reminder was sent for
+     * @param windowKey The key of the reminder window
+     */
+    public void markSent(Event event, String windowKey) {
+        remember(reminderKey(event.getId(), windowKey));
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime eventTime = event.getDateTime() != null ? event.getDateTime() : now;
+        try {
+            sentReminderRepository.save(
+                    new SentReminder(event.getId(), windowKey, now, eventTime.plusHours(retentionHours)));
+        } catch (DuplicateKeyException e) {
+            // Another node recorded the same reminder first
+            log.debug("Reminder already recorded: {}", reminderKey(event.getId(), windowKey));
+        }
+    }
+
+    /**
+     * @return The keys of the recently sent reminders held in memory, oldest first
+     */
+    public List<String> recentKeys() {
+        synchronized (recentlySent) {
+            return new ArrayList<>(recentlySent.keySet());
+        }
+    }
+
+    /**
+     * Put keys read back from a snapshot into the in-memory cache
+     * @param keys The reminder keys, oldest first
+     */
+    public void restoreRecentKeys(List<String> keys) {
+        synchronized (recentlySent) {
+            keys.forEach(key -> recentlySent.put(key, Boolean.TRUE));
+        }
+    }
+
+    private void remember(String key) {
+        synchronized (recentlySent) {
+            recentlySent.put(key, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.ReminderWindow;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A set of reminder windows compiled into integer minute offsets.
+ *
+ * Each window is reduced to the number of minutes before the event at which it opens
+ * and closes, so the fire time and deadline of every reminder an event owes are a single
+ * subtraction from the event time. The hour based {@link ReminderWindow} values are only
+ * read once, when the set is compiled.
+ */
+public final class ReminderSchedule {
+
+    /**
+     * Upper bound on the number of windows in one set
+     */
+    public static final int MAX_WINDOWS = 16;
+
+    // Windows ordered from the longest lead time to the shortest
+    private final List<ReminderWindow> windows;
+
+    // Minutes before the event at which each window opens
+    private final int[] leadMinutes;
+
+    // Minutes before the event at which each window closes
+    private final int[] closeMinutes;
+
+    private ReminderSchedule(List<ReminderWindow> windows, int[] leadMinutes, int[] closeMinutes) {
+        this.windows = windows;
+        this.leadMinutes = leadMinutes;
+        this.closeMinutes = closeMinutes;
+    }
+
+    /**
+     * Validate and compile a set of reminder windows
+     *
+     * @param windows The windows to compile
+     * @param maxLeadMinutes The longest lead time a window may have
+     * @return The compiled schedule
+     * @throws IllegalArgumentException if the windows are not valid
+     */
+    public static ReminderSchedule compile(List<ReminderWindow> windows, int maxLeadMinutes) {
+        if (windows == null || windows.isEmpty()) {
+            throw new IllegalArgumentException("At least one reminder window is required");
+        }
+        if (windows.size() > MAX_WINDOWS) {
+            throw new IllegalArgumentException("At most " + MAX_WINDOWS + " reminder windows are allowed");
+        }
+
+        List<ReminderWindow> sorted = new ArrayList<>(windows);
+        sorted.sort(Comparator.comparingDouble(ReminderWindow::getMaxDuration).reversed());
+
+        int[] leadMinutes = new int[sorted.size()];
+        int[] closeMinutes = new int[sorted.size()];
+        Set<String> keys = new HashSet<>();
+
+        for (int i = 0; i < sorted.size(); i++) {
+            ReminderWindow window = sorted.get(i);
+            if (window.getKey() == null || window.getKey().isBlank() || !keys.add(window.getKey())) {
+                throw new IllegalArgumentException("Reminder window keys must be present and unique");
+            }
+
+            leadMinutes[i] = (int) Math.round(window.getMaxDuration() * 60);
+            closeMinutes[i] = (int) Math.round(window.getMinDuration() * 60);
+            if (closeMinutes[i] < 0 || closeMinutes[i] >= leadMinutes[i]) {
+                throw new IllegalArgumentException("Reminder window " + window.getKey()
+                        + " must close after it opens and not after the event");
+            }
+            if (leadMinutes[i] > maxLeadMinutes) {
+                throw new IllegalArgumentException("Reminder window " + window.getKey()
+                        + " may open at most " + maxLeadMinutes / 60 + " hours before the event");
+            }
+        }
+
+        return new ReminderSchedule(List.copyOf(sorted), leadMinutes, closeMinutes);
+    }
+
+    /**
+     * @return The number of windows
+     */
+    public int size() {
+        return leadMinutes.length;
+    }
+
+    /**
+     * @param ordinal The position of the window, longest lead time first
+     * @return The window
+     */
+    public ReminderWindow window(int ordinal) {
+        return windows.get(ordinal);
+    }
+
+    /**
+     * @param ordinal The position of the window
+     * @return The minutes before the event at which the window opens
+     */
+    public int leadMinutes(int ordinal) {
+        return leadMinutes[ordinal];
+    }
+
+    /**
+     * @param ordinal The position of the window
+     * @return The minutes before the event at which the window closes
+     */
+    public int closeMinutes(int ordinal) {
+        return closeMinutes[ordinal];
+    }
+
+    /**
+     * @return The longest lead time of any window in minutes
+     */
+    public int maxLeadMinutes() {
+        return leadMinutes[0];
+    }
+
+    /**
+     * @return The windows, longest lead time first
+     */
+    public List<ReminderWindow> getWindows() {
+        return windows;
+    }
+}
@@ -0,0 +1,279 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.ReminderWindow;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of the reminder scheduler at one point in time: the pending reminders, the
+ * recently sent keys of the {@link ReminderLedger} and the events change stream position
+ * the state reflects.
+ *
+ * Snapshots are stored in a compact binary file through a memory mapping. Every string
+ * (event and user IDs, window keys) is written once to a table and referenced by number,
+ * and every window set and event is written once and referenced by the reminders that
+ * belong to it, so the reminders themselves are fixed size records mirroring the arrays of
+ * the {@link ReminderIndex}. Files are written next to the target and moved into place, so
+ * a crash while writing leaves the previous snapshot intact.
+ */
+public final class ReminderSnapshot {
+
+    private static final int MAGIC = 0x4B53524D;
+    private static final int VERSION = 3;
+
+    private static final int NONE = -1;
+
+    private static final int WINDOW_BYTES = 2 * Integer.BYTES + 2 * Double.BYTES + 1;
+    private static final int EVENT_BYTES = 2 * Integer.BYTES;
+    private static final int REMINDER_BYTES = 2 * Integer.BYTES + 1 + 2 * Long.BYTES;
+
+    private final Instant createdAt;
+    private final LocalDateTime horizonEnd;
+    private final String streamPosition;
+    private final ReminderIndex.Entries reminders;
+    private final List<String> sentKeys;
+
+    /**
+     * @param createdAt When the state was captured
+     * @param horizonEnd Events up to this time are in the reminders
+     * @param streamPosition The events change stream resume token (JSON) the state reflects
+     * @param reminders The pending reminders
+     * @param sentKeys The recently sent reminder keys
+     */
+    public ReminderSnapshot(Instant createdAt, LocalDateTime horizonEnd, String streamPosition,
+                            ReminderIndex.Entries reminders, List<String> sentKeys) {
+        this.createdAt = createdAt;
+        this.horizonEnd = horizonEnd;
+        this.streamPosition = streamPosition;
+        this.reminders = reminders;
+        this.sentKeys = sentKeys;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getHorizonEnd() {
+        return horizonEnd;
+    }
+
+    public String getStreamPosition() {
+        return streamPosition;
+    }
+
+    public ReminderIndex.Entries getReminders() {
+        return reminders;
+    }
+
+    public List<String> getSentKeys() {
+        return sentKeys;
+    }
+
+    /**
+     * Write the snapshot to a file, replacing any previous snapshot
+     *
+     * @param file The snapshot file
+     * @return The size of the file in bytes
+     * @throws IOException if the file cannot be written
+     */
+    public long write(Path file) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<ReminderWindow, Integer> windows = new LinkedHashMap<>();
+        // By window set rather than instance, since equal schedules may have been compiled more than once
+        Map<List<ReminderWindow>, Integer> schedules = new HashMap<>();
+        List<ReminderSchedule> scheduleList = new ArrayList<>();
+
+        intern(strings, streamPosition);
+        for (int i = 0; i < reminders.eventIds.length; i++) {
+            intern(strings, reminders.eventIds[i]);
+            intern(strings, reminders.userIds[i]);
+        }
+        long scheduleBytes = 0;
+        for (ReminderSchedule schedule : reminders.schedule) {
+            if (schedules.putIfAbsent(schedule.getWindows(), scheduleList.size()) == null) {
+                scheduleList.add(schedule);
+                scheduleBytes += Integer.BYTES + (long) schedule.size() * Integer.BYTES;
+                for (ReminderWindow window : schedule.getWindows()) {
+                    intern(windows, window);
+                    intern(strings, window.getKey());
+                    intern(strings, window.getDisplayName());
+                }
+            }
+        }
+        sentKeys.forEach(key -> intern(strings, key));
+
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        long size = 2 * Integer.BYTES + 2 * Long.BYTES + Integer.BYTES + Integer.BYTES;
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += Integer.BYTES + bytes.length;
+        }
+        size += Integer.BYTES + (long) windows.size() * WINDOW_BYTES
+                + Integer.BYTES + scheduleBytes
+                + Integer.BYTES + (long) reminders.eventIds.length * EVENT_BYTES
+                + Integer.BYTES + (long) reminders.size() * REMINDER_BYTES
+                + Integer.BYTES + (long) sentKeys.size() * Integer.BYTES;
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            buffer.putInt(MAGIC).putInt(VERSION);
+            buffer.putLong(createdAt.toEpochMilli());
+            buffer.putLong(horizonEnd.toEpochSecond(ZoneOffset.UTC));
+
+            buffer.putInt(encoded.size());
+            for (byte[] bytes : encoded) {
+                buffer.putInt(bytes.length).put(bytes);
+            }
+            buffer.putInt(ref(strings, streamPosition));
+
+            buffer.putInt(windows.size());
+            for (ReminderWindow window : windows.keySet()) {
+                buffer.putInt(ref(strings, window.getKey()));
+                buffer.putDouble(window.getMinDuration());
+                buffer.putDouble(window.getMaxDuration());
+                buffer.put((byte) (window.isHourBased() ? 1 : 0));
+                buffer.putInt(ref(strings, window.getDisplayName()));
+            }
+
+            buffer.putInt(scheduleList.size());
+            for (ReminderSchedule schedule : scheduleList) {
+                buffer.putInt(schedule.size());
+                for (ReminderWindow window : schedule.getWindows()) {
+                    buffer.putInt(windows.get(window));
+                }
+            }
+
+            buffer.putInt(reminders.eventIds.length);
+            for (int i = 0; i < reminders.eventIds.length; i++) {
+                buffer.putInt(ref(strings, reminders.eventIds[i]));
+                buffer.putInt(ref(strings, reminders.userIds[i]));
+            }
+
+            buffer.putInt(reminders.size());
+            for (int i = 0; i < reminders.size(); i++) {
+                buffer.putInt(reminders.event[i]);
+                buffer.putInt(schedules.get(reminders.schedule[i].getWindows()));
+                buffer.put(reminders.window[i]);
+                buffer.putLong(reminders.occursAt[i]);
+                buffer.putLong(reminders.fireAt[i]);
+            }
+
+            buffer.putInt(sentKeys.size());
+            for (String key : sentKeys) {
+                buffer.putInt(ref(strings, key));
+            }
+
+            buffer.force();
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * Read a snapshot written by {@link #write}
+     *
+     * @param file The snapshot file
+     * @return The snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot of this version
+     */
+    public static ReminderSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a reminder snapshot of version " + VERSION + ": " + file);
+            }
+            Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+            LocalDateTime horizonEnd = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            String streamPosition = lookup(strings, buffer.getInt());
+
+            ReminderWindow[] windows = new ReminderWindow[buffer.getInt()];
+            for (int i = 0; i < windows.length; i++) {
+                String key = lookup(strings, buffer.getInt());
+                double minDuration = buffer.getDouble();
+                double maxDuration = buffer.getDouble();
+                boolean hourBased = buffer.get() == 1;
+                windows[i] = new ReminderWindow(key, minDuration, maxDuration, hourBased, lookup(strings, buffer.getInt()));
+            }
+
+            // Window sets were validated when they were first indexed, so only their order matters here
+            ReminderSchedule[] schedules = new ReminderSchedule[buffer.getInt()];
+            for (int i = 0; i < schedules.length; i++) {
+                List<ReminderWindow> scheduleWindows = new ArrayList<>();
+                for (int count = buffer.getInt(); count > 0; count--) {
+                    scheduleWindows.add(windows[buffer.getInt()]);
+                }
+                schedules[i] = ReminderSchedule.compile(scheduleWindows, Integer.MAX_VALUE);
+            }
+
+            String[] eventIds = new String[buffer.getInt()];
+            String[] userIds = new String[eventIds.length];
+            for (int i = 0; i < eventIds.length; i++) {
+                eventIds[i] = strings[buffer.getInt()];
+                userIds[i] = strings[buffer.getInt()];
+            }
+
+            int reminderCount = buffer.getInt();
+            ReminderIndex.Entries reminders = new ReminderIndex.Entries(eventIds, userIds, reminderCount);
+            for (int i = 0; i < reminderCount; i++) {
+                reminders.event[i] = buffer.getInt();
+                reminders.schedule[i] = schedules[buffer.getInt()];
+                reminders.window[i] = buffer.get();
+                reminders.occursAt[i] = buffer.getLong();
+                reminders.fireAt[i] = buffer.getLong();
+            }
+
+            int sentCount = buffer.getInt();
+            List<String> sentKeys = new ArrayList<>(sentCount);
+            for (int i = 0; i < sentCount; i++) {
+                sentKeys.add(strings[buffer.getInt()]);
+            }
+
+            return new ReminderSnapshot(createdAt, horizonEnd, streamPosition, reminders, sentKeys);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt reminder snapshot: " + file, e);
+        }
+    }
+
+    private static <T> void intern(Map<T, Integer> table, T value) {
+        if (value != null) {
+            table.putIfAbsent(value, table.size());
+        }
+    }
+
+    private static <T> int ref(Map<T, Integer> table, T value) {
+        return value == null ? NONE : table.get(value);
+    }
+
+    private static <T> T lookup(T[] table, int ref) {
+        return ref == NONE ? null : table[ref];
+    }
+}
@@ -0,0 +1,125 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Keeps the reminder scheduler snapshot on local disk so a restarted instance can pick up
+ * its pending reminders without reloading them from MongoDB.
+ *
+ * A snapshot is only usable together with the events change stream position it was taken
+ * at: on startup the {@link EventChangeListener} resumes from that position and replays
+ * the changes made since. If the stream cannot resume there, the snapshot is discarded
+ * and the index is loaded from the database as usual.
+ */
+@Component
+@Slf4j
+public class ReminderSnapshotStore {
+
+    @Value("${reminders.snapshot.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${reminders.snapshot.path:data/reminder-index.snapshot}")
+    private String path = "data/reminder-index.snapshot";
+
+    // Older snapshots are not restored; the changes since would take longer to replay than a reload
+    @Value("${reminders.snapshot.max-age-hours:24}")
+    private long maxAgeHours = 24;
+
+    // The change stream position the reminder index currently reflects
+    private volatile BsonDocument streamPosition;
+
+    private boolean loaded;
+    private ReminderSnapshot restorable;
+
+    /**
+     * The snapshot to restore at startup, read from disk the first time it is asked for
+     * @return The snapshot, unless there is none, it is unreadable or too old, or it was discarded
+     */
+    public synchronized Optional<ReminderSnapshot> restorable() {
+        if (!loaded) {
+            loaded = true;
+            restorable = readSnapshot();
+        }
+        return Optional.ofNullable(restorable);
+    }
+
+    /**
+     * Forget the snapshot read at startup, either because it was restored or because the
+     * changes since it was taken cannot be replayed
+     */
+    public synchronized void discard() {
+        loaded = true;
+        restorable = null;
+    }
+
+    /**
+     * Record the change stream position up to which changes have been applied to the index
+     * @param position The resume token of the last applied change
+     */
+    public void recordStreamPosition(BsonDocument position) {
+        streamPosition = position;
+    }
+
+    /**
+     * @return The change stream position the index reflects, if the stream is running
+     */
+    public Optional<String> streamPosition() {
+        return Optional.ofNullable(streamPosition).map(BsonDocument::toJson);
+    }
+
+    /**
+     * Write a snapshot, replacing the previous one
+     * @param snapshot The state to write
+     */
+    public void write(ReminderSnapshot snapshot) {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            long size = snapshot.write(Path.of(path));
+            log.info("Wrote reminder snapshot with {} reminders ({} KB) in {} ms", snapshot.getReminders().size(),
+                    size / 1024, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (Exception e) {
+            log.error("Failed to write reminder snapshot to {}", path, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private ReminderSnapshot readSnapshot() {
+        Path file = Path.of(path);
+        if (!enabled || !Files.exists(file)) {
+            return null;
+        }
+
+        try {
+            long start = System.nanoTime();
+            ReminderSnapshot snapshot = ReminderSnapshot.read(file);
+            if (snapshot.getStreamPosition() == null
+                    || snapshot.getCreatedAt().isBefore(Instant.now().minus(Duration.ofHours(maxAgeHours)))) {
+                log.info("Reminder snapshot from {} cannot be restored", snapshot.getCreatedAt());
+                return null;
+            }
+
+            log.info("Read reminder snapshot from {} with {} reminders in {} ms", snapshot.getCreatedAt(),
+                    snapshot.getReminders().size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+            return snapshot;
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable reminder snapshot {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.arrayindex.kids_sync_app.repository;
+
+import com.arrayindex.kids_sync_app.model.ErasureJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ErasureJobRepository extends MongoRepository<ErasureJob, String> {
+
+    /**
+     * Check whether an account's events are still being erased
+     * @param email The email of the deleted user
+     * @param status The status of finished jobs
+     * @return true if a job for the email is not finished
+     */
+    boolean existsByEmailAndStatusNot(String email, ErasureJob.Status status);
+}
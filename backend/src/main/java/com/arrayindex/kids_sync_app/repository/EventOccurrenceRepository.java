@@ -0,0 +1,51 @@
+package com.arrayindex.kids_sync_app.repository;
+
+import com.arrayindex.kids_sync_app.model.EventOccurrence;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EventOccurrenceRepository extends MongoRepository<EventOccurrence, String> {
+
+    /**
+     * Find the occurrences of a user's events within a given, half-open time range
+     * @param userId The ID of the user
+     * @param start The start date (inclusive)
+     * @param end The end date (exclusive)
+     * @return List of occurrences ordered by time
+     */
+    @Query(value = "{ 'userId': ?0, 'dateTime': { $gte: ?1, $lt: ?2 } }", sort = "{ 'dateTime': 1 }")
+    List<EventOccurrence> findByUserIdAndDateTimeBetweenOrderByDateTimeAsc(String userId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Find the occurrences of all events within a given, half-open time range
+     * @param start The start date (inclusive)
+     * @param end The end date (exclusive)
+     * @return List of occurrences
+     */
+    @Query("{ 'dateTime': { $gte: ?0, $lt: ?1 } }")
+    List<EventOccurrence> findByDateTimeBetween(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Remove all occurrences of an event
+     * @param eventId The ID of the event
+     */
+    void deleteByEventId(String eventId);
+
+    /**
+     * Remove all occurrences of several events
+     * @param eventIds The IDs of the events
+     */
+    void deleteByEventIdIn(Collection<String> eventIds);
+
+    /**
+     * Remove occurrences that are older than the retention period
+     * @param dateTime The oldest time to keep
+     */
+    void deleteByDateTimeBefore(LocalDateTime dateTime);
+}
@@ -1,30 +1,39 @@
 package com.arrayindex.kids_sync_app.repository;
 
 import com.arrayindex.kids_sync_app.model.Event;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface EventRepository extends MongoRepository<Event, String> {
 
     /**
-     * Find events for a specific user within a given time range
+     * Find events for a specific user within a given time range. The range is half-open, unlike a
+     * derived Between query, so consecutive ranges neither skip nor repeat an event on the boundary.
      * @param userId The ID of the user
-     * @param start The start date
-     * @param end The end date
+     * @param start The start date (inclusive)
+     * @param end The end date (exclusive)
      * @return List of events
      */
+    @Query("{ 'userId': ?0, 'dateTime': { $gte: ?1, $lt: ?2 } }")
     List<Event> findByUserIdAndDateTimeBetween(String userId, LocalDateTime start, LocalDateTime end);
 
     /**
-     * Find all events within a given time range
-     * @param start The start date
-     * @param end The end date
+     * Find all events within a given time range. The range is half-open, unlike a derived
+     * Between query, so consecutive ranges neither skip nor repeat an event on the boundary.
+     * @param start The start date (inclusive)
+     * @param end The end date (exclusive)
      * @return List of events
      */
+    @Query("{ 'dateTime': { $gte: ?0, $lt: ?1 } }")
     List<Event> findByDateTimeBetween(LocalDateTime start, LocalDateTime end);
 
     /**
@@ -34,6 +43,56 @@ public interface EventRepository extends MongoRepository<Event, String> {
      */
     List<Event> findByUserId(String userId);
 
+    /**
+     * Find the first page of a user's events
+     * @param userId The ID of the user
+     * @param page The page size and sort order, by date and then by ID
+     * @return List of events
+     */
+    List<Event> findByUserId(String userId, Pageable page);
+
+    /**
+     * Find the next page of a user's events after a keyset position
+     * @param userId The ID of the user
+     * @param dateTime The date of the last event on the previous page
+     * @param id The ID of the last event on the previous page
+     * @param page The page size and sort order, by date and then by ID
+     * @return List of events
+     */
+    @Query("{ 'userId': ?0, $or: [ { 'dateTime': { $gt: ?1 } }, { 'dateTime': ?1, '_id': { $gt: ?2 } } ] }")
+    List<Event> findByUserIdAfter(String userId, LocalDateTime dateTime, Object id, Pageable page);
+
+    /**
+     * Find the IDs of some of a user's events, e.g. the next chunk to delete
+     * @param userId The ID of the user
+     * @param page The number of events to find
+     * @return Events with only their ID set
+     */
+    @Query(value = "{ 'userId': ?0 }", fields = "{ '_id': 1 }")
+    List<Event> findIdsByUserId(String userId, Pageable page);
+
+    /**
+     * Count the events of a user
+     * @param userId The ID of the user
+     * @return The number of events
+     */
+    long countByUserId(String userId);
+
+    /**
+     * Delete several events with one delete
+     * @param ids The IDs of the events
+     * @return The number of events deleted
+     */
+    long deleteByIdIn(Collection<String> ids);
+
+    /**
+     * Stream all events of a user from a database cursor, ordered by date and then by ID.
+     * The stream must be closed to release the cursor.
+     * @param userId The ID of the user
+     * @return Stream of events
+     */
+    Stream<Event> streamByUserIdOrderByDateTimeAscIdAsc(String userId);
+
     /**
      * Find all upcoming events for a specific user
      * @param userId The ID of the user
@@ -42,6 +101,17 @@ public interface EventRepository extends MongoRepository<Event, String> {
      */
     List<Event> findByUserIdAndDateTimeGreaterThan(String userId, LocalDateTime dateTime);
 
+    /**
+     * Find the next one-off events of a user, served by the (userId, dateTime) index.
+     * Recurring series are excluded because their date is the first occurrence, not the next.
+     * @param userId The ID of the user
+     * @param dateTime The current date and time (exclusive)
+     * @param page The page size and sort order, normally ascending by date
+     * @return List of upcoming one-off events
+     */
+    @Query("{ 'userId': ?0, 'dateTime': { $gt: ?1 }, 'recurrence': { $nin: ['DAILY', 'WEEKLY', 'MONTHLY'] } }")
+    List<Event> findOneOffByUserIdAfter(String userId, LocalDateTime dateTime, Pageable page);
+
     /**
      * Find all events for a specific user within a date range
      * @param userId The ID of the user
@@ -50,4 +120,35 @@ public interface EventRepository extends MongoRepository<Event, String> {
      * @return List of events
      */
     List<Event> findByUserIdAndDateTimeBetweenOrderByDateTimeAsc(String userId, LocalDateTime start, LocalDateTime end);
-} 
\ No newline at end of file
+
+    /**
+     * Find recurring events of a user that may have occurrences within a given time range:
+     * the series has started by the end of the range and has not ended before its start
+     * @param userId The ID of the user
+     * @param start The start date
+     * @param end The end date
+     * @return List of recurring events
+     */
+    default List<Event> findRecurringByUserIdActiveBetween(String userId, LocalDateTime start, LocalDateTime end) {
+        // The recurrence end date covers the whole day, so compare against the start of the day
+        return findRecurringByUserIdEndingNotBefore(userId, start.truncatedTo(ChronoUnit.DAYS), end);
+    }
+
+    /**
+     * Find all recurring events that may have occurrences within a given time range
+     * @param start The start date
+     * @param end The end date
+     * @return List of recurring events
+     */
+    default List<Event> findRecurringActiveBetween(LocalDateTime start, LocalDateTime end) {
+        return findRecurringEndingNotBefore(start.truncatedTo(ChronoUnit.DAYS), end);
+    }
+
+    @Query("{ 'userId': ?0, 'recurrence': { $in: ['DAILY', 'WEEKLY', 'MONTHLY'] }, 'dateTime': { $lte: ?2 }, "
+            + "$or: [ { 'recurrenceEndDate': null }, { 'recurrenceEndDate': { $gte: ?1 } } ] }")
+    List<Event> findRecurringByUserIdEndingNotBefore(String userId, LocalDateTime endDate, LocalDateTime startedBy);
+
+    @Query("{ 'recurrence': { $in: ['DAILY', 'WEEKLY', 'MONTHLY'] }, 'dateTime': { $lte: ?1 }, "
+            + "$or: [ { 'recurrenceEndDate': null }, { 'recurrenceEndDate': { $gte: ?0 } } ] }")
+    List<Event> findRecurringEndingNotBefore(LocalDateTime endDate, LocalDateTime startedBy);
+}
@@ -0,0 +1,9 @@
+package com.arrayindex.kids_sync_app.repository;
+
+import com.arrayindex.kids_sync_app.model.OccurrenceHorizon;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OccurrenceHorizonRepository extends MongoRepository<OccurrenceHorizon, String> {
+}
@@ -0,0 +1,29 @@
+package com.arrayindex.kids_sync_app.repository;
+
+import com.arrayindex.kids_sync_app.model.OutboxMessage;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxRepository extends MongoRepository<OutboxMessage, String> {
+
+    /**
+     * Find the oldest messages that are ready for a delivery attempt
+     * @param status The message status
+     * @param now The current time
+     * @return Up to 50 messages ordered by next attempt time
+     */
+    List<OutboxMessage> findTop50ByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+            OutboxMessage.Status status, LocalDateTime now);
+
+    /**
+     * Find the most recent notification for an event
+     * @param eventId The ID of the event
+     * @return Optional containing the latest message if any
+     */
+    Optional<OutboxMessage> findFirstByEventIdOrderByCreatedAtDesc(String eventId);
+}
@@ -0,0 +1,17 @@
+package com.arrayindex.kids_sync_app.repository;
+
+import com.arrayindex.kids_sync_app.model.SentReminder;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SentReminderRepository extends MongoRepository<SentReminder, String> {
+
+    /**
+     * Check whether a reminder has been sent for an event and window
+     * @param eventId The ID of the event
+     * @param windowKey The key of the reminder window
+     * @return true if a reminder has been recorded
+     */
+    boolean existsByEventIdAndWindowKey(String eventId, String windowKey);
+}
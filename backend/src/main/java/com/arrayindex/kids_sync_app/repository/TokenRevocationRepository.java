@@ -0,0 +1,19 @@
+package com.arrayindex.kids_sync_app.repository;
+
+import com.arrayindex.kids_sync_app.model.TokenRevocation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends MongoRepository<TokenRevocation, String> {
+
+    /**
+     * Find the revocations made since a point in time, e.g. by other instances
+     * @param since The earliest revocation time to return
+     * @return List of revocations
+     */
+    List<TokenRevocation> findByRevokedBeforeGreaterThanEqual(Instant since);
+}
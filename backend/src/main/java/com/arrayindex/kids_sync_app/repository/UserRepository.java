@@ -4,6 +4,8 @@ import com.arrayindex.kids_sync_app.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +18,7 @@ public interface UserRepository extends MongoRepository<User, String> {
     
     // Find user by ID
     Optional<User> findById(String id);
+
+    // Find all users with the given emails in one query (used for bulk resolution)
+    List<User> findByEmailIn(Collection<String> emails);
 } 
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.arrayindex.kids_sync_app.service;
+
+import com.arrayindex.kids_sync_app.model.ErasureJob;
+
+import java.util.Optional;
+
+/**
+ * Service interface for erasing the events of deleted accounts in the background.
+ * Erasure is resumable: an interrupted job continues with the events that are left.
+ */
+public interface AccountErasureService {
+
+    /**
+     * Record an erasure job for a deleted account and start it once the current transaction commits
+     * @param email The email of the deleted user
+     * @return The new job
+     */
+    ErasureJob requestErasure(String email);
+
+    /**
+     * Get the progress of an erasure job
+     * @param id The ID of the job
+     * @return Optional containing the job if it exists
+     */
+    Optional<ErasureJob> getJob(String id);
+
+    /**
+     * Check whether an account's events are still being erased
+     * @param email The email of the deleted user
+     * @return true if an erasure job for the email is not finished
+     */
+    boolean isErasing(String email);
+
+    /**
+     * Run all erasure jobs that are pending or whose previous run stopped
+     */
+    void drain();
+}
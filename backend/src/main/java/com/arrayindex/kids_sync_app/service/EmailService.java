@@ -2,6 +2,8 @@ package com.arrayindex.kids_sync_app.service;
 
 import com.arrayindex.kids_sync_app.model.Event;
 
+import java.util.List;
+
 public interface EmailService {
     /**
      * Sends a reminder email for an event
@@ -11,6 +13,14 @@ public interface EmailService {
      */
     boolean sendEventReminder(Event event, String recipientEmail);
 
+    /**
+     * Sends a single reminder email covering several events
+     * @param events The events to include, in the order they should be listed
+     * @param recipientEmail The email address to send the digest to
+     * @return true if the email was sent successfully, false otherwise
+     */
+    boolean sendReminderDigest(List<Event> events, String recipientEmail);
+
     /**
      * Sends an email
      * @param to The recipient email address
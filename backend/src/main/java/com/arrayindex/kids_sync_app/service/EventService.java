@@ -1,9 +1,13 @@
 package com.arrayindex.kids_sync_app.service;
 
+import com.arrayindex.kids_sync_app.dto.EventBatchOperation;
+import com.arrayindex.kids_sync_app.dto.EventBatchResult;
+import com.arrayindex.kids_sync_app.dto.EventPage;
 import com.arrayindex.kids_sync_app.model.Event;
 import java.util.List;
 import java.util.Optional;
 import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
 public interface EventService {
     
@@ -14,12 +18,40 @@ public interface EventService {
      */
     Event createEvent(Event event);
     
+    /**
+     * Apply a batch of creates, updates and deletes to a user's events with one unordered bulk write.
+     * Operations succeed or fail independently; reminders are updated once for the whole batch.
+     * @param userId The ID of the user
+     * @param operations The operations to apply
+     * @return The result of each operation, in the order of the operations
+     * @throws IllegalArgumentException If the batch is larger than allowed
+     */
+    List<EventBatchResult> applyBatch(String userId, List<EventBatchOperation> operations);
+
     /**
      * Get all events for a specific user
      * @param userId The ID of the user
      * @return List of events
      */
     List<Event> getEventsByUserId(String userId);
+
+    /**
+     * Get one page of a user's events, ordered by date and then by ID
+     * @param userId The ID of the user
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param limit The maximum number of events on the page
+     * @return The page of events and the cursor of the next page
+     * @throws IllegalArgumentException If the cursor is not valid
+     */
+    EventPage getEventPage(String userId, String cursor, int limit);
+
+    /**
+     * Stream all events of a user straight from the database, ordered by date and then by ID.
+     * The stream must be closed to release the database cursor.
+     * @param userId The ID of the user
+     * @return Stream of events
+     */
+    Stream<Event> streamEventsByUserId(String userId);
     
     /**
      * Get a specific event by ID
@@ -48,6 +80,14 @@ public interface EventService {
      * @return List of upcoming events
      */
     List<Event> getUpcomingEvents(String userId);
+
+    /**
+     * Get the next upcoming events for a user, soonest first
+     * @param userId The ID of the user
+     * @param limit The maximum number of events to return
+     * @return List of upcoming events
+     */
+    List<Event> getUpcomingEvents(String userId, int limit);
     
     /**
      * Get events for a user within a date range
@@ -58,9 +98,26 @@ public interface EventService {
      */
     List<Event> getEventsByDateRange(String userId, LocalDateTime start, LocalDateTime end);
     
+    /**
+     * Delete the next chunk of a user's events, with their occurrences and reminders, using
+     * one delete per collection and one reminder update
+     * @param userId The ID of the user
+     * @param limit The most events to delete
+     * @return The number of events deleted; 0 once the user has none left
+     */
+    int deleteUserEvents(String userId, int limit);
+
+    /**
+     * Count the events of a user
+     * @param userId The ID of the user
+     * @return The number of events
+     */
+    long countUserEvents(String userId);
+
     /**
      * Delete all events for a specific user
      * @param userId The ID of the user
+     * @return The number of events deleted
      */
-    void deleteAllUserEvents(String userId);
-} 
\ No newline at end of file
+    long deleteAllUserEvents(String userId);
+}
@@ -0,0 +1,101 @@
+package com.arrayindex.kids_sync_app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts failed logins per account and per client address, and blocks further attempts
+ * once either passes its limit within the window.
+ *
+ * The counters are striped: accounts and addresses are hashed into fixed arrays of
+ * counters, so memory stays constant however many distinct emails or addresses an attacker
+ * tries. A blocked attempt is refused before its password is hashed. Two keys can share a
+ * stripe, in which case they share a limit too; with enough stripes that is rare.
+ */
+@Component
+public class LoginThrottle {
+
+    // Each counter packs the start of its window (epoch seconds) above a 20-bit failure count
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int maxAccountFailures;
+    private final int maxAddressFailures;
+    private final long windowSeconds;
+    private final AtomicLongArray accounts;
+    private final AtomicLongArray addresses;
+
+    public LoginThrottle(
+            @Value("${auth.login.max-account-failures:5}") int maxAccountFailures,
+            @Value("${auth.login.max-address-failures:50}") int maxAddressFailures,
+            @Value("${auth.login.window-seconds:900}") long windowSeconds,
+            @Value("${auth.login.stripes:4096}") int stripes) {
+        this.maxAccountFailures = maxAccountFailures;
+        this.maxAddressFailures = maxAddressFailures;
+        this.windowSeconds = windowSeconds;
+        this.accounts = new AtomicLongArray(stripes);
+        this.addresses = new AtomicLongArray(stripes);
+    }
+
+    /**
+     * @param email The account being logged in to
+     * @param address The client's IP address
+     * @return true if the account or the address has failed too often recently
+     */
+    public boolean isBlocked(String email, String address) {
+        long now = nowSeconds();
+        return failures(accounts, accountKey(email), now) >= maxAccountFailures
+                || failures(addresses, address, now) >= maxAddressFailures;
+    }
+
+    /**
+     * Count a failed login against the account and the address
+     * @param email The account that was tried
+     * @param address The client's IP address
+     */
+    public void recordFailure(String email, String address) {
+        long now = nowSeconds();
+        increment(accounts, accountKey(email), now);
+        increment(addresses, address, now);
+    }
+
+    /**
+     * Clear the account's failures after a successful login
+     * @param email The account that was logged in to
+     */
+    public void recordSuccess(String email) {
+        accounts.set(stripe(accounts, accountKey(email)), 0);
+    }
+
+    private long failures(AtomicLongArray counters, String key, long now) {
+        long counter = counters.get(stripe(counters, key));
+        return (counter >>> COUNT_BITS) + windowSeconds > now ? counter & COUNT_MASK : 0;
+    }
+
+    private void increment(AtomicLongArray counters, String key, long now) {
+        counters.getAndUpdate(stripe(counters, key), counter -> {
+            if ((counter >>> COUNT_BITS) + windowSeconds <= now) {
+                // Window over: start a new one with this failure
+                return (now << COUNT_BITS) | 1;
+            }
+            return (counter & COUNT_MASK) == COUNT_MASK ? counter : counter + 1;
+        });
+    }
+
+    private static int stripe(AtomicLongArray counters, String key) {
+        int hash = key == null ? 0 : key.hashCode();
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash * 0x9E3779B9, counters.length());
+    }
+
+    private static String accountKey(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,52 @@
+package com.arrayindex.kids_sync_app.service;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.OutboxMessage;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for the notification outbox.
+ * Notifications are recorded together with the event write and delivered in the background.
+ */
+public interface OutboxService {
+
+    /**
+     * Record a notification for an event. Call inside the transaction that saves the event.
+     * @param event The saved event
+     * @return The outbox message
+     */
+    OutboxMessage enqueueEventNotification(Event event);
+
+    /**
+     * Record notifications for a batch of events before the events are written, with one insert.
+     * The messages are held back for the claim timeout so they are not delivered before the
+     * write; release them with {@link #releaseEventNotifications(List, List)} once it is done.
+     * If the caller never does, they become due on their own and the drainer cancels those
+     * whose event was not written.
+     * @param events The events about to be written
+     * @return The outbox messages, in the order of the events
+     */
+    List<OutboxMessage> holdEventNotifications(List<Event> events);
+
+    /**
+     * Make held notifications of written events due now, and cancel those of events whose
+     * write failed
+     * @param written The messages of events that were written
+     * @param notWritten The messages of events that were not written
+     */
+    void releaseEventNotifications(List<OutboxMessage> written, List<OutboxMessage> notWritten);
+
+    /**
+     * Get the delivery status of the latest notification for an event
+     * @param eventId The ID of the event
+     * @return Optional containing the latest outbox message if any
+     */
+    Optional<OutboxMessage> getNotificationStatus(String eventId);
+
+    /**
+     * Deliver all notifications that are due
+     */
+    void drain();
+}
@@ -0,0 +1,132 @@
+package com.arrayindex.kids_sync_app.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs password hashing on a small dedicated pool instead of on request threads.
+ *
+ * BCrypt is deliberately CPU-heavy, so a burst of logins hashed on Tomcat threads would
+ * occupy every core and starve all other requests. Here at most
+ * {@code auth.password.hashing-threads} hashes run at once, a bounded number wait in the
+ * queue, and anything beyond that is rejected immediately with a
+ * {@link RejectedExecutionException} so the caller can answer 429.
+ */
+@Service
+@Slf4j
+public class PasswordHasher {
+
+    // $2a$10$... -> cost 10
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public PasswordHasher(
+            PasswordEncoder passwordEncoder,
+            @Value("${auth.password.bcrypt-strength:10}") int strength,
+            @Value("${auth.password.hashing-threads:0}") int threads,
+            @Value("${auth.password.queue-size:32}") int queueSize) {
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+
+        // By default leave at least half of the cores to the rest of the application
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                Thread.ofPlatform().daemon().name("password-hasher-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Hash a raw password
+     * @param rawPassword The password as entered by the user
+     * @return The encoded password
+     * @throws RejectedExecutionException If too many hashes are already queued
+     */
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Check a raw password against a stored hash
+     * @param rawPassword The password as entered by the user
+     * @param encodedPassword The stored hash
+     * @return true if the password matches
+     * @throws RejectedExecutionException If too many hashes are already queued
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * @param encodedPassword A stored hash
+     * @return true if the hash was made with a different work factor than the configured one
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    /**
+     * @return The number of hashes waiting for a thread
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return The number of hashes rejected because the queue was full
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> hashing) {
+        Future<T> result;
+        try {
+            result = executor.submit(hashing);
+        } catch (RejectedExecutionException e) {
+            long total = rejected.incrementAndGet();
+            log.warn("Password hashing queue is full, rejecting request ({} rejected so far)", total);
+            throw e;
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.arrayindex.kids_sync_app.service;
 import com.arrayindex.kids_sync_app.model.Event;
 import com.arrayindex.kids_sync_app.model.ReminderWindow;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,6 +22,19 @@ public interface ReminderService {
      */
     void cancelReminder(String eventId);
 
+    /**
+     * Update the reminders of a batch of written events in one step
+     * @param savedEvents Created or updated events to schedule reminders for
+     * @param deletedEventIds IDs of deleted events whose reminders are cancelled
+     */
+    void updateReminders(List<Event> savedEvents, Collection<String> deletedEventIds);
+
+    /**
+     * Reload all pending reminders inside the index horizon from the database,
+     * e.g. after changes to events may have been missed
+     */
+    void reloadReminderIndex();
+
     /**
      * Checks for upcoming events and sends reminders
      */
@@ -34,9 +48,30 @@ public interface ReminderService {
      */
     boolean sendEventReminder(Event event, String recipientEmail);
 
+    /**
+     * @return The number of reminders dropped from the index because their window closed before they were dispatched
+     */
+    long getMissedBeforeDispatchCount();
+
     /**
      * Get all configured reminder windows
      * @return List of reminder window configurations
      */
     List<ReminderWindow> getReminderWindows();
-} 
\ No newline at end of file
+
+    /**
+     * Get the reminder windows that apply to a user
+     * @param userId The ID (email) of the user
+     * @return The user's own reminder windows, or the default windows
+     */
+    List<ReminderWindow> getReminderWindows(String userId);
+
+    /**
+     * Replace a user's reminder windows and reschedule that user's pending reminders
+     * @param userId The ID (email) of the user
+     * @param windows The new windows, or an empty list to go back to the defaults
+     * @return The reminder windows that now apply to the user
+     * @throws IllegalArgumentException if the windows are not valid
+     */
+    List<ReminderWindow> updateReminderWindows(String userId, List<ReminderWindow> windows);
+}
@@ -0,0 +1,132 @@
+package com.arrayindex.kids_sync_app.service;
+
+import com.arrayindex.kids_sync_app.model.User;
+import com.arrayindex.kids_sync_app.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Shared, size-bounded cache of users keyed by email.
+ *
+ * All read paths that look users up by email (authentication, profile reads and
+ * reminder processing) go through this directory. Writes go to MongoDB first and are
+ * then written through with {@link #put} or {@link #evict}. Entries also expire after a
+ * configurable time so changes made by other instances are picked up.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserDirectory {
+
+    private final UserRepository userRepository;
+
+    @Value("${users.directory.cache-size:5000}")
+    private int cacheSize = 5000;
+
+    @Value("${users.directory.ttl-seconds:300}")
+    private long ttlSeconds = 300;
+
+    // Cached users by email, least recently used evicted first
+    private final Map<String, CachedUser> users = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    /**
+     * Find a user by email address
+     * @param email The email address of the user
+     * @return Optional containing the user if found
+     */
+    public Optional<User> findByEmail(String email) {
+        User cached = getCached(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<User> user = userRepository.findByEmail(email);
+        user.ifPresent(this::put);
+        return user;
+    }
+
+    /**
+     * Resolve many users at once. Cache misses are loaded with a single query.
+     * @param emails The email addresses to resolve
+     * @return The users found, keyed by email
+     */
+    public Map<String, User> findByEmails(Collection<String> emails) {
+        Map<String, User> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+
+        for (String email : emails) {
+            User cached = getCached(email);
+            if (cached != null) {
+                found.put(email, cached);
+            } else if (email != null) {
+                missing.add(email);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<User> loaded = userRepository.findByEmailIn(missing);
+            log.debug("Loaded {} of {} uncached users", loaded.size(), missing.size());
+            for (User user : loaded) {
+                put(user);
+                found.put(user.getEmail(), user);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Store the current state of a user after it has been saved
+     * @param user The saved user
+     */
+    public void put(User user) {
+        if (user.getEmail() == null) {
+            return;
+        }
+        synchronized (users) {
+            users.put(user.getEmail(), new CachedUser(user, System.currentTimeMillis() + ttlSeconds * 1000));
+        }
+    }
+
+    /**
+     * Remove a user from the cache after it has been changed or deleted
+     * @param email The email address of the user
+     */
+    public void evict(String email) {
+        synchronized (users) {
+            users.remove(email);
+        }
+    }
+
+    private User getCached(String email) {
+        synchronized (users) {
+            CachedUser cached = users.get(email);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt() < System.currentTimeMillis()) {
+                users.remove(email);
+                return null;
+            }
+            return cached.user();
+        }
+    }
+
+    private record CachedUser(User user, long expiresAt) {
+    }
+}
@@ -1,8 +1,11 @@
 package com.arrayindex.kids_sync_app.service;
 
 import com.arrayindex.kids_sync_app.dto.UserProfileUpdateRequest;
+import com.arrayindex.kids_sync_app.model.ReminderWindow;
 import com.arrayindex.kids_sync_app.model.User;
 
+import java.util.List;
+
 public interface UserService {
 
     String registerUser(User user);
@@ -10,4 +13,6 @@ public interface UserService {
     String loginUser(String email, String password);
 
     User updateProfile(String email, UserProfileUpdateRequest updateRequest);
+
+    User updateReminderWindows(String email, List<ReminderWindow> reminderWindows);
 }
\ No newline at end of file
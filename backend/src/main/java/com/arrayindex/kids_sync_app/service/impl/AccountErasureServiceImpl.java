@@ -0,0 +1,173 @@
+package com.arrayindex.kids_sync_app.service.impl;
+
+import com.arrayindex.kids_sync_app.model.ErasureJob;
+import com.arrayindex.kids_sync_app.repository.ErasureJobRepository;
+import com.arrayindex.kids_sync_app.service.AccountErasureService;
+import com.arrayindex.kids_sync_app.service.EventService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of the AccountErasureService.
+ *
+ * Jobs run on one background thread and delete the account's events in chunks, writing
+ * their progress after every chunk. A run claims its job with an atomic update that is
+ * renewed with each chunk, so several instances can share the collection; a job whose
+ * run failed or whose instance stopped becomes claimable again after the claim timeout
+ * and is resumed by the periodic poll.
+ */
+@Service
+@Slf4j
+public class AccountErasureServiceImpl implements AccountErasureService {
+
+    private final ErasureJobRepository erasureJobRepository;
+    private final EventService eventService;
+    private final MongoTemplate mongoTemplate;
+    private final int chunkSize;
+    private final long claimTimeoutSeconds;
+    private final long retentionDays;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("account-erasure").factory());
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    public AccountErasureServiceImpl(
+            ErasureJobRepository erasureJobRepository,
+            EventService eventService,
+            MongoTemplate mongoTemplate,
+            @Value("${accounts.erasure.chunk-size:1000}") int chunkSize,
+            @Value("${accounts.erasure.claim-timeout-seconds:120}") long claimTimeoutSeconds,
+            @Value("${accounts.erasure.retention-days:7}") long retentionDays) {
+        this.erasureJobRepository = erasureJobRepository;
+        this.eventService = eventService;
+        this.mongoTemplate = mongoTemplate;
+        this.chunkSize = chunkSize;
+        this.claimTimeoutSeconds = claimTimeoutSeconds;
+        this.retentionDays = retentionDays;
+    }
+
+    @Override
+    public ErasureJob requestErasure(String email) {
+        ErasureJob job = erasureJobRepository.save(
+                new ErasureJob(email, eventService.countUserEvents(email), LocalDateTime.now()));
+        log.info("Erasure job {} requested for {} with {} events", job.getId(), email, job.getEventsTotal());
+
+        // Started after commit, so the run can see the job
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    start();
+                }
+            });
+        } else {
+            start();
+        }
+        return job;
+    }
+
+    @Override
+    public Optional<ErasureJob> getJob(String id) {
+        return erasureJobRepository.findById(id);
+    }
+
+    @Override
+    public boolean isErasing(String email) {
+        return erasureJobRepository.existsByEmailAndStatusNot(email, ErasureJob.Status.DONE);
+    }
+
+    @Scheduled(fixedDelayString = "${accounts.erasure.poll-interval-ms:10000}")
+    public void resume() {
+        start();
+    }
+
+    @Override
+    public void drain() {
+        ErasureJob job;
+        while (!Thread.currentThread().isInterrupted() && (job = claim(LocalDateTime.now())) != null) {
+            run(job);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // An interrupted job is resumed once its claim runs out
+        executor.shutdownNow();
+    }
+
+    private void start() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                drain();
+            } catch (RuntimeException e) {
+                log.error("Erasure jobs could not be claimed: {}", e.getMessage(), e);
+            } finally {
+                draining.set(false);
+            }
+        });
+    }
+
+    private ErasureJob claim(LocalDateTime now) {
+        Query query = Query.query(Criteria.where("status").ne(ErasureJob.Status.DONE)
+                .and("claimedUntil").lte(now));
+        Update update = new Update()
+                .set("status", ErasureJob.Status.RUNNING)
+                .set("claimedUntil", now.plusSeconds(claimTimeoutSeconds))
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), ErasureJob.class);
+    }
+
+    private void run(ErasureJob job) {
+        log.info("Erasing events of {} (job {}, {} of {} done)",
+                job.getEmail(), job.getId(), job.getEventsDeleted(), job.getEventsTotal());
+        try {
+            int deleted;
+            while ((deleted = eventService.deleteUserEvents(job.getEmail(), chunkSize)) > 0) {
+                LocalDateTime now = LocalDateTime.now();
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())), new Update()
+                        .inc("eventsDeleted", deleted)
+                        .set("claimedUntil", now.plusSeconds(claimTimeoutSeconds))
+                        .set("updatedAt", now), ErasureJob.class);
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())), new Update()
+                    .set("status", ErasureJob.Status.DONE)
+                    .set("updatedAt", now)
+                    .set("completedAt", now)
+                    .set("expiresAt", now.plusDays(retentionDays))
+                    .unset("claimedUntil")
+                    .unset("lastError"), ErasureJob.class);
+            log.info("Erasure job {} for {} completed", job.getId(), job.getEmail());
+        } catch (RuntimeException e) {
+            // Left claimed; the job is resumed when the claim runs out
+            log.error("Erasure job {} for {} stopped: {}", job.getId(), job.getEmail(), e.getMessage(), e);
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())),
+                    new Update().set("lastError", e.getMessage()), ErasureJob.class);
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.arrayindex.kids_sync_app.service.impl;
 
+import com.arrayindex.kids_sync_app.mail.SmtpDeliveryEngine;
 import com.arrayindex.kids_sync_app.model.Event;
 import com.arrayindex.kids_sync_app.service.EmailService;
+import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
@@ -20,13 +27,23 @@ public class EmailServiceImpl implements EmailService {
     private final String fromEmail;
     private final boolean isTestMode;
     private final String testEmail;
+    private final SmtpDeliveryEngine deliveryEngine;
+
+    // Send over pooled SMTP connections instead of one connection per message
+    @Value("${mail.pool.enabled:true}")
+    private boolean pooledDelivery = true;
+
+    @Value("${mail.pool.send-timeout-ms:30000}")
+    private long sendTimeoutMillis = 30000;
 
     public EmailServiceImpl(
             JavaMailSender mailSender,
+            SmtpDeliveryEngine deliveryEngine,
             @Value("${spring.mail.username}") String fromEmail,
             @Value("${spring.profiles.active:prod}") String activeProfile,
             @Value("${resend.test.email:test@example.com}") String testEmail) {
         this.mailSender = mailSender;
+        this.deliveryEngine = deliveryEngine;
         this.fromEmail = fromEmail;
         this.isTestMode = "dev".equals(activeProfile) || "test".equals(activeProfile);
         this.testEmail = testEmail;
@@ -48,6 +65,24 @@ public class EmailServiceImpl implements EmailService {
         return sendEmail(recipientEmail, subject, content);
     }
 
+    @Override
+    public boolean sendReminderDigest(List<Event> events, String recipientEmail) {
+        if (events.size() == 1) {
+            return sendEventReminder(events.get(0), recipientEmail);
+        }
+
+        log.info("Sending reminder digest with {} events to: {}", events.size(), recipientEmail);
+        String subject = "Reminder: " + events.size() + " upcoming events";
+        StringBuilder content = new StringBuilder();
+        for (Event event : events) {
+            if (content.length() > 0) {
+                content.append("\n\n----------------------------------------\n\n");
+            }
+            content.append(formatEventReminderMessage(event));
+        }
+        return sendEmail(recipientEmail, subject, content.toString());
+    }
+
     @Override
     public boolean sendEmail(String to, String subject, String message) {
         try {
@@ -61,19 +96,42 @@ public class EmailServiceImpl implements EmailService {
             log.info("Attempting to send email to: {}", actualRecipient);
             log.info("Subject: {}, Message length: {}", subject, message.length());
 
-            SimpleMailMessage mailMessage = new SimpleMailMessage();
-            mailMessage.setFrom(fromEmail);
-            mailMessage.setTo(actualRecipient);
-            mailMessage.setSubject(subject);
-            
             // Add original recipient info only in test mode
-            if (isTestMode) {
-                mailMessage.setText(message + "\n\nOriginal recipient: " + to);
+            String text = isTestMode ? message + "\n\nOriginal recipient: " + to : message;
+
+            if (pooledDelivery) {
+                MimeMessage mimeMessage = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(mimeMessage);
+                helper.setFrom(fromEmail);
+                helper.setTo(actualRecipient);
+                helper.setSubject(subject);
+                helper.setText(text);
+
+                CompletableFuture<Boolean> delivery = deliveryEngine.submit(mimeMessage);
+                boolean sent;
+                try {
+                    sent = delivery.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Withdraw the message so it is not sent later on top of the caller's retry
+                    if (delivery.cancel(false)) {
+                        log.error("Failed to send email to {}: not sent within {} ms", to, sendTimeoutMillis);
+                        return false;
+                    }
+                    sent = delivery.join();
+                }
+                if (!sent) {
+                    log.error("Failed to send email to {}: SMTP delivery failed", to);
+                    return false;
+                }
             } else {
-                mailMessage.setText(message);
-            }
+                SimpleMailMessage mailMessage = new SimpleMailMessage();
+                mailMessage.setFrom(fromEmail);
+                mailMessage.setTo(actualRecipient);
+                mailMessage.setSubject(subject);
+                mailMessage.setText(text);
 
-            mailSender.send(mailMessage);
+                mailSender.send(mailMessage);
+            }
             
             if (isTestMode) {
                 log.info("Email sent successfully to: {} (redirected from {})", actualRecipient, to);
@@ -1,57 +1,309 @@
 package com.arrayindex.kids_sync_app.service.impl;
 
+import com.arrayindex.kids_sync_app.dto.EventBatchOperation;
+import com.arrayindex.kids_sync_app.dto.EventBatchResult;
+import com.arrayindex.kids_sync_app.dto.EventCursor;
+import com.arrayindex.kids_sync_app.dto.EventPage;
 import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.OutboxMessage;
+import com.arrayindex.kids_sync_app.recurrence.OccurrenceMaterializer;
+import com.arrayindex.kids_sync_app.recurrence.Occurrences;
+import com.arrayindex.kids_sync_app.recurrence.Recurrence;
 import com.arrayindex.kids_sync_app.repository.EventRepository;
 import com.arrayindex.kids_sync_app.service.EventService;
+import com.arrayindex.kids_sync_app.service.OutboxService;
 import com.arrayindex.kids_sync_app.service.ReminderService;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class EventServiceImpl implements EventService {
 
     private final EventRepository eventRepository;
     private final ReminderService reminderService;
+    private final OutboxService outboxService;
+    private final OccurrenceMaterializer occurrenceMaterializer;
+    private final MongoTemplate mongoTemplate;
     private static final Logger log = LoggerFactory.getLogger(EventServiceImpl.class);
 
+    // How far ahead recurring events are expanded for the upcoming events list
+    @Value("${events.upcoming.recurrence-horizon-days:30}")
+    private long upcomingHorizonDays = 30;
+
+    // Default and largest page size of the upcoming events list
+    @Value("${events.upcoming.limit:50}")
+    private int upcomingLimit = 50;
+
+    @Value("${events.upcoming.max-limit:200}")
+    private int upcomingMaxLimit = 200;
+
+    // Largest page size of the paged events list
+    @Value("${events.page.max-limit:500}")
+    private int pageMaxLimit = 500;
+
+    // Most operations accepted in one batch request
+    @Value("${events.batch.max-size:1000}")
+    private int batchMaxSize = 1000;
+
+    // Events removed per delete when erasing a user's events
+    @Value("${accounts.erasure.chunk-size:1000}")
+    private int deleteChunkSize = 1000;
+
+    private static final Sort PAGE_ORDER = Sort.by(Sort.Order.asc("dateTime"), Sort.Order.asc("id"));
+
     @Autowired
-    public EventServiceImpl(EventRepository eventRepository, ReminderService reminderService) {
+    public EventServiceImpl(EventRepository eventRepository, ReminderService reminderService, OutboxService outboxService,
+                            OccurrenceMaterializer occurrenceMaterializer, MongoTemplate mongoTemplate) {
         this.eventRepository = eventRepository;
         this.reminderService = reminderService;
+        this.outboxService = outboxService;
+        this.occurrenceMaterializer = occurrenceMaterializer;
+        this.mongoTemplate = mongoTemplate;
     }
 
     @Override
+    @Transactional
     public Event createEvent(Event event) {
+        event.setRecurrence(Recurrence.normalize(event.getRecurrence()));
         Event savedEvent = eventRepository.save(event);
-        // Schedule a reminder for the new event
+        // Record the notification in the same transaction; the outbox drainer sends it
+        outboxService.enqueueEventNotification(savedEvent);
+        occurrenceMaterializer.rebuildSeries(savedEvent);
+        // Schedule the windowed reminders for the new event
         reminderService.scheduleReminder(savedEvent);
         return savedEvent;
     }
 
+    @Override
+    public List<EventBatchResult> applyBatch(String userId, List<EventBatchOperation> operations) {
+        if (operations.size() > batchMaxSize) {
+            throw new IllegalArgumentException("A batch may contain at most " + batchMaxSize + " operations");
+        }
+
+        EventBatchResult[] results = new EventBatchResult[operations.size()];
+        Set<String> owned = findOwnedEventIds(userId, operations);
+        Set<String> seen = new HashSet<>();
+
+        // Position in the batch of each operation added to the bulk write, and its saved event if any
+        List<Integer> bulkIndexes = new ArrayList<>();
+        List<Event> bulkEvents = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Event.class);
+
+        for (int i = 0; i < operations.size(); i++) {
+            EventBatchOperation operation = operations.get(i);
+            EventBatchOperation.Type type = operation.getType();
+            Event event = operation.getEvent();
+            String id = operation.getId();
+
+            if (type == null) {
+                results[i] = failed(i, id, "Missing operation type");
+                continue;
+            }
+            if (type != EventBatchOperation.Type.DELETE && event == null) {
+                results[i] = failed(i, id, "Missing event");
+                continue;
+            }
+
+            if (event != null) {
+                event.setRecurrence(Recurrence.normalize(event.getRecurrence()));
+            }
+
+            if (type == EventBatchOperation.Type.CREATE) {
+                // IDs are assigned here so the results can name the created events
+                event.setId(new ObjectId().toHexString());
+                event.setUserId(userId);
+                bulk.insert(event);
+            } else if (id == null || !owned.contains(id)) {
+                results[i] = new EventBatchResult(i, id, EventBatchResult.Status.NOT_FOUND, null);
+                continue;
+            } else if (!seen.add(id)) {
+                // Unordered writes to the same event could be applied in any order
+                results[i] = failed(i, id, "Event appears more than once in the batch");
+                continue;
+            } else if (type == EventBatchOperation.Type.UPDATE) {
+                event.setId(id);
+                event.setUserId(userId);
+                bulk.replaceOne(Query.query(Criteria.where("_id").is(id)), event);
+            } else {
+                bulk.remove(Query.query(Criteria.where("_id").is(id)));
+            }
+            bulkIndexes.add(i);
+            bulkEvents.add(type == EventBatchOperation.Type.DELETE ? null : event);
+        }
+
+        // Notifications are recorded before the write, so a crash after it cannot lose them
+        List<Event> writtenEvents = bulkEvents.stream().filter(Objects::nonNull).toList();
+        List<OutboxMessage> notifications = writtenEvents.isEmpty()
+                ? List.of() : outboxService.holdEventNotifications(writtenEvents);
+
+        Set<Integer> failedWrites = new HashSet<>();
+        if (!bulkIndexes.isEmpty()) {
+            try {
+                bulk.execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    int index = bulkIndexes.get(error.getIndex());
+                    failedWrites.add(error.getIndex());
+                    results[index] = failed(index, operations.get(index).getId(), error.getMessage());
+                }
+            } catch (RuntimeException e) {
+                // Nothing is known about which writes were applied, so none of them is notified
+                if (!notifications.isEmpty()) {
+                    try {
+                        outboxService.releaseEventNotifications(List.of(), notifications);
+                    } catch (RuntimeException cancelFailure) {
+                        e.addSuppressed(cancelFailure);
+                    }
+                }
+                throw e;
+            }
+        }
+
+        List<Event> savedEvents = new ArrayList<>();
+        List<String> deletedEventIds = new ArrayList<>();
+        List<OutboxMessage> releasedNotifications = new ArrayList<>();
+        List<OutboxMessage> cancelledNotifications = new ArrayList<>();
+        int notification = 0;
+        for (int write = 0; write < bulkIndexes.size(); write++) {
+            int index = bulkIndexes.get(write);
+            Event saved = bulkEvents.get(write);
+            if (failedWrites.contains(write)) {
+                if (saved != null) {
+                    cancelledNotifications.add(notifications.get(notification++));
+                }
+                continue;
+            }
+            if (saved == null) {
+                String id = operations.get(index).getId();
+                deletedEventIds.add(id);
+                results[index] = new EventBatchResult(index, id, EventBatchResult.Status.DELETED, null);
+            } else {
+                savedEvents.add(saved);
+                releasedNotifications.add(notifications.get(notification++));
+                results[index] = new EventBatchResult(index, saved.getId(),
+                        operations.get(index).getType() == EventBatchOperation.Type.CREATE
+                                ? EventBatchResult.Status.CREATED : EventBatchResult.Status.UPDATED, null);
+            }
+        }
+
+        // Follow-up writes and the reminder index are updated once for the whole batch
+        if (!notifications.isEmpty()) {
+            outboxService.releaseEventNotifications(releasedNotifications, cancelledNotifications);
+        }
+        if (!savedEvents.isEmpty() || !deletedEventIds.isEmpty()) {
+            occurrenceMaterializer.rebuildSeries(savedEvents, deletedEventIds);
+            reminderService.updateReminders(savedEvents, deletedEventIds);
+        }
+
+        log.info("Applied batch of {} operations for user {}: {} saved, {} deleted",
+                operations.size(), userId, savedEvents.size(), deletedEventIds.size());
+        return List.of(results);
+    }
+
+    /**
+     * Find which of the events a batch updates or deletes exist and belong to the user, with one query
+     */
+    private Set<String> findOwnedEventIds(String userId, List<EventBatchOperation> operations) {
+        List<String> ids = operations.stream()
+                .filter(operation -> operation.getType() == EventBatchOperation.Type.UPDATE
+                        || operation.getType() == EventBatchOperation.Type.DELETE)
+                .map(EventBatchOperation::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+
+        Query query = Query.query(Criteria.where("userId").is(userId).and("_id").in(ids));
+        query.fields().include("_id");
+        Set<String> owned = new HashSet<>();
+        for (Event event : mongoTemplate.find(query, Event.class)) {
+            owned.add(event.getId());
+        }
+        return owned;
+    }
+
+    private static EventBatchResult failed(int index, String id, String error) {
+        return new EventBatchResult(index, id, EventBatchResult.Status.FAILED, error);
+    }
+
     @Override
     public List<Event> getEventsByUserId(String userId) {
         return eventRepository.findByUserId(userId);
     }
 
+    @Override
+    public EventPage getEventPage(String userId, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, pageMaxLimit));
+        // One extra event tells whether there is a next page
+        PageRequest page = PageRequest.of(0, size + 1, PAGE_ORDER);
+
+        List<Event> events;
+        if (cursor == null || cursor.isEmpty()) {
+            events = eventRepository.findByUserId(userId, page);
+        } else {
+            EventCursor after = EventCursor.decode(cursor);
+            // Generated IDs are stored as ObjectIds and must be compared as such
+            Object id = ObjectId.isValid(after.id()) ? new ObjectId(after.id()) : after.id();
+            events = eventRepository.findByUserIdAfter(userId, after.dateTime(), id, page);
+        }
+
+        if (events.size() <= size) {
+            return new EventPage(events, null);
+        }
+        List<Event> pageEvents = new ArrayList<>(events.subList(0, size));
+        return new EventPage(pageEvents, EventCursor.after(pageEvents.get(size - 1)).encode());
+    }
+
+    @Override
+    public Stream<Event> streamEventsByUserId(String userId) {
+        return eventRepository.streamByUserIdOrderByDateTimeAscIdAsc(userId);
+    }
+
     @Override
     public Optional<Event> getEventById(String id) {
         return eventRepository.findById(id);
     }
 
     @Override
+    @Transactional
     public Event updateEvent(String id, Event event) {
         if (!eventRepository.existsById(id)) {
             throw new IllegalArgumentException("Event not found with id: " + id);
         }
         
         event.setId(id);
+        event.setRecurrence(Recurrence.normalize(event.getRecurrence()));
         Event updatedEvent = eventRepository.save(event);
+        outboxService.enqueueEventNotification(updatedEvent);
+
+        // Only this event's stored occurrences change, e.g. when its recurrence rule was edited
+        occurrenceMaterializer.rebuildSeries(updatedEvent);
         
         // Update the reminder for the event
         reminderService.cancelReminder(id);
@@ -70,60 +322,92 @@ public class EventServiceImpl implements EventService {
         reminderService.cancelReminder(id);
         
         eventRepository.deleteById(id);
+        occurrenceMaterializer.removeSeries(id);
     }
 
     @Override
     public List<Event> getUpcomingEvents(String userId) {
+        return getUpcomingEvents(userId, upcomingLimit);
+    }
+
+    @Override
+    public List<Event> getUpcomingEvents(String userId, int limit) {
         LocalDateTime now = LocalDateTime.now();
-        log.info("Finding upcoming events for user: {} after: {}", userId, now);
-        
-        // Get all events for the user
-        List<Event> allEvents = eventRepository.findByUserId(userId);
-        log.info("Found {} total events for user: {}", allEvents.size(), userId);
-        
-        // Filter events that are in the future
-        List<Event> upcomingEvents = allEvents.stream()
-                .filter(event -> event.getDateTime().isAfter(now))
-                .collect(java.util.stream.Collectors.toList());
-        
-        log.info("Found {} upcoming events for user: {}", upcomingEvents.size(), userId);
-        
-        // Log each event for debugging
-        for (Event event : upcomingEvents) {
-            log.info("Upcoming event: id={}, name={}, dateTime={}, userId={}", 
-                    event.getId(), event.getName(), event.getDateTime(), event.getUserId());
+        LocalDateTime horizon = now.plusDays(upcomingHorizonDays);
+        int size = Math.max(1, Math.min(limit, upcomingMaxLimit));
+
+        // Only the next page of one-off events is read, in index order, not the user's whole history
+        List<Event> upcomingEvents = new ArrayList<>(eventRepository.findOneOffByUserIdAfter(
+                userId, now, PageRequest.of(0, size, Sort.by(Sort.Direction.ASC, "dateTime"))));
+
+        // A full page ends at its last one-off, so no later occurrence can make it into the page;
+        // otherwise the recurring events contribute their occurrences within the upcoming horizon
+        LocalDateTime seriesEnd = upcomingEvents.size() == size
+                ? upcomingEvents.get(size - 1).getDateTime()
+                : horizon;
+        for (Event series : eventRepository.findRecurringByUserIdActiveBetween(userId, now, seriesEnd)) {
+            upcomingEvents.addAll(Occurrences.expand(series, now, seriesEnd, size));
         }
-        
+        upcomingEvents.sort(Comparator.comparing(Event::getDateTime));
+
+        if (upcomingEvents.size() > size) {
+            upcomingEvents = new ArrayList<>(upcomingEvents.subList(0, size));
+        }
+        log.debug("Found {} upcoming events for user: {}", upcomingEvents.size(), userId);
         return upcomingEvents;
     }
 
     @Override
     public List<Event> getEventsByDateRange(String userId, LocalDateTime start, LocalDateTime end) {
         log.info("Finding events for user: {} between: {} and: {}", userId, start, end);
-        List<Event> events = eventRepository.findByUserIdAndDateTimeBetweenOrderByDateTimeAsc(userId, start, end);
-        log.info("Found {} events for user: {} in date range", events.size(), userId);
-        
-        // Log each event for debugging
-        for (Event event : events) {
-            log.info("Event in range: id={}, name={}, dateTime={}, userId={}", 
-                    event.getId(), event.getName(), event.getDateTime(), event.getUserId());
+        if (occurrenceMaterializer.covers(start, end)) {
+            // One indexed lookup on the materialized occurrences
+            List<Event> events = occurrenceMaterializer.findByUserIdBetween(userId, start, end);
+            log.info("Found {} events for user: {} in date range", events.size(), userId);
+            return events;
         }
-        
+
+        List<Event> events = eventRepository.findByUserIdAndDateTimeBetweenOrderByDateTimeAsc(userId, start, end)
+                .stream()
+                .filter(event -> !Occurrences.isRecurring(event))
+                .collect(Collectors.toList());
+
+        // Recurring series are expanded into their occurrences inside the range
+        events.addAll(Occurrences.expandAll(
+                eventRepository.findRecurringByUserIdActiveBetween(userId, start, end), start, end));
+        events.sort(Comparator.comparing(Event::getDateTime));
+        log.info("Found {} events for user: {} in date range", events.size(), userId);
         return events;
     }
 
     @Override
-    public void deleteAllUserEvents(String userId) {
-        log.info("Deleting all events for user: {}", userId);
-        List<Event> userEvents = eventRepository.findByUserId(userId);
-        
-        for (Event event : userEvents) {
-            // Cancel any existing reminders
-            reminderService.cancelReminder(event.getId());
-            // Delete the event
-            eventRepository.delete(event);
+    public int deleteUserEvents(String userId, int limit) {
+        List<String> eventIds = eventRepository.findIdsByUserId(userId, PageRequest.of(0, limit)).stream()
+                .map(Event::getId)
+                .toList();
+        if (eventIds.isEmpty()) {
+            return 0;
         }
-        
-        log.info("Deleted {} events for user: {}", userEvents.size(), userId);
+
+        reminderService.updateReminders(List.of(), eventIds);
+        eventRepository.deleteByIdIn(eventIds);
+        occurrenceMaterializer.removeSeries(eventIds);
+        return eventIds.size();
+    }
+
+    @Override
+    public long countUserEvents(String userId) {
+        return eventRepository.countByUserId(userId);
+    }
+
+    @Override
+    public long deleteAllUserEvents(String userId) {
+        long deleted = 0;
+        int chunk;
+        while ((chunk = deleteUserEvents(userId, deleteChunkSize)) > 0) {
+            deleted += chunk;
+        }
+        log.info("Deleted {} events for user: {}", deleted, userId);
+        return deleted;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,257 @@
+package com.arrayindex.kids_sync_app.service.impl;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.OutboxMessage;
+import com.arrayindex.kids_sync_app.model.User;
+import com.arrayindex.kids_sync_app.repository.EventRepository;
+import com.arrayindex.kids_sync_app.repository.OutboxRepository;
+import com.arrayindex.kids_sync_app.service.OutboxService;
+import com.arrayindex.kids_sync_app.service.ReminderService;
+import com.arrayindex.kids_sync_app.service.UserDirectory;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Implementation of the OutboxService.
+ *
+ * The drainer claims each due message with an atomic update that pushes its next attempt
+ * time out by the claim timeout, so several instances can drain the same collection and a
+ * crashed attempt is retried automatically. Failed deliveries back off exponentially and
+ * move to DEAD after the configured number of attempts.
+ *
+ * Deliveries run on their own executor and the drainer waits for them only up to the
+ * delivery timeout, which is shorter than the claim timeout, so a slow mail server neither
+ * holds a scheduler thread nor outlives its claim. An attempt is finished with an update
+ * conditional on its claim, so it cannot overwrite a later attempt by another drainer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxServiceImpl implements OutboxService {
+
+    private final OutboxRepository outboxRepository;
+    private final EventRepository eventRepository;
+    private final UserDirectory userDirectory;
+    private final ReminderService reminderService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${outbox.max-attempts:6}")
+    private int maxAttempts = 6;
+
+    @Value("${outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds = 30;
+
+    @Value("${outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds = 3600;
+
+    @Value("${outbox.claim-timeout-seconds:120}")
+    private long claimTimeoutSeconds = 120;
+
+    @Value("${outbox.delivery-timeout-seconds:60}")
+    private long deliveryTimeoutSeconds = 60;
+
+    private final ExecutorService deliveries = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Override
+    public OutboxMessage enqueueEventNotification(Event event) {
+        return outboxRepository.save(new OutboxMessage(event.getId(), event.getUserId(), LocalDateTime.now()));
+    }
+
+    @Override
+    public List<OutboxMessage> holdEventNotifications(List<Event> events) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxRepository.saveAll(events.stream()
+                .map(event -> {
+                    OutboxMessage message = new OutboxMessage(event.getId(), event.getUserId(), now);
+                    // Held like a claimed message, so a crashed batch is picked up after the timeout
+                    message.setNextAttemptAt(now.plusSeconds(claimTimeoutSeconds));
+                    return message;
+                })
+                .toList());
+    }
+
+    @Override
+    public void releaseEventNotifications(List<OutboxMessage> written, List<OutboxMessage> notWritten) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!written.isEmpty()) {
+            mongoTemplate.updateMulti(pending(written), new Update().set("nextAttemptAt", now), OutboxMessage.class);
+        }
+        if (!notWritten.isEmpty()) {
+            mongoTemplate.updateMulti(pending(notWritten),
+                    new Update().set("status", OutboxMessage.Status.CANCELLED).set("completedAt", now),
+                    OutboxMessage.class);
+        }
+    }
+
+    private static Query pending(List<OutboxMessage> messages) {
+        return Query.query(Criteria.where("_id").in(messages.stream().map(OutboxMessage::getId).toList())
+                .and("status").is(OutboxMessage.Status.PENDING));
+    }
+
+    @Override
+    public Optional<OutboxMessage> getNotificationStatus(String eventId) {
+        return outboxRepository.findFirstByEventIdOrderByCreatedAtDesc(eventId);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${outbox.drain-interval-ms:5000}")
+    public void drain() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> due = outboxRepository
+                .findTop50ByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(OutboxMessage.Status.PENDING, now);
+        if (due.isEmpty()) {
+            return;
+        }
+
+        log.debug("Draining {} outbox messages", due.size());
+
+        Map<OutboxMessage, Future<?>> inFlight = new LinkedHashMap<>();
+        for (OutboxMessage message : due) {
+            LocalDateTime claimedAt = LocalDateTime.now();
+            OutboxMessage claimed = claim(message, claimedAt);
+            if (claimed != null) {
+                inFlight.put(claimed, deliveries.submit(() -> deliver(claimed, claimedAt)));
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(deliveryTimeoutSeconds);
+        for (Map.Entry<OutboxMessage, Future<?>> delivery : inFlight.entrySet()) {
+            try {
+                delivery.getValue().get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // The claim runs out later and the message is retried then
+                delivery.getValue().cancel(true);
+                log.warn("Outbox message {} was not delivered within {} seconds", delivery.getKey().getId(),
+                        deliveryTimeoutSeconds);
+            } catch (ExecutionException e) {
+                log.error("Failed to deliver outbox message {}", delivery.getKey().getId(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveries.shutdownNow();
+    }
+
+    /**
+     * Take ownership of a message for one attempt
+     *
+     * @param message The message to claim
+     * @param now The current time
+     * @return The claimed message, or null if another drainer got it first
+     */
+    private OutboxMessage claim(OutboxMessage message, LocalDateTime now) {
+        Query query = Query.query(Criteria.where("_id").is(message.getId())
+                .and("status").is(OutboxMessage.Status.PENDING)
+                .and("nextAttemptAt").lte(now));
+        Update update = new Update()
+                .set("nextAttemptAt", now.plusSeconds(claimTimeoutSeconds))
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), OutboxMessage.class);
+    }
+
+    private void deliver(OutboxMessage message, LocalDateTime now) {
+        try {
+            Optional<Event> event = eventRepository.findById(message.getEventId());
+            if (event.isEmpty()) {
+                log.info("Event {} no longer exists, cancelling notification {}", message.getEventId(), message.getId());
+                complete(message, OutboxMessage.Status.CANCELLED, now);
+                return;
+            }
+
+            Optional<User> user = userDirectory.findByEmail(message.getUserId());
+            if (user.isEmpty()) {
+                fail(message, "User not found: " + message.getUserId(), now);
+                return;
+            }
+
+            if (reminderService.sendEventReminder(event.get(), user.get().getEmail())) {
+                complete(message, OutboxMessage.Status.SENT, now);
+            } else {
+                fail(message, "Email delivery failed", now);
+            }
+        } catch (Exception e) {
+            log.error("Failed to deliver outbox message {}", message.getId(), e);
+            fail(message, e.getMessage(), now);
+        }
+    }
+
+    private void complete(OutboxMessage message, OutboxMessage.Status status, LocalDateTime now) {
+        finish(message, new Update()
+                .set("status", status)
+                .set("completedAt", now)
+                .unset("lastError"));
+    }
+
+    private void fail(OutboxMessage message, String error, LocalDateTime now) {
+        Update update = new Update().set("lastError", error);
+
+        if (message.getAttempts() >= maxAttempts) {
+            log.warn("Outbox message {} moved to dead letter after {} attempts: {}",
+                    message.getId(), message.getAttempts(), error);
+            update.set("status", OutboxMessage.Status.DEAD);
+        } else {
+            LocalDateTime nextAttemptAt = now.plusSeconds(backoffSeconds(message.getAttempts()));
+            update.set("nextAttemptAt", nextAttemptAt);
+            log.info("Outbox message {} attempt {} failed, retrying at {}",
+                    message.getId(), message.getAttempts(), nextAttemptAt);
+        }
+
+        finish(message, update);
+    }
+
+    /**
+     * Record the outcome of an attempt, unless the claim expired and the message was claimed again
+     *
+     * @param message The message as it was claimed
+     * @param update The outcome to record
+     */
+    private void finish(OutboxMessage message, Update update) {
+        Query query = Query.query(Criteria.where("_id").is(message.getId())
+                .and("status").is(OutboxMessage.Status.PENDING)
+                .and("nextAttemptAt").is(message.getNextAttemptAt())
+                .and("attempts").is(message.getAttempts()));
+        UpdateResult result = mongoTemplate.updateFirst(query, update, OutboxMessage.class);
+        if (result.getMatchedCount() == 0) {
+            log.warn("Outbox message {} was claimed again before attempt {} finished", message.getId(),
+                    message.getAttempts());
+        }
+    }
+
+    /**
+     * Exponential backoff: initial, 2x, 4x, ... capped at the maximum
+     * @param attempts The number of attempts made so far
+     * @return Seconds to wait before the next attempt
+     */
+    long backoffSeconds(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(initialBackoffSeconds << exponent, maxBackoffSeconds);
+    }
+}
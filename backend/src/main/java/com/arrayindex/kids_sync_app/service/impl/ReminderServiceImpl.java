@@ -1,23 +1,51 @@
 package com.arrayindex.kids_sync_app.service.impl;
 
+import com.arrayindex.kids_sync_app.mail.OutboundMailQueue;
 import com.arrayindex.kids_sync_app.model.Event;
 import com.arrayindex.kids_sync_app.model.ReminderWindow;
 import com.arrayindex.kids_sync_app.model.User;
+import com.arrayindex.kids_sync_app.notification.Notification;
+import com.arrayindex.kids_sync_app.notification.NotificationFanout;
+import com.arrayindex.kids_sync_app.recurrence.OccurrenceMaterializer;
+import com.arrayindex.kids_sync_app.recurrence.Occurrences;
+import com.arrayindex.kids_sync_app.reminder.PartitionLeaseManager;
+import com.arrayindex.kids_sync_app.reminder.PendingReminder;
+import com.arrayindex.kids_sync_app.reminder.ReminderDispatcher;
+import com.arrayindex.kids_sync_app.reminder.ReminderIndex;
+import com.arrayindex.kids_sync_app.reminder.ReminderLedger;
+import com.arrayindex.kids_sync_app.reminder.ReminderSchedule;
+import com.arrayindex.kids_sync_app.reminder.ReminderSnapshot;
+import com.arrayindex.kids_sync_app.reminder.ReminderSnapshotStore;
 import com.arrayindex.kids_sync_app.repository.EventRepository;
-import com.arrayindex.kids_sync_app.repository.UserRepository;
 import com.arrayindex.kids_sync_app.service.EmailService;
 import com.arrayindex.kids_sync_app.service.ReminderService;
+import com.arrayindex.kids_sync_app.service.UserDirectory;
+import com.arrayindex.kids_sync_app.service.UserService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the ReminderService for managing event reminders.
@@ -26,32 +54,83 @@ import java.util.Comparator;
  * 1. Scheduling reminders for events
  * 2. Sending reminders at appropriate times before events
  * 3. Managing reminder windows (time periods before an event when reminders should be sent)
- * 4. Tracking which reminders have been sent
+ * 4. Tracking which reminders have been sent (through the durable {@link ReminderLedger})
  * 
- * The implementation uses a scheduled task that runs every minute to check for events
- * that need reminders based on configurable time windows.
+ * Pending reminders are kept in a {@link ReminderIndex} ordered by fire time. The index
+ * is loaded from MongoDB once at startup, kept up to date through
+ * {@link #scheduleReminder} and {@link #cancelReminder}, and its horizon is extended
+ * periodically with a small slice query. The scheduled tick only takes the reminders
+ * that are due from the head of the index and never scans the database. The index only
+ * keeps event IDs and times, so the events of the due reminders are loaded by ID with one
+ * query per tick; the due reminders are then sent concurrently by the {@link ReminderDispatcher}. Each
+ * reminder is fanned out to all of the user's channels by the {@link NotificationFanout}; email goes
+ * through the rate-limited {@link OutboundMailQueue} so urgent windows get the sending quota first.
+ * The dispatcher sends short-lead windows in their own lane with reserved capacity, and
+ * drops (and counts as missed) reminders that could only be sent after their window closed.
+ * Recurring events are expanded into their occurrences inside the horizon, and each
+ * occurrence is reminded separately. Users can replace the default reminder windows
+ * with their own; every window set is compiled once into a {@link ReminderSchedule} of
+ * integer minute offsets.
+ * Users who enable digest mode receive all reminders due to them in a tick as one message.
+ *
+ * When several instances run, every instance keeps the full index but only sends the
+ * reminders of users in the partitions it holds a lease on (see {@link PartitionLeaseManager});
+ * the others are put back and picked up again if the partition moves to this instance.
+ * Changes to events made elsewhere (other instances, scripts) reach the index through the
+ * events change stream (see {@link com.arrayindex.kids_sync_app.reminder.EventChangeListener}),
+ * with an occasional full reload as a safety net.
+ *
+ * The pending reminders and recently sent keys are written to a local snapshot periodically
+ * and on shutdown. On startup the snapshot is restored and only the event changes made since
+ * it was taken are replayed from the change stream, instead of reloading the whole horizon.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReminderServiceImpl implements ReminderService {
 
+    private static final int MAX_COMPILED_SCHEDULES = 1000;
+
     private final EventRepository eventRepository;
-    private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
     private final EmailService emailService;
-    private final ConcurrentHashMap<String, Boolean> scheduledReminders = new ConcurrentHashMap<>();
-
-    // Track which reminders have been sent
-    private final ConcurrentHashMap<String, Boolean> sentReminders = new ConcurrentHashMap<>();
-
-    // Configurable reminder windows
+    private final ReminderLedger reminderLedger;
+    private final ReminderDispatcher reminderDispatcher;
+    private final OutboundMailQueue outboundMailQueue;
+    private final OccurrenceMaterializer occurrenceMaterializer;
+    private final UserService userService;
+    private final PartitionLeaseManager partitionLeaseManager;
+    private final ReminderSnapshotStore reminderSnapshotStore;
+    private final NotificationFanout notificationFanout;
+
+    // Pending reminders ordered by the time they become due
+    private final ReminderIndex reminderIndex = new ReminderIndex();
+
+    // Events up to this time are held in the reminder index
+    private volatile LocalDateTime indexHorizonEnd;
+
+    // How far past the longest reminder window the index reaches, so refreshes can run hourly
+    @Value("${reminders.index.lookahead-hours:2}")
+    private long indexLookaheadHours = 2;
+
+    // Longest lead time a user may give one of their reminder windows
+    @Value("${reminders.windows.max-lead-hours:24}")
+    private int maxLeadHours = 24;
+
+    // Default reminder windows, used for users who have not configured their own
     private final List<ReminderWindow> reminderWindows = new ArrayList<>();
 
+    // Compiled per-user window sets; users with the same windows share one entry
+    private final Map<List<ReminderWindow>, ReminderSchedule> compiledSchedules = new ConcurrentHashMap<>();
+
     // Constructor block to initialize reminder windows
     {
         initializeReminderWindows();
     }
 
+    // The default windows compiled into minute offsets
+    private final ReminderSchedule defaultSchedule = ReminderSchedule.compile(reminderWindows, Integer.MAX_VALUE);
+
     /**
      * Initialize the reminder windows with predefined values
      */
@@ -68,130 +147,583 @@ public class ReminderServiceImpl implements ReminderService {
         reminderWindows.sort(Comparator.comparingDouble(ReminderWindow::getMaxDuration).reversed());
     }
 
+    @Override
+    public void scheduleReminder(Event event) {
+        // The immediate notification goes through the outbox; only the windows are indexed here
+        log.info("Scheduling reminder for event: {}", event.getName());
+        indexEvent(event);
+    }
+
+    @Override
+    public void cancelReminder(String eventId) {
+        log.info("Canceling reminder for event: {}", eventId);
+        reminderIndex.cancel(eventId);
+    }
+
+    @Override
+    public void updateReminders(List<Event> savedEvents, Collection<String> deletedEventIds) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizonEnd = indexHorizonEnd != null ? indexHorizonEnd : now.plusMinutes(indexHorizonMinutes());
+
+        // Each user's windows are looked up once for the whole batch
+        Map<String, ReminderSchedule> schedules = new HashMap<>();
+        List<ReminderIndex.Scheduled> scheduled = new ArrayList<>(savedEvents.size());
+        for (Event event : savedEvents) {
+            if (event.getId() == null || event.getDateTime() == null) {
+                continue;
+            }
+            ReminderSchedule schedule = schedules.computeIfAbsent(event.getUserId(),
+                    userId -> scheduleFor(userDirectory.findByEmail(userId).orElse(null)));
+            scheduled.add(new ReminderIndex.Scheduled(event.getId(), expandBefore(event, now, horizonEnd), schedule));
+        }
+
+        reminderIndex.update(deletedEventIds, scheduled);
+        log.info("Updated reminders for {} saved and {} deleted events", scheduled.size(), deletedEventIds.size());
+    }
+
     /**
-     * Find a user by their email address
-     * 
-     * @param email The email address of the user
-     * @param eventId The ID of the event (for error reporting)
-     * @return The user with the given email address
-     * @throws RuntimeException if the user is not found
+     * Add the reminder windows of an event's occurrences inside the index horizon to the index.
+     * Occurrences further out are picked up by {@link #extendReminderIndex()}.
+     *
+     * @param event The event to index
      */
-    private User findUserByEmail(String email, String eventId) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found for event: " + eventId));
+    private void indexEvent(Event event) {
+        if (event.getId() == null || event.getDateTime() == null) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizonEnd = indexHorizonEnd != null ? indexHorizonEnd : now.plusMinutes(indexHorizonMinutes());
+        List<Event> occurrences = expandBefore(event, now, horizonEnd);
+        if (!occurrences.isEmpty()) {
+            User user = userDirectory.findByEmail(event.getUserId()).orElse(null);
+            reminderIndex.schedule(event.getId(), occurrences, scheduleFor(user));
+        } else {
+            reminderIndex.cancel(event.getId());
+        }
+    }
+
+    /**
+     * Fill the reminder index once the application has started, from the snapshot if
+     * one can be restored and from MongoDB otherwise
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 2)
+    public void loadReminderIndex() {
+        Optional<ReminderSnapshot> snapshot = reminderSnapshotStore.restorable();
+        if (snapshot.isPresent()) {
+            restoreSnapshot(snapshot.get());
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizonEnd = now.plusMinutes(indexHorizonMinutes());
+
+        // Move the horizon first so events created while loading are indexed by scheduleReminder
+        indexHorizonEnd = horizonEnd;
+        int loaded = indexSlice(now, horizonEnd);
+
+        log.info("Loaded {} events into the reminder index up to {}", loaded, horizonEnd);
+    }
+
+    /**
+     * Put the reminders of a snapshot back into the index and load the slice of events
+     * that moved into the horizon since it was taken. Changes to events made meanwhile
+     * are replayed by the events change stream.
+     *
+     * @param snapshot The snapshot to restore
+     */
+    private void restoreSnapshot(ReminderSnapshot snapshot) {
+        reminderIndex.restore(snapshot.getReminders());
+        reminderLedger.restoreRecentKeys(snapshot.getSentKeys());
+        indexHorizonEnd = snapshot.getHorizonEnd();
+        reminderSnapshotStore.discard();
+
+        log.info("Restored {} reminders from the snapshot taken at {}",
+                snapshot.getReminders().size(), snapshot.getCreatedAt());
+        extendReminderIndex();
+    }
+
+    /**
+     * Write the pending reminders to the local snapshot
+     */
+    @Scheduled(fixedDelayString = "${reminders.snapshot.interval-ms:300000}",
+            initialDelayString = "${reminders.snapshot.interval-ms:300000}")
+    @PreDestroy
+    public synchronized void writeSnapshot() {
+        LocalDateTime horizonEnd = indexHorizonEnd;
+        if (!reminderSnapshotStore.isEnabled() || horizonEnd == null) {
+            return;
+        }
+
+        // Taken before the reminders, so replaying from it can only repeat changes, never skip one
+        Optional<String> position = reminderSnapshotStore.streamPosition();
+        if (position.isEmpty()) {
+            log.debug("Events change stream is not running, not writing a reminder snapshot");
+            return;
+        }
+
+        reminderSnapshotStore.write(new ReminderSnapshot(Instant.now(), horizonEnd, position.get(),
+                reminderIndex.entries(), reminderLedger.recentKeys()));
+    }
+
+    /**
+     * Extend the reminder index horizon by loading only the events that moved into it
+     * since the last refresh
+     */
+    @Scheduled(fixedRateString = "${reminders.index.refresh-interval-ms:3600000}",
+            initialDelayString = "${reminders.index.refresh-interval-ms:3600000}")
+    public synchronized void extendReminderIndex() {
+        LocalDateTime previousEnd = indexHorizonEnd;
+        if (previousEnd == null) {
+            return;
+        }
+
+        LocalDateTime horizonEnd = LocalDateTime.now().plusMinutes(indexHorizonMinutes());
+        if (!horizonEnd.isAfter(previousEnd)) {
+            return;
+        }
+
+        indexHorizonEnd = horizonEnd;
+        // Slices are half-open, so the previous end is where the new slice starts
+        int loaded = indexSlice(previousEnd, horizonEnd);
+
+        log.info("Extended reminder index to {} with {} events ({} reminders pending)",
+                horizonEnd, loaded, reminderIndex.size());
+    }
+
+    /**
+     * Periodically reload the whole reminder index horizon, as a safety net for changes made
+     * through another instance that the events change stream did not deliver.
+     * Only needed when reminders are split across instances.
+     */
+    @Scheduled(fixedDelayString = "${reminders.index.resync-interval-ms:3600000}",
+            initialDelayString = "${reminders.index.resync-interval-ms:3600000}")
+    public void resyncReminderIndex() {
+        if (partitionLeaseManager.isEnabled()) {
+            reloadReminderIndex();
+        }
     }
 
     @Override
-    public void scheduleReminder(Event event) {
-        log.info("Scheduling reminder for event: {}", event.getName());
+    public void reloadReminderIndex() {
+        LocalDateTime horizonEnd = indexHorizonEnd;
+        if (horizonEnd == null) {
+            return;
+        }
+
+        long startedAt = reminderIndex.currentSequence();
+        List<Event> occurrences = occurrencesBetween(null, LocalDateTime.now(), horizonEnd);
+        Map<String, User> users = userDirectory.findByEmails(occurrences.stream()
+                .map(Event::getUserId)
+                .collect(Collectors.toSet()));
+
+        Map<String, List<Event>> occurrencesByEvent = new LinkedHashMap<>();
+        for (Event occurrence : occurrences) {
+            occurrencesByEvent.computeIfAbsent(occurrence.getId(), id -> new ArrayList<>()).add(occurrence);
+        }
+        occurrencesByEvent.forEach((eventId, eventOccurrences) -> reminderIndex.schedule(eventId, eventOccurrences,
+                scheduleFor(users.get(eventOccurrences.get(0).getUserId()))));
+
+        int removed = reminderIndex.retainOnly(occurrencesByEvent.keySet(), startedAt);
+        log.info("Resynchronized reminder index with {} events, {} removed ({} reminders pending)",
+                occurrencesByEvent.size(), removed, reminderIndex.size());
+    }
+
+    /**
+     * Index the occurrences inside a time slice with their owners' reminder windows.
+     * Occurrences are added next to the ones already indexed for their series.
+     *
+     * @param from The start of the slice (inclusive)
+     * @param to The end of the slice (exclusive)
+     * @return The number of events and occurrences indexed
+     */
+    private int indexSlice(LocalDateTime from, LocalDateTime to) {
+        List<Event> occurrences = occurrencesBetween(null, from, to);
+
+        // Resolve the owners' window sets with one lookup for the whole slice
+        Map<String, User> users = userDirectory.findByEmails(occurrences.stream()
+                .map(Event::getUserId)
+                .collect(Collectors.toSet()));
+
+        for (Event occurrence : occurrences) {
+            reminderIndex.add(occurrence.getId(), List.of(occurrence), scheduleFor(users.get(occurrence.getUserId())));
+        }
+        return occurrences.size();
+    }
+
+    /**
+     * Find the one-off events and the occurrences of recurring events inside a time range.
+     * Ranges inside the materialized occurrence horizon are read with one query on the
+     * occurrences collection; anything else is expanded from the events collection.
+     *
+     * @param userId The user whose events to find, or null for all users
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return The occurrences
+     */
+    private List<Event> occurrencesBetween(String userId, LocalDateTime from, LocalDateTime to) {
+        if (occurrenceMaterializer.covers(from, to)) {
+            return userId == null
+                    ? occurrenceMaterializer.findBetween(from, to)
+                    : occurrenceMaterializer.findByUserIdBetween(userId, from, to);
+        }
+
+        List<Event> events = userId == null
+                ? eventRepository.findByDateTimeBetween(from, to)
+                : eventRepository.findByUserIdAndDateTimeBetween(userId, from, to);
+        List<Event> occurrences = events.stream()
+                .filter(event -> !Occurrences.isRecurring(event))
+                .collect(Collectors.toList());
+
+        List<Event> series = userId == null
+                ? eventRepository.findRecurringActiveBetween(from, to)
+                : eventRepository.findRecurringByUserIdActiveBetween(userId, from, to);
+        for (Event event : series) {
+            occurrences.addAll(expandBefore(event, from, to));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Expand an event into its occurrences inside a half-open range. Expansion includes the
+     * end of the range, but an occurrence there belongs to the next slice of the index horizon.
+     *
+     * @param event The event
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return The occurrences in order
+     */
+    private static List<Event> expandBefore(Event event, LocalDateTime from, LocalDateTime to) {
+        List<Event> occurrences = Occurrences.expand(event, from, to);
+        occurrences.removeIf(occurrence -> !occurrence.getDateTime().isBefore(to));
+        return occurrences;
+    }
+
+    private long indexHorizonMinutes() {
+        return Math.max(defaultSchedule.maxLeadMinutes(), maxLeadHours * 60L) + indexLookaheadHours * 60;
+    }
+
+    /**
+     * Get the compiled reminder windows of a user
+     *
+     * @param user The user, or null if unknown
+     * @return The user's own windows, or the default windows
+     */
+    private ReminderSchedule scheduleFor(User user) {
+        if (user == null || user.getReminderWindows() == null || user.getReminderWindows().isEmpty()) {
+            return defaultSchedule;
+        }
+
+        ReminderSchedule schedule = compiledSchedules.get(user.getReminderWindows());
+        if (schedule == null) {
+            schedule = ReminderSchedule.compile(user.getReminderWindows(), maxLeadHours * 60);
+            if (compiledSchedules.size() >= MAX_COMPILED_SCHEDULES) {
+                compiledSchedules.clear();
+            }
+            compiledSchedules.put(List.copyOf(user.getReminderWindows()), schedule);
+        }
+        return schedule;
+    }
+
+    /**
+     * Re-index the pending reminders of one user, e.g. after they changed their windows.
+     * Other users' reminders are not touched.
+     *
+     * @param user The user
+     */
+    private void rescheduleUserReminders(User user) {
+        LocalDateTime horizonEnd = indexHorizonEnd;
+        if (horizonEnd == null) {
+            return;
+        }
+
+        Map<String, List<Event>> occurrencesByEvent = new LinkedHashMap<>();
+        for (Event occurrence : occurrencesBetween(user.getEmail(), LocalDateTime.now(), horizonEnd)) {
+            occurrencesByEvent.computeIfAbsent(occurrence.getId(), id -> new ArrayList<>()).add(occurrence);
+        }
+
+        ReminderSchedule schedule = scheduleFor(user);
+        occurrencesByEvent.forEach((eventId, occurrences) -> reminderIndex.schedule(eventId, occurrences, schedule));
+
+        log.info("Rescheduled reminders of {} events for user: {}", occurrencesByEvent.size(), user.getEmail());
+    }
+
+    /**
+     * Send a single reminder taken from the index
+     *
+     * @param reminder The reminder that is due
+     * @param users The users of the current batch, keyed by email
+     * @param now The current time
+     */
+    private void processDueReminder(PendingReminder reminder, Map<String, User> users, LocalDateTime now) {
+        Event event = reminder.getEvent();
+        ReminderWindow window = reminder.getWindow();
 
         try {
-            // Mark the event as having a scheduled reminder
-            scheduledReminders.put(event.getId(), true);
+            if (reminderLedger.hasBeenSent(event.getId(), reminder.getLedgerKey())) {
+                reminderIndex.complete(reminder);
+                return;
+            }
 
             // Find the user (userId is actually the email)
-            User user = findUserByEmail(event.getUserId(), event.getId());
+            User user = users.get(event.getUserId());
+            if (user == null) {
+                throw new RuntimeException("User not found for event: " + event.getId());
+            }
 
-            // Send the reminder immediately
-            log.info("Sending immediate reminder for event: {} to user: {}", event.getName(), user.getEmail());
+            log.info("Sending {} reminder for event: {} to user: {}",
+                    window.getDisplayName(), event.getName(), user.getEmail());
 
-            if (sendEventReminder(event, user.getEmail())) {
-                log.info("Reminder sent successfully for event: {}", event.getName());
-                // Remove from scheduled reminders after successful sending
-                scheduledReminders.remove(event.getId());
+            if (sendWindowReminder(reminder, user, now)) {
+                reminderLedger.markSent(event, reminder.getLedgerKey());
+                reminderIndex.complete(reminder);
+                log.debug("Reminder marked as sent: {}", ReminderLedger.reminderKey(event.getId(), reminder.getLedgerKey()));
             } else {
-                log.error("Failed to send reminder for event: {}", event.getName());
+                // Failed or deferred for quota: try again on the next tick while the window is still open
+                reminderIndex.retry(reminder, now.plusMinutes(1));
             }
         } catch (Exception e) {
-            log.error("Failed to process reminder for event: {}", event.getName(), e);
+            log.error("Failed to process reminders for event: {}", event.getName(), e);
+            reminderIndex.retry(reminder, now.plusMinutes(1));
         }
     }
 
     @Override
-    public void cancelReminder(String eventId) {
-        log.info("Canceling reminder for event: {}", eventId);
-        scheduledReminders.remove(eventId);
+    @Scheduled(fixedRateString = "${reminders.tick-interval-ms:60000}")
+    public void checkAndSendReminders() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Only reminders whose fire time has been reached are taken from the index
+        List<PendingReminder> dueReminders = reminderIndex.pollDue(now);
+        if (dueReminders.isEmpty()) {
+            log.debug("No reminders due, next at {}", reminderIndex.nextFireTime().orElse(null));
+            return;
+        }
+
+        // Reminders of users in partitions held by another instance are left to that instance
+        if (partitionLeaseManager.isEnabled()) {
+            List<PendingReminder> owned = new ArrayList<>(dueReminders.size());
+            for (PendingReminder reminder : dueReminders) {
+                if (partitionLeaseManager.owns(reminder.getUserId())) {
+                    owned.add(reminder);
+                } else {
+                    reminderIndex.postpone(reminder, now.plusMinutes(1));
+                }
+            }
+            dueReminders = owned;
+            if (dueReminders.isEmpty()) {
+                return;
+            }
+        }
+
+        log.info("Found {} reminders due ({} pending)", dueReminders.size(), reminderIndex.size());
+
+        dueReminders = attachEvents(dueReminders, now);
+        if (dueReminders.isEmpty()) {
+            return;
+        }
+
+        // Resolve all recipients of the batch with one query instead of one per event
+        Map<String, User> users = userDirectory.findByEmails(dueReminders.stream()
+                .map(PendingReminder::getUserId)
+                .collect(Collectors.toSet()));
+
+        // Send concurrently, keeping each recipient's reminders in order
+        reminderDispatcher.dispatch(groupForDelivery(dueReminders, users),
+                ReminderServiceImpl::describe,
+                batch -> {
+                    if (batch.size() == 1) {
+                        processDueReminder(batch.get(0), users, LocalDateTime.now());
+                    } else {
+                        processDueDigest(batch, users.get(batch.get(0).getUserId()), LocalDateTime.now());
+                    }
+                },
+                batch -> {
+                    log.warn("Dropping {} reminders for user {} that would arrive too late", batch.size(),
+                            batch.get(0).getUserId());
+                    batch.forEach(reminderIndex::drop);
+                });
     }
 
     /**
-     * Generate a unique key for an event and reminder window combination
-     * 
-     * @param eventId The ID of the event
-     * @param windowKey The key of the reminder window
-     * @return A unique key for the event and window combination
+     * Describe a delivery for the dispatcher. A digest is as urgent as its most urgent reminder
+     * and must start before its earliest window closes.
+     *
+     * @param batch The reminders of one delivery
+     * @return The delivery's recipient, urgency and timing
      */
-    private String generateReminderKey(String eventId, String windowKey) {
-        return eventId + "_" + windowKey;
+    private static ReminderDispatcher.Delivery describe(List<PendingReminder> batch) {
+        PendingReminder first = batch.get(0);
+        if (batch.size() == 1) {
+            return new ReminderDispatcher.Delivery(first.getUserId(), first.getLeadMinutes(), first.getFireAt(),
+                    first.getDeadline());
+        }
+        return new ReminderDispatcher.Delivery(first.getUserId(),
+                batch.stream().mapToInt(PendingReminder::getLeadMinutes).min().orElseThrow(),
+                batch.stream().map(PendingReminder::getFireAt).min(Comparator.naturalOrder()).orElseThrow(),
+                batch.stream().map(PendingReminder::getDeadline).min(Comparator.naturalOrder()).orElseThrow());
     }
 
     /**
-     * Process reminders for a single event
-     * 
-     * @param event The event to process reminders for
+     * Load the events of the due reminders with one query, since the index only keeps
+     * their IDs. Reminders whose event was deleted or moved to another time in the meantime
+     * are dropped; the change stream or the next resync indexes the event's current state.
+     *
+     * @param dueReminders The reminders due in this tick
      * @param now The current time
+     * @return The reminders that are still valid, with their event occurrence attached
      */
-    private void processEventReminders(Event event, LocalDateTime now) {
+    private List<PendingReminder> attachEvents(List<PendingReminder> dueReminders, LocalDateTime now) {
+        Map<String, Event> events = new HashMap<>();
         try {
-            // Find the user (userId is actually the email)
-            User user = findUserByEmail(event.getUserId(), event.getId());
+            eventRepository.findAllById(dueReminders.stream().map(PendingReminder::getEventId).distinct().toList())
+                    .forEach(event -> events.put(event.getId(), event));
+        } catch (Exception e) {
+            log.error("Failed to load the events of {} due reminders", dueReminders.size(), e);
+            dueReminders.forEach(reminder -> reminderIndex.retry(reminder, now.plusMinutes(1)));
+            return List.of();
+        }
 
-            LocalDateTime eventTime = event.getDateTime();
+        List<PendingReminder> loaded = new ArrayList<>(dueReminders.size());
+        for (PendingReminder reminder : dueReminders) {
+            Event event = events.get(reminder.getEventId());
+            if (event != null && Occurrences.isRecurring(event)) {
+                loaded.add(reminder.withEvent(Occurrences.occurrence(event, reminder.getOccurrenceTime())));
+            } else if (event != null && isSameTime(event.getDateTime(), reminder.getOccurrenceTime())) {
+                loaded.add(reminder.withEvent(event));
+            } else {
+                log.debug("Dropping stale reminder for event: {}", reminder.getEventId());
+                reminderIndex.complete(reminder);
+            }
+        }
+        return loaded;
+    }
 
-            // Calculate time until event
-            Duration timeUntilEvent = Duration.between(now, eventTime);
-            double hoursUntilEvent = timeUntilEvent.toMinutes() / 60.0;
+    // The index keeps occurrence times to the millisecond, the precision MongoDB stores
+    private static boolean isSameTime(LocalDateTime eventTime, LocalDateTime occurrenceTime) {
+        return eventTime != null && eventTime.truncatedTo(ChronoUnit.MILLIS).equals(occurrenceTime);
+    }
 
-            log.debug("Processing event: {}, Time until event: {} hours", 
-                    event.getName(), String.format("%.2f", hoursUntilEvent));
+    /**
+     * Split the due reminders into deliveries. Users with digest mode enabled get all of
+     * their reminders of this tick in one delivery; everyone else gets one per reminder.
+     *
+     * @param dueReminders The reminders due in this tick
+     * @param users The users of the current batch, keyed by email
+     * @return The reminders grouped per delivery
+     */
+    private List<List<PendingReminder>> groupForDelivery(List<PendingReminder> dueReminders, Map<String, User> users) {
+        List<List<PendingReminder>> deliveries = new ArrayList<>();
+        Map<String, List<PendingReminder>> digests = new HashMap<>();
+
+        for (PendingReminder reminder : dueReminders) {
+            String recipient = reminder.getUserId();
+            User user = users.get(recipient);
+            if (user != null && user.isReminderDigest()) {
+                digests.computeIfAbsent(recipient, key -> {
+                    List<PendingReminder> digest = new ArrayList<>();
+                    deliveries.add(digest);
+                    return digest;
+                }).add(reminder);
+            } else {
+                deliveries.add(List.of(reminder));
+            }
+        }
+        return deliveries;
+    }
 
-            // Check if event has passed
-            if (eventTime.isBefore(now)) {
-                log.info("Event {} has passed, removing from scheduled reminders", event.getId());
-                scheduledReminders.remove(event.getId());
+    /**
+     * Send the reminders due to one digest user as a single email
+     *
+     * @param reminders The reminders due to the user in this tick
+     * @param user The recipient
+     * @param now The current time
+     */
+    private void processDueDigest(List<PendingReminder> reminders, User user, LocalDateTime now) {
+        try {
+            List<PendingReminder> unsent = new ArrayList<>();
+            for (PendingReminder reminder : reminders) {
+                if (reminderLedger.hasBeenSent(reminder.getEventId(), reminder.getLedgerKey())) {
+                    reminderIndex.complete(reminder);
+                } else {
+                    unsent.add(reminder);
+                }
+            }
+            if (unsent.isEmpty()) {
                 return;
             }
 
-            // Check each reminder window
-            for (ReminderWindow window : reminderWindows) {
-                String reminderKey = generateReminderKey(event.getId(), window.getKey());
-
-                // Check if the event falls within this window and we haven't sent a reminder yet
-                if (isInWindow(hoursUntilEvent, window) && !hasReminderBeenSent(reminderKey)) {
-                    log.info("Sending {} reminder for event: {} to user: {}", 
-                            window.getDisplayName(), event.getName(), user.getEmail());
+            log.info("Sending reminder digest with {} reminders to user: {}", unsent.size(), user.getEmail());
 
-                    if (sendEventReminder(event, user.getEmail())) {
-                        markReminderAsSent(reminderKey);
-                        log.debug("Reminder marked as sent: {}", reminderKey);
-                    }
+            if (sendDigest(unsent, user, now)) {
+                for (PendingReminder reminder : unsent) {
+                    reminderLedger.markSent(reminder.getEvent(), reminder.getLedgerKey());
+                    reminderIndex.complete(reminder);
                 }
+            } else {
+                unsent.forEach(reminder -> reminderIndex.retry(reminder, now.plusMinutes(1)));
             }
         } catch (Exception e) {
-            log.error("Failed to process reminders for event: {}", event.getName(), e);
+            // Reminders already marked in the ledger are skipped on the retry
+            log.error("Failed to send reminder digest to user: {}", user.getEmail(), e);
+            reminders.forEach(reminder -> reminderIndex.retry(reminder, now.plusMinutes(1)));
         }
     }
 
     @Override
-    @Scheduled(fixedRate = 60000) // Run every minute
-    public void checkAndSendReminders() {
-        log.info("Checking for events that need reminders...");
-
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime twentyFourHoursFromNow = now.plusHours(24);
+    public boolean sendEventReminder(Event event, String recipientEmail) {
+        log.debug("Delegating reminder sending to email service for event: {}", event.getName());
+        return outboundMailQueue.send(OutboundMailQueue.DEFAULT_LEAD_MINUTES, Duration.ofMinutes(1),
+                () -> emailService.sendEventReminder(event, recipientEmail));
+    }
 
-        // Get all events in the next 24 hours
-        List<Event> upcomingEvents = eventRepository.findByDateTimeBetween(now, twentyFourHoursFromNow);
+    /**
+     * Send a windowed reminder on all of the user's notification channels. The window's lead
+     * time sets its priority and it may wait for quota until the window closes.
+     *
+     * @param reminder The reminder to send
+     * @param user The recipient
+     * @param now The current time
+     * @return true if the reminder was delivered on at least one channel
+     */
+    private boolean sendWindowReminder(PendingReminder reminder, User user, LocalDateTime now) {
+        return notificationFanout.send(new Notification(List.of(reminder.getEvent()), reminder.getLeadMinutes(),
+                maxWait(reminder.getDeadline(), now)), user);
+    }
 
-        log.info("Found {} events in the next 24 hours", upcomingEvents.size());
+    /**
+     * Send a digest on all of the user's notification channels. It is sent with the priority
+     * of its most urgent reminder and may only wait until the earliest window closes.
+     *
+     * @param reminders The reminders to combine
+     * @param user The recipient
+     * @param now The current time
+     * @return true if the digest was delivered on at least one channel
+     */
+    private boolean sendDigest(List<PendingReminder> reminders, User user, LocalDateTime now) {
+        int leadMinutes = reminders.stream().mapToInt(PendingReminder::getLeadMinutes).min().orElseThrow();
+        LocalDateTime deadline = reminders.stream().map(PendingReminder::getDeadline)
+                .min(Comparator.naturalOrder()).orElseThrow();
+
+        // An event due in two windows at once is listed only once
+        List<Event> events = reminders.stream()
+                .map(PendingReminder::getEvent)
+                .distinct()
+                .sorted(Comparator.comparing(Event::getDateTime))
+                .toList();
+
+        return notificationFanout.send(new Notification(events, leadMinutes, maxWait(deadline, now)), user);
+    }
 
-        // Process each event
-        upcomingEvents.forEach(event -> processEventReminders(event, now));
+    private static Duration maxWait(LocalDateTime deadline, LocalDateTime now) {
+        Duration maxWait = Duration.between(now, deadline);
+        return maxWait.isNegative() ? Duration.ZERO : maxWait;
     }
 
     @Override
-    public boolean sendEventReminder(Event event, String recipientEmail) {
-        log.debug("Delegating reminder sending to email service for event: {}", event.getName());
-        return emailService.sendEventReminder(event, recipientEmail);
+    public long getMissedBeforeDispatchCount() {
+        return reminderIndex.getMissedCount();
     }
 
     @Override
@@ -200,34 +732,27 @@ public class ReminderServiceImpl implements ReminderService {
         return new ArrayList<>(reminderWindows);
     }
 
-    /**
-     * Check if an event falls within a reminder window's time range
-     * 
-     * @param hoursUntilEvent Hours until the event starts
-     * @param window The reminder window to check against
-     * @return true if the event is within the window's time range
-     */
-    private boolean isInWindow(double hoursUntilEvent, ReminderWindow window) {
-        return hoursUntilEvent <= window.getMaxDuration() && 
-               hoursUntilEvent >= window.getMinDuration();
+    @Override
+    public List<ReminderWindow> getReminderWindows(String userId) {
+        return new ArrayList<>(scheduleFor(userDirectory.findByEmail(userId).orElse(null)).getWindows());
     }
 
-    /**
-     * Check if a reminder has already been sent for a specific event and window
-     * 
-     * @param reminderKey The unique key for the event and window combination
-     * @return true if the reminder has already been sent
-     */
-    private boolean hasReminderBeenSent(String reminderKey) {
-        return sentReminders.containsKey(reminderKey);
+    @Override
+    public List<ReminderWindow> updateReminderWindows(String userId, List<ReminderWindow> windows) {
+        // Validate before saving; an empty list goes back to the default windows
+        List<ReminderWindow> stored = windows == null || windows.isEmpty()
+                ? null
+                : new ArrayList<>(ReminderSchedule.compile(windows, maxLeadHours * 60).getWindows());
+
+        User user = userService.updateReminderWindows(userId, stored);
+        rescheduleUserReminders(user);
+        return getReminderWindows(userId);
     }
 
     /**
-     * Mark a reminder as sent for a specific event and window
-     * 
-     * @param reminderKey The unique key for the event and window combination
+     * @return The default reminder windows compiled into minute offsets
      */
-    private void markReminderAsSent(String reminderKey) {
-        sentReminders.put(reminderKey, true);
+    ReminderSchedule getDefaultSchedule() {
+        return defaultSchedule;
     }
-} 
+}
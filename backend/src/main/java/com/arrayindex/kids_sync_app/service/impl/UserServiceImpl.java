@@ -1,32 +1,41 @@
 package com.arrayindex.kids_sync_app.service.impl;
 
+import com.arrayindex.kids_sync_app.model.ReminderWindow;
 import com.arrayindex.kids_sync_app.model.User;
 import com.arrayindex.kids_sync_app.repository.UserRepository;
+import com.arrayindex.kids_sync_app.service.PasswordHasher;
+import com.arrayindex.kids_sync_app.service.UserDirectory;
 import com.arrayindex.kids_sync_app.service.UserService;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import com.arrayindex.kids_sync_app.config.JwtConfig;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.arrayindex.kids_sync_app.config.TokenRevocations;
 import org.springframework.stereotype.Service;
 import com.arrayindex.kids_sync_app.dto.UserProfileUpdateRequest;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserDirectory userDirectory;
+    private final PasswordHasher passwordHasher;
     private final SecretKey jwtSecretKey;
+    private final TokenRevocations tokenRevocations;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, SecretKey jwtSecretKey) {
+    public UserServiceImpl(UserRepository userRepository, UserDirectory userDirectory, PasswordHasher passwordHasher, SecretKey jwtSecretKey, TokenRevocations tokenRevocations) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.userDirectory = userDirectory;
+        this.passwordHasher = passwordHasher;
         this.jwtSecretKey = jwtSecretKey;
+        this.tokenRevocations = tokenRevocations;
     }
 
     @Override
@@ -35,7 +44,7 @@ public class UserServiceImpl implements UserService {
             throw new IllegalArgumentException("Email already registered");
         }
 
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHasher.encode(user.getPassword()));
         userRepository.save(user);
 
         return generateToken(user.getEmail());
@@ -44,8 +53,11 @@ public class UserServiceImpl implements UserService {
     @Override
     public String loginUser(String email, String password) {
         return userRepository.findByEmail(email)
-                .filter(user -> passwordEncoder.matches(password, user.getPassword()))
-                .map(user -> generateToken(email))
+                .filter(user -> passwordHasher.matches(password, user.getPassword()))
+                .map(user -> {
+                    rehashIfNeeded(user, password);
+                    return generateToken(email);
+                })
                 .orElse(null);
     }
 
@@ -65,13 +77,55 @@ public class UserServiceImpl implements UserService {
         if (request.getWhatsappNumber() != null) {
             user.setWhatsappNumber(request.getWhatsappNumber());
         }
+        if (request.getReminderDigest() != null) {
+            user.setReminderDigest(request.getReminderDigest());
+        }
         if (request.getPassword() != null) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(passwordHasher.encode(request.getPassword()));
         }
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+
+        // Write through to the directory; the old email key is gone if the email changed
+        userDirectory.evict(email);
+        userDirectory.put(savedUser);
+
+        // Tokens are trusted without a user lookup, so old ones must not outlive new credentials
+        if (request.getPassword() != null || (request.getEmail() != null && !request.getEmail().equals(email))) {
+            tokenRevocations.revoke(email);
+        }
+
+        return savedUser;
+    }
+
+    @Override
+    public User updateReminderWindows(String email, List<ReminderWindow> reminderWindows) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+
+        user.setReminderWindows(reminderWindows);
+        User savedUser = userRepository.save(user);
+        userDirectory.put(savedUser);
+        return savedUser;
     }
 
+    /**
+     * Re-hash the password with the configured work factor while the raw password is at hand
+     * @param user The user who just logged in
+     * @param password The password they logged in with
+     */
+    private void rehashIfNeeded(User user, String password) {
+        if (!passwordHasher.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordHasher.encode(password));
+        } catch (RejectedExecutionException e) {
+            // The login itself succeeded; try again on a quieter login
+            return;
+        }
+        userDirectory.put(userRepository.save(user));
+    }
 
     private String generateToken(String email) {
         return Jwts.builder()
@@ -0,0 +1,84 @@
+package com.arrayindex.kids_sync_app.config;
+
+import com.arrayindex.kids_sync_app.repository.TokenRevocationRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the per-request cost of authenticating a repeated bearer token in
+ * {@link JwtAuthenticationFilter}, compared with the previous implementation that built
+ * a new parser and verified the signature twice per request. The user lookup is an
+ * in-memory stub, so the database round trip the stateless mode also saves is not included.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    private final SecretKey key = Keys.hmacShaKeyFor("benchmark-secret-that-is-long-enough-hs256".getBytes(StandardCharsets.UTF_8));
+    private final UserDetails userDetails = new User("parent@example.com", "password", List.of());
+    private final UserDetailsService userDetailsService = email -> userDetails;
+
+    @Test
+    void perRequestCost() throws Exception {
+        String token = JwtTokenVerifierTest.token("parent@example.com", 3_600_000, key);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> SecurityContextHolder.clearContext();
+
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(
+                new JwtTokenVerifier(new JwtConfig().jwtParser(key), 10_000), new TokenRevocations(mock(TokenRevocationRepository.class)),
+                userDetailsService, true);
+
+        for (int i = 0; i < WARMUP; i++) {
+            previousFilter(request, token);
+            filter.doFilter(request, response, chain);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            previousFilter(request, token);
+        }
+        double beforeMicros = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            filter.doFilter(request, response, chain);
+        }
+        double afterMicros = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+
+        System.out.printf("Per request: %.2f us before, %.2f us with the shared parser and token cache%n",
+                beforeMicros, afterMicros);
+        assertEquals(200, response.getStatus());
+    }
+
+    // What the filter did per request before: two fresh parsers, two signature checks
+    private void previousFilter(MockHttpServletRequest request, String token) {
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        UserDetails details = userDetailsService.loadUserByUsername(claims.getSubject());
+        new WebAuthenticationDetailsSource().buildDetails(request);
+        assertEquals(userDetails, details);
+    }
+}
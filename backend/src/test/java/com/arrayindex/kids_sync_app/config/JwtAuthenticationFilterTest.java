@@ -0,0 +1,104 @@
+package com.arrayindex.kids_sync_app.config;
+
+import com.arrayindex.kids_sync_app.repository.TokenRevocationRepository;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtAuthenticationFilterTest {
+
+    private final SecretKey key = Keys.hmacShaKeyFor("test-secret-that-is-long-enough-for-hs256".getBytes(StandardCharsets.UTF_8));
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private TokenRevocations tokenRevocations;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocations = new TokenRevocations(mock(TokenRevocationRepository.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testStatelessModeDoesNotLoadUser() throws Exception {
+        MockHttpServletResponse response = filter(true, JwtTokenVerifierTest.token("parent@example.com", 60_000, key));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("parent@example.com", authentication().getName());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() throws Exception {
+        String token = JwtTokenVerifierTest.token("parent@example.com", 60_000, key);
+        // Issue times have second precision, so revoke in a later second
+        Thread.sleep(1_000);
+        tokenRevocations.revoke("parent@example.com");
+
+        MockHttpServletResponse response = filter(true, token);
+
+        assertEquals(401, response.getStatus());
+        assertNull(authentication());
+    }
+
+    @Test
+    void testTokenIssuedAfterRevocationIsAccepted() throws Exception {
+        tokenRevocations.revoke("parent@example.com");
+        Thread.sleep(1_000);
+
+        MockHttpServletResponse response = filter(true, JwtTokenVerifierTest.token("parent@example.com", 60_000, key));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("parent@example.com", authentication().getName());
+    }
+
+    @Test
+    void testStatefulModeLoadsUser() throws Exception {
+        when(userDetailsService.loadUserByUsername(anyString()))
+                .thenReturn(new User("parent@example.com", "hashed", List.of()));
+
+        filter(false, JwtTokenVerifierTest.token("parent@example.com", 60_000, key));
+
+        assertEquals("parent@example.com", authentication().getName());
+        verify(userDetailsService).loadUserByUsername("parent@example.com");
+    }
+
+    private MockHttpServletResponse filter(boolean statelessAuth, String token) throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(
+                new JwtTokenVerifier(new JwtConfig().jwtParser(key), 100), tokenRevocations, userDetailsService, statelessAuth);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static Authentication authentication() {
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
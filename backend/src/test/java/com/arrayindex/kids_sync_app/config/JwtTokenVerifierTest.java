@@ -0,0 +1,81 @@
+package com.arrayindex.kids_sync_app.config;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JwtTokenVerifierTest {
+
+    private final SecretKey key = Keys.hmacShaKeyFor("test-secret-that-is-long-enough-for-hs256".getBytes(StandardCharsets.UTF_8));
+    private JwtParser parser;
+    private JwtTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        parser = spy(new JwtConfig().jwtParser(key));
+        verifier = new JwtTokenVerifier(parser, 2);
+    }
+
+    @Test
+    void testRepeatedTokenIsVerifiedOnce() {
+        String token = token("parent@example.com", 60_000, key);
+
+        assertEquals("parent@example.com", verifier.verify(token).subject());
+        assertEquals("parent@example.com", verifier.verify(token).subject());
+        assertEquals("parent@example.com", verifier.verify(token).subject());
+
+        verify(parser, times(1)).parseClaimsJws(token);
+    }
+
+    @Test
+    void testForgedTokenIsRejected() {
+        SecretKey otherKey = Keys.hmacShaKeyFor("another-secret-that-is-long-enough-hs256".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(SignatureException.class, () -> verifier.verify(token("parent@example.com", 60_000, otherKey)));
+    }
+
+    @Test
+    void testCachedTokenExpires() throws InterruptedException {
+        String token = token("parent@example.com", 1_500, key);
+        assertEquals("parent@example.com", verifier.verify(token).subject());
+
+        Thread.sleep(1_600);
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void testLeastRecentlyUsedTokenIsEvicted() {
+        String first = token("first@example.com", 60_000, key);
+        String second = token("second@example.com", 60_000, key);
+        String third = token("third@example.com", 60_000, key);
+
+        verifier.verify(first);
+        verifier.verify(second);
+        verifier.verify(third);
+        verifier.verify(first);
+
+        verify(parser, times(2)).parseClaimsJws(first);
+        verify(parser, times(1)).parseClaimsJws(third);
+    }
+
+    static String token(String email, long validMillis, SecretKey key) {
+        return Jwts.builder()
+                .setSubject(email)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + validMillis))
+                .signWith(key)
+                .compact();
+    }
+}
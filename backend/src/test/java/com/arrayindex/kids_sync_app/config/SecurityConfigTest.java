@@ -0,0 +1,127 @@
+package com.arrayindex.kids_sync_app.config;
+
+import com.arrayindex.kids_sync_app.controller.EventController;
+import com.arrayindex.kids_sync_app.controller.ReminderController;
+import com.arrayindex.kids_sync_app.mail.OutboundMailQueue;
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.notification.NotificationFanout;
+import com.arrayindex.kids_sync_app.reminder.PartitionLeaseManager;
+import com.arrayindex.kids_sync_app.reminder.ReminderDispatcher;
+import com.arrayindex.kids_sync_app.repository.TokenRevocationRepository;
+import com.arrayindex.kids_sync_app.service.EventService;
+import com.arrayindex.kids_sync_app.service.OutboxService;
+import com.arrayindex.kids_sync_app.service.ReminderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.crypto.SecretKey;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs requests through the full security filter chain: the streamed event endpoints including
+ * the async dispatch that writes the response body, and the reminder statistics.
+ */
+@WebMvcTest({EventController.class, ReminderController.class})
+@Import({SecurityConfig.class, JwtConfig.class, JwtAuthenticationFilter.class, JwtTokenVerifier.class,
+        TokenRevocations.class})
+@TestPropertySource(properties = "jwt.secret=test-secret-that-is-long-enough-for-hs256")
+public class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SecretKey jwtSecretKey;
+
+    @MockBean
+    private EventService eventService;
+
+    @MockBean
+    private OutboxService outboxService;
+
+    @MockBean
+    private ReminderService reminderService;
+
+    @MockBean
+    private OutboundMailQueue outboundMailQueue;
+
+    @MockBean
+    private PartitionLeaseManager partitionLeaseManager;
+
+    @MockBean
+    private ReminderDispatcher reminderDispatcher;
+
+    @MockBean
+    private NotificationFanout notificationFanout;
+
+    @MockBean
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        Event event = new Event();
+        event.setId("e1");
+        event.setName("Swimming");
+        event.setUserId("parent@example.com");
+        when(eventService.streamEventsByUserId("parent@example.com")).thenAnswer(invocation -> Stream.of(event));
+    }
+
+    @Test
+    void testStreamedEventsAreWrittenForAuthenticatedUser() throws Exception {
+        for (String path : List.of("/api/events", "/api/events/all")) {
+            MvcResult result = mockMvc.perform(get(path)
+                            .header("Authorization", "Bearer " + token()))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value("e1"));
+        }
+    }
+
+    @Test
+    void testStreamedEventsRequireAuthentication() throws Exception {
+        for (String path : List.of("/api/events", "/api/events/all")) {
+            mockMvc.perform(get(path))
+                    .andExpect(status().isForbidden())
+                    .andExpect(request().asyncNotStarted());
+        }
+    }
+
+    @Test
+    void testReminderStatisticsRequireAuthentication() throws Exception {
+        for (String path : List.of("/api/reminders/queue", "/api/reminders/lanes",
+                "/api/reminders/channels", "/api/reminders/partitions")) {
+            mockMvc.perform(get(path)).andExpect(status().isForbidden());
+            mockMvc.perform(get(path).header("Authorization", "Bearer " + token()))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void testDefaultReminderWindowsArePublic() throws Exception {
+        mockMvc.perform(get("/api/reminders/windows")).andExpect(status().isOk());
+    }
+
+    private String token() {
+        return JwtTokenVerifierTest.token("parent@example.com", 60_000, jwtSecretKey);
+    }
+}
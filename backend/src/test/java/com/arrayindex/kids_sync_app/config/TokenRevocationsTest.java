@@ -0,0 +1,57 @@
+package com.arrayindex.kids_sync_app.config;
+
+import com.arrayindex.kids_sync_app.model.TokenRevocation;
+import com.arrayindex.kids_sync_app.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationsTest {
+
+    @Mock
+    private TokenRevocationRepository revocationRepository;
+
+    @InjectMocks
+    private TokenRevocations tokenRevocations;
+
+    @Test
+    void testRevocationIsStoredForOtherInstances() {
+        long issuedAt = System.currentTimeMillis() - 5_000;
+
+        tokenRevocations.revoke("parent@example.com");
+
+        ArgumentCaptor<TokenRevocation> stored = ArgumentCaptor.forClass(TokenRevocation.class);
+        verify(revocationRepository).save(stored.capture());
+        assertEquals("parent@example.com", stored.getValue().getEmail());
+        assertTrue(stored.getValue().getExpiresAt().isAfter(Instant.now().plusSeconds(9 * 24 * 3600)));
+        assertTrue(tokenRevocations.isRevoked("parent@example.com", issuedAt));
+    }
+
+    @Test
+    void testRevocationsFromStorageApplyAfterRestartAndRefresh() {
+        Instant revokedAt = Instant.now().minusSeconds(60);
+        when(revocationRepository.findByRevokedBeforeGreaterThanEqual(any(Instant.class)))
+                .thenReturn(List.of(new TokenRevocation("deleted@example.com", revokedAt, revokedAt.plusSeconds(864_000))))
+                .thenReturn(List.of(new TokenRevocation("moved@example.com", revokedAt, revokedAt.plusSeconds(864_000))));
+
+        tokenRevocations.load();
+        tokenRevocations.refresh();
+
+        long issuedBefore = revokedAt.minusSeconds(3600).toEpochMilli();
+        assertTrue(tokenRevocations.isRevoked("deleted@example.com", issuedBefore));
+        assertTrue(tokenRevocations.isRevoked("moved@example.com", issuedBefore));
+        assertFalse(tokenRevocations.isRevoked("moved@example.com", revokedAt.toEpochMilli()));
+        assertFalse(tokenRevocations.isRevoked("other@example.com", issuedBefore));
+    }
+}
@@ -0,0 +1,92 @@
+package com.arrayindex.kids_sync_app.index;
+
+import com.arrayindex.kids_sync_app.model.AppliedIndexMigration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IndexMigratorTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    private final List<IndexMigration> migrations = List.of(
+            new IndexMigration(3, "Third", "events", List.of(index("c"))),
+            new IndexMigration(1, "First", "events", List.of(index("a"))),
+            new IndexMigration(2, "Second", "events", List.of(index("b"))));
+
+    @Test
+    void testOnlyPendingMigrationsAreAppliedInOrder() {
+        when(mongoTemplate.findAll(AppliedIndexMigration.class))
+                .thenReturn(List.of(new AppliedIndexMigration(1, "First", LocalDateTime.now())));
+        when(mongoTemplate.indexOps("events")).thenReturn(indexOperations);
+
+        assertEquals(2, new IndexMigrator(mongoTemplate, migrations, true).migrate());
+
+        ArgumentCaptor<Index> built = ArgumentCaptor.forClass(Index.class);
+        verify(indexOperations, times(2)).ensureIndex(built.capture());
+        assertEquals(List.of("b", "c"), built.getAllValues().stream()
+                .map(index -> index.getIndexOptions().getString("name")).toList());
+        assertTrue(built.getValue().getIndexOptions().getBoolean("background"));
+
+        ArgumentCaptor<AppliedIndexMigration> recorded = ArgumentCaptor.forClass(AppliedIndexMigration.class);
+        verify(mongoTemplate, times(2)).insert(recorded.capture());
+        assertEquals(List.of(2, 3), recorded.getAllValues().stream().map(AppliedIndexMigration::getVersion).toList());
+    }
+
+    @Test
+    void testMigrationRecordedConcurrentlyIsNotAnError() {
+        when(mongoTemplate.findAll(AppliedIndexMigration.class)).thenReturn(List.of());
+        when(mongoTemplate.indexOps("events")).thenReturn(indexOperations);
+        when(mongoTemplate.insert(any(AppliedIndexMigration.class))).thenThrow(new DuplicateKeyException("duplicate"));
+
+        assertEquals(3, new IndexMigrator(mongoTemplate, migrations, true).migrate());
+        verify(indexOperations, times(3)).ensureIndex(any(Index.class));
+    }
+
+    @Test
+    void testOnlyExistingIndexesAreDropped() {
+        when(mongoTemplate.findAll(AppliedIndexMigration.class)).thenReturn(List.of());
+        when(mongoTemplate.indexOps("events")).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(
+                new IndexInfo(List.of(), "_id_", true, false, ""),
+                new IndexInfo(List.of(), "a", false, false, "")));
+
+        new IndexMigrator(mongoTemplate, List.of(
+                new IndexMigration(1, "Drop", "events", List.of(), List.of("a", "missing"))), true).migrate();
+
+        verify(indexOperations).dropIndex("a");
+        verify(indexOperations, never()).dropIndex("missing");
+        verify(indexOperations, never()).ensureIndex(any(Index.class));
+    }
+
+    @Test
+    void testDisabledMigratorDoesNothing() {
+        new IndexMigrator(mongoTemplate, migrations, false).run(null);
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private static Index index(String name) {
+        return new Index().on(name, Sort.Direction.ASC).named(name);
+    }
+}
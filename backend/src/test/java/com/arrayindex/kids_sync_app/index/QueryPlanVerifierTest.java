@@ -0,0 +1,85 @@
+package com.arrayindex.kids_sync_app.index;
+
+import com.arrayindex.kids_sync_app.repository.EventRepository;
+import com.mongodb.ExplainVerbosity;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class QueryPlanVerifierTest {
+
+    private static final Document INDEX_PLAN = Document.parse(
+            "{ queryPlanner: { winningPlan: { stage: 'FETCH', inputStage: { stage: 'IXSCAN', indexName: 'user_date_time' } } } }");
+
+    // A $or whose second branch has no usable index
+    private static final Document SCAN_PLAN = Document.parse(
+            "{ queryPlanner: { winningPlan: { stage: 'SUBPLAN', inputStage: { stage: 'OR', inputStages: ["
+                    + "{ stage: 'IXSCAN', indexName: 'date_time' }, { stage: 'COLLSCAN', direction: 'forward' } ] } } } }");
+
+    // Newer servers nest the classic plan under queryPlan
+    private static final Document NESTED_SCAN_PLAN = Document.parse(
+            "{ queryPlanner: { winningPlan: { queryPlan: { stage: 'SORT', inputStage: { stage: 'COLLSCAN' } } } } }");
+
+    @Test
+    void testDetectsCollectionScans() {
+        assertFalse(QueryPlanVerifier.usesCollectionScan(INDEX_PLAN.get("queryPlanner", Document.class).get("winningPlan")));
+        assertTrue(QueryPlanVerifier.usesCollectionScan(SCAN_PLAN.get("queryPlanner", Document.class).get("winningPlan")));
+        assertTrue(QueryPlanVerifier.usesCollectionScan(NESTED_SCAN_PLAN.get("queryPlanner", Document.class).get("winningPlan")));
+    }
+
+    @Test
+    void testWarnModeReportsWithoutFailing() {
+        QueryPlanVerifier verifier = new QueryPlanVerifier(explaining(SCAN_PLAN), "warn");
+
+        assertEquals(QueryPlanVerifier.CHECKS.stream().map(QueryPlanVerifier.PlanCheck::name).toList(),
+                verifier.verify(QueryPlanVerifier.CHECKS));
+        assertDoesNotThrow(() -> verifier.run(null));
+    }
+
+    @Test
+    void testFailModeStopsStartup() {
+        QueryPlanVerifier verifier = new QueryPlanVerifier(explaining(NESTED_SCAN_PLAN), "fail");
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> verifier.run(null));
+        assertTrue(error.getMessage().contains("findByUserId"));
+    }
+
+    @Test
+    void testIndexedQueriesPass() {
+        QueryPlanVerifier verifier = new QueryPlanVerifier(explaining(INDEX_PLAN), "fail");
+
+        assertEquals(List.of(), verifier.verify(QueryPlanVerifier.CHECKS));
+        assertDoesNotThrow(() -> verifier.run(null));
+    }
+
+    @Test
+    void testEveryRepositoryQueryIsChecked() {
+        // Default methods only delegate to other queries
+        Map<String, Long> queries = Arrays.stream(EventRepository.class.getDeclaredMethods())
+                .filter(method -> !method.isDefault() && !method.isSynthetic())
+                .collect(Collectors.groupingBy(Method::getName, Collectors.counting()));
+        Map<String, Long> checks = QueryPlanVerifier.CHECKS.stream()
+                .filter(check -> check.collection().equals("events"))
+                .collect(Collectors.groupingBy(QueryPlanVerifier.PlanCheck::name, Collectors.counting()));
+
+        assertEquals(queries, checks);
+    }
+
+    private static MongoTemplate explaining(Document plan) {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class, RETURNS_DEEP_STUBS);
+        when(mongoTemplate.getCollection(anyString()).find(any(Bson.class)).sort(any(Bson.class))
+                .explain(any(ExplainVerbosity.class))).thenReturn(plan);
+        return mongoTemplate;
+    }
+}
@@ -0,0 +1,124 @@
+package com.arrayindex.kids_sync_app.mail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP server for tests and benchmarks.
+ *
+ * It accepts every message and counts connections, messages and NOOP probes. A per-connection
+ * delay stands in for the TCP, STARTTLS and AUTH round trips of a real provider, and
+ * connections can be closed after a number of messages to simulate a server dropping
+ * idle or long-lived sessions.
+ */
+class LocalSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long connectDelayMillis;
+    private final int maxMessagesPerConnection;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger messages = new AtomicInteger();
+    private final AtomicInteger noops = new AtomicInteger();
+
+    LocalSmtpServer(long connectDelayMillis, int maxMessagesPerConnection) throws IOException {
+        this.serverSocket = new ServerSocket(0, 100, InetAddress.getLoopbackAddress());
+        this.connectDelayMillis = connectDelayMillis;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        executor.submit(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int getConnectionCount() {
+        return connections.get();
+    }
+
+    int getMessageCount() {
+        return messages.get();
+    }
+
+    int getNoopCount() {
+        return noops.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.submit(() -> handle(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        connections.incrementAndGet();
+        int messagesOnConnection = 0;
+
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+
+            Thread.sleep(connectDelayMillis);
+            reply(out, "220 localhost ESMTP test");
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO")) {
+                    reply(out, "250-localhost");
+                    reply(out, "250 8BITMIME");
+                } else if (command.startsWith("NOOP")) {
+                    noops.incrementAndGet();
+                    reply(out, "250 OK");
+                } else if (command.startsWith("HELO") || command.startsWith("MAIL") || command.startsWith("RCPT")
+                        || command.startsWith("RSET")) {
+                    reply(out, "250 OK");
+                } else if (command.startsWith("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        // Discard the message body
+                    }
+                    messages.incrementAndGet();
+                    reply(out, "250 OK queued");
+                    if (++messagesOnConnection >= maxMessagesPerConnection) {
+                        return;
+                    }
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void reply(PrintWriter out, String line) {
+        out.print(line + "\r\n");
+        out.flush();
+    }
+}
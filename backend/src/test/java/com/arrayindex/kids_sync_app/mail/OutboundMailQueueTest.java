@@ -0,0 +1,93 @@
+package com.arrayindex.kids_sync_app.mail;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutboundMailQueueTest {
+
+    private OutboundMailQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        queue.stop();
+    }
+
+    @Test
+    void testLowUrgencyIsDeferredWhenOnlyReserveIsLeft() throws Exception {
+        // 10 per minute with a 20% reserve: low urgency leaves the last 2 tokens alone
+        queue = new OutboundMailQueue(10, 1000, 6, 0.2, 50);
+        queue.start();
+
+        int sent = 0;
+        for (int i = 0; i < 10; i++) {
+            if (queue.send(24 * 60, Duration.ofSeconds(5), () -> true)) {
+                sent++;
+            }
+        }
+
+        assertEquals(8, sent);
+        assertEquals(2L, queue.getStats().get("deferred"));
+
+        // The reserve is still there for an urgent reminder
+        assertTrue(queue.send(5, Duration.ofSeconds(5), () -> true));
+    }
+
+    @Test
+    void testUrgentSendsGoFirst() throws Exception {
+        // Two tokens per second once the initial budget is used up
+        queue = new OutboundMailQueue(120, 100000, 6, 0.0, 60000);
+        queue.start();
+        for (int i = 0; i < 120; i++) {
+            assertTrue(queue.send(60, Duration.ofSeconds(5), () -> true));
+        }
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Boolean> low = queue.submit(24 * 60, Duration.ofMinutes(1), () -> order.add("24h"));
+        CompletableFuture<Boolean> urgent = queue.submit(5, Duration.ofMinutes(1), () -> order.add("5m"));
+
+        assertTrue(urgent.get(5, TimeUnit.SECONDS));
+        assertTrue(low.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("5m", "24h"), order);
+    }
+
+    @Test
+    void testSendExpiresAtDeadlineWithoutQuota() throws Exception {
+        queue = new OutboundMailQueue(1, 1000, 6, 0.0, 60000);
+        queue.start();
+        assertTrue(queue.send(60, Duration.ofSeconds(5), () -> true));
+
+        CompletableFuture<Boolean> urgent = queue.submit(5, Duration.ofMillis(300), () -> true);
+
+        assertFalse(urgent.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, queue.getStats().get("expired"));
+    }
+
+    @Test
+    void testSendStuckBehindUrgentSendsTimesOut() throws Exception {
+        queue = new OutboundMailQueue(1, 1000, 6, 0.0, 60000);
+        ReflectionTestUtils.setField(queue, "sendTimeoutMillis", 200L);
+        queue.start();
+        assertTrue(queue.send(5, Duration.ofSeconds(5), () -> true));
+
+        // Holds the head of the queue waiting for quota
+        queue.submit(5, Duration.ofSeconds(30), () -> true);
+        AtomicBoolean sent = new AtomicBoolean();
+
+        long started = System.nanoTime();
+        assertFalse(queue.send(60, Duration.ofMillis(100), () -> sent.getAndSet(true)));
+
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+        assertFalse(sent.get());
+    }
+}
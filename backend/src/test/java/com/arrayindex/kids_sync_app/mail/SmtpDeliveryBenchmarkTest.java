@@ -0,0 +1,71 @@
+package com.arrayindex.kids_sync_app.mail;
+
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the per-message path (one connection per {@code JavaMailSenderImpl.send})
+ * with the pooled engine against the local SMTP stand-in.
+ *
+ * The stand-in waits 20 ms per connection to approximate the handshake round trips
+ * of a real provider. Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class SmtpDeliveryBenchmarkTest {
+
+    private static final int MESSAGES = 500;
+    private static final long CONNECT_DELAY_MILLIS = 20;
+
+    @Test
+    void comparePerMessageAndPooledDelivery() throws Exception {
+        try (LocalSmtpServer server = new LocalSmtpServer(CONNECT_DELAY_MILLIS, Integer.MAX_VALUE)) {
+            JavaMailSenderImpl mailSender = SmtpDeliveryEngineTest.mailSender(server.getPort());
+
+            long start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                mailSender.send(SmtpDeliveryEngineTest.message(mailSender, i));
+            }
+            double perMessageRate = rate(start);
+
+            SmtpDeliveryEngine engine = new SmtpDeliveryEngine(mailSender, 3, 20, MESSAGES, 30000);
+            engine.start();
+            try {
+                start = System.nanoTime();
+                List<CompletableFuture<Boolean>> results = new ArrayList<>(MESSAGES);
+                for (int i = 0; i < MESSAGES; i++) {
+                    MimeMessage message = SmtpDeliveryEngineTest.message(mailSender, i);
+                    results.add(engine.submit(message));
+                }
+                for (CompletableFuture<Boolean> result : results) {
+                    result.get(30, TimeUnit.SECONDS);
+                }
+                double pooledRate = rate(start);
+
+                MailDeliveryMetrics.Snapshot snapshot = engine.getMetrics().snapshot();
+                System.out.printf("Per-message path: %.1f msg/s%n", perMessageRate);
+                System.out.printf("Pooled engine:    %.1f msg/s (%d connections, %d batches, avg latency %d ms, max %d ms)%n",
+                        pooledRate, snapshot.connects(), snapshot.batches(),
+                        snapshot.averageLatencyMillis(), snapshot.maxLatencyMillis());
+                System.out.printf("Speedup:          %.1fx%n", pooledRate / perMessageRate);
+
+                assertEquals(MESSAGES * 2, server.getMessageCount());
+            } finally {
+                engine.stop();
+            }
+        }
+    }
+
+    private static double rate(long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return MESSAGES / seconds;
+    }
+}
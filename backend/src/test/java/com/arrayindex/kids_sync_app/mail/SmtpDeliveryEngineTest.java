@@ -0,0 +1,117 @@
+package com.arrayindex.kids_sync_app.mail;
+
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SmtpDeliveryEngineTest {
+
+    private LocalSmtpServer server;
+    private SmtpDeliveryEngine engine;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (engine != null) {
+            engine.stop();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void testMessagesReuseConnections() throws Exception {
+        server = new LocalSmtpServer(0, Integer.MAX_VALUE);
+        JavaMailSenderImpl mailSender = mailSender(server.getPort());
+        engine = new SmtpDeliveryEngine(mailSender, 2, 10, 100, 30000);
+        engine.start();
+
+        sendAll(mailSender, 40);
+
+        assertEquals(40, server.getMessageCount());
+        assertTrue(server.getConnectionCount() <= 2, "connections: " + server.getConnectionCount());
+        assertEquals(40, engine.getMetrics().snapshot().sent());
+    }
+
+    @Test
+    void testRecentlyUsedConnectionIsNotProbed() throws Exception {
+        server = new LocalSmtpServer(0, Integer.MAX_VALUE);
+        JavaMailSenderImpl mailSender = mailSender(server.getPort());
+        engine = new SmtpDeliveryEngine(mailSender, 1, 10, 100, 30000);
+        engine.start();
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(engine.submit(message(mailSender, i)).get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(5, server.getMessageCount());
+        assertEquals(0, server.getNoopCount());
+    }
+
+    @Test
+    void testDroppedConnectionIsReopened() throws Exception {
+        server = new LocalSmtpServer(0, 3);
+        JavaMailSenderImpl mailSender = mailSender(server.getPort());
+        engine = new SmtpDeliveryEngine(mailSender, 1, 10, 100, 30000);
+        engine.start();
+
+        sendAll(mailSender, 10);
+
+        assertEquals(10, server.getMessageCount());
+        assertTrue(engine.getMetrics().snapshot().connects() >= 4);
+        assertEquals(0, engine.getMetrics().snapshot().failed());
+    }
+
+    @Test
+    void testWithdrawnMessageIsNotSent() throws Exception {
+        server = new LocalSmtpServer(300, Integer.MAX_VALUE);
+        JavaMailSenderImpl mailSender = mailSender(server.getPort());
+        engine = new SmtpDeliveryEngine(mailSender, 1, 10, 100, 30000);
+        engine.start();
+
+        CompletableFuture<Boolean> first = engine.submit(message(mailSender, 0));
+        CompletableFuture<Boolean> withdrawn = engine.submit(message(mailSender, 1));
+        CompletableFuture<Boolean> last = engine.submit(message(mailSender, 2));
+        assertTrue(withdrawn.cancel(false));
+
+        assertTrue(first.get(10, TimeUnit.SECONDS));
+        assertTrue(last.get(10, TimeUnit.SECONDS));
+        assertEquals(2, server.getMessageCount());
+    }
+
+    private void sendAll(JavaMailSenderImpl mailSender, int count) throws Exception {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(engine.submit(message(mailSender, i)));
+        }
+        for (CompletableFuture<Boolean> result : results) {
+            assertTrue(result.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    static JavaMailSenderImpl mailSender(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        return mailSender;
+    }
+
+    static MimeMessage message(JavaMailSenderImpl mailSender, int i) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message);
+        helper.setFrom("noreply@example.com");
+        helper.setTo("parent" + i + "@example.com");
+        helper.setSubject("Reminder: Event " + i);
+        helper.setText("Don't forget to prepare!");
+        return message;
+    }
+}
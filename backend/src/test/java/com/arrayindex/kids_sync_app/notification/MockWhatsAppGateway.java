@@ -0,0 +1,85 @@
+package com.arrayindex.kids_sync_app.notification;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process WhatsApp gateway for tests and benchmarks.
+ *
+ * It answers every {@code POST /messages} with a fixed status after an optional delay
+ * standing in for the gateway's processing time, and records the request bodies and
+ * authorization headers it received.
+ */
+class MockWhatsAppGateway implements AutoCloseable {
+
+    private final HttpServer server;
+    // Platform threads: the JDK server can stall keep-alive connections when run on virtual threads
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger messages = new AtomicInteger();
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+
+    MockWhatsAppGateway(long delayMillis, boolean recordRequests) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 200);
+        server.setExecutor(executor);
+        server.createContext("/messages", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                String content = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                if (recordRequests) {
+                    bodies.add(content);
+                    authorizations.add(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+                }
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                messages.incrementAndGet();
+                byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, response.length);
+                exchange.getResponseBody().write(response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/messages";
+    }
+
+    void setStatus(int status) {
+        this.status = status;
+    }
+
+    int getMessageCount() {
+        return messages.get();
+    }
+
+    List<String> getBodies() {
+        return bodies;
+    }
+
+    List<String> getAuthorizations() {
+        return authorizations;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
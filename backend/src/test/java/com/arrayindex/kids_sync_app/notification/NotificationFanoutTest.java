@@ -0,0 +1,117 @@
+package com.arrayindex.kids_sync_app.notification;
+
+import com.arrayindex.kids_sync_app.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationFanoutTest {
+
+    private final User user = new User("parent@example.com", "password", "+4915112345678");
+    private final Notification notification = new Notification(List.of(), 60, Duration.ZERO);
+
+    @Test
+    void testChannelsAreSentInParallel() {
+        FakeChannel email = new FakeChannel("email", 1000, 1, 5, attempt -> sleep(200));
+        FakeChannel whatsapp = new FakeChannel("whatsapp", 1000, 1, 5, attempt -> sleep(200));
+        NotificationFanout fanout = new NotificationFanout(List.of(email, whatsapp));
+
+        long start = System.nanoTime();
+        assertTrue(fanout.send(notification, user));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(1, email.attempts.get());
+        assertEquals(1, whatsapp.attempts.get());
+        assertTrue(elapsedMillis < 380, "channels should not run one after the other, took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testFailedAttemptsAreRetried() {
+        FakeChannel whatsapp = new FakeChannel("whatsapp", 1000, 3, 5, attempt -> attempt == 3);
+        NotificationFanout fanout = new NotificationFanout(List.of(whatsapp));
+
+        assertTrue(fanout.send(notification, user));
+        assertEquals(3, whatsapp.attempts.get());
+        assertEquals(2L, fanout.getStats().get("whatsapp").get("retries"));
+    }
+
+    @Test
+    void testCircuitOpensAfterRepeatedFailures() {
+        FakeChannel whatsapp = new FakeChannel("whatsapp", 1000, 1, 2, attempt -> false);
+        NotificationFanout fanout = new NotificationFanout(List.of(whatsapp));
+
+        fanout.send(notification, user);
+        fanout.send(notification, user);
+        assertFalse(fanout.send(notification, user));
+
+        // The third notification is rejected without calling the channel
+        assertEquals(2, whatsapp.attempts.get());
+        assertEquals(CircuitBreaker.State.OPEN, fanout.getStats().get("whatsapp").get("circuit"));
+        assertEquals(1L, fanout.getStats().get("whatsapp").get("rejected"));
+    }
+
+    @Test
+    void testSlowChannelTimesOutWithoutBlockingOthers() {
+        FakeChannel email = new FakeChannel("email", 1000, 1, 5, attempt -> true);
+        FakeChannel whatsapp = new FakeChannel("whatsapp", 100, 1, 5, attempt -> sleep(5000));
+        NotificationFanout fanout = new NotificationFanout(List.of(email, whatsapp));
+
+        long start = System.nanoTime();
+        assertTrue(fanout.send(notification, user));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 1000, "timed out channel held the send for " + elapsedMillis + " ms");
+        assertEquals(1L, fanout.getStats().get("whatsapp").get("failed"));
+        assertEquals(1L, fanout.getStats().get("email").get("delivered"));
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class FakeChannel implements NotificationChannel {
+
+        private final String name;
+        private final ChannelPolicy policy;
+        private final IntPredicate outcome;
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        FakeChannel(String name, long timeoutMillis, int maxAttempts, int failureThreshold, IntPredicate outcome) {
+            this.name = name;
+            this.policy = new ChannelPolicy(Duration.ofMillis(timeoutMillis), maxAttempts, Duration.ofMillis(1),
+                    failureThreshold, Duration.ofMinutes(1));
+            this.outcome = outcome;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public ChannelPolicy getPolicy() {
+            return policy;
+        }
+
+        @Override
+        public boolean isEnabledFor(User user) {
+            return true;
+        }
+
+        @Override
+        public boolean send(Notification notification, User user) {
+            return outcome.test(attempts.incrementAndGet());
+        }
+    }
+}
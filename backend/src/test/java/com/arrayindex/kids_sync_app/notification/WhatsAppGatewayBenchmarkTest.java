@@ -0,0 +1,80 @@
+package com.arrayindex.kids_sync_app.notification;
+
+import com.arrayindex.kids_sync_app.config.RestTemplateConfig;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares gateway throughput of a {@code SimpleClientHttpRequestFactory} client, which
+ * only keeps a handful of idle connections per host, with the pooled keep-alive client from
+ * {@link RestTemplateConfig} against the local mock gateway.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class WhatsAppGatewayBenchmarkTest {
+
+    private static final int MESSAGES = 2000;
+    private static final int CONCURRENCY = 50;
+    private static final long GATEWAY_DELAY_MILLIS = 20;
+
+    @Test
+    void compareSimpleAndPooledClients() throws Exception {
+        try (MockWhatsAppGateway gateway = new MockWhatsAppGateway(GATEWAY_DELAY_MILLIS, false)) {
+            SimpleClientHttpRequestFactory simpleFactory = new SimpleClientHttpRequestFactory();
+            simpleFactory.setConnectTimeout(5000);
+            simpleFactory.setReadTimeout(5000);
+            RestClient simple = RestClient.builder().requestFactory(simpleFactory).build();
+            RestClient pooled = new RestTemplateConfig().restClient(5000, 5000);
+
+            // Warm up both clients before measuring
+            run(simple, gateway.getUrl(), 200);
+            run(pooled, gateway.getUrl(), 200);
+
+            double simpleRate = run(simple, gateway.getUrl(), MESSAGES);
+            double pooledRate = run(pooled, gateway.getUrl(), MESSAGES);
+
+            System.out.printf("Simple client: %.0f msg/s%n", simpleRate);
+            System.out.printf("Pooled client: %.0f msg/s%n", pooledRate);
+            assertEquals(2 * (MESSAGES + 200), gateway.getMessageCount());
+        }
+    }
+
+    private static double run(RestClient client, String url, int messages) throws Exception {
+        Semaphore concurrency = new Semaphore(CONCURRENCY);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> sends = new ArrayList<>(messages);
+            for (int i = 0; i < messages; i++) {
+                String to = "+49151" + i;
+                sends.add(executor.submit(() -> {
+                    concurrency.acquire();
+                    try {
+                        client.post().uri(url).contentType(MediaType.APPLICATION_JSON)
+                                .body(Map.of("to", to, "text", "Reminder: Swimming on Mon 10 Mar, 4:30 PM"))
+                                .retrieve().toBodilessEntity();
+                    } finally {
+                        concurrency.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> send : sends) {
+                send.get();
+            }
+        }
+        return messages / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,86 @@
+package com.arrayindex.kids_sync_app.notification;
+
+import com.arrayindex.kids_sync_app.config.RestTemplateConfig;
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WhatsAppNotificationChannelTest {
+
+    private MockWhatsAppGateway gateway;
+    private WhatsAppNotificationChannel channel;
+    private User user;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        gateway = new MockWhatsAppGateway(0, true);
+        channel = new WhatsAppNotificationChannel(new RestTemplateConfig().restClient(2000, 2000), true,
+                gateway.getUrl(), "secret", 3000, 3, 10, 5, 60);
+        user = new User("parent@example.com", "password", "+4915112345678");
+    }
+
+    @AfterEach
+    void tearDown() {
+        gateway.close();
+    }
+
+    @Test
+    void testPostsMessageToGateway() {
+        assertTrue(channel.send(notification(event("Swimming")), user));
+
+        assertEquals(1, gateway.getMessageCount());
+        String body = gateway.getBodies().get(0);
+        assertTrue(body.contains("\"to\":\"+4915112345678\""), body);
+        assertTrue(body.contains("Reminder: Swimming on Mon 10 Mar, 4:30 PM"), body);
+        assertEquals("Bearer secret", gateway.getAuthorizations().get(0));
+    }
+
+    @Test
+    void testDigestListsEveryEvent() {
+        String text = WhatsAppNotificationChannel.formatMessage(notification(event("Swimming"), event("Piano")));
+
+        assertEquals("Reminders:\n- Swimming on Mon 10 Mar, 4:30 PM\n- Piano on Mon 10 Mar, 4:30 PM", text);
+    }
+
+    @Test
+    void testGatewayErrorIsRetriedByFanout() {
+        gateway.setStatus(503);
+        assertThrows(RestClientException.class, () -> channel.send(notification(event("Swimming")), user));
+
+        NotificationFanout fanout = new NotificationFanout(List.of(channel));
+        assertFalse(fanout.send(notification(event("Swimming")), user));
+
+        // One direct attempt plus three through the fan-out
+        assertEquals(4, gateway.getMessageCount());
+        assertEquals(2L, fanout.getStats().get("whatsapp").get("retries"));
+    }
+
+    @Test
+    void testUsersWithoutNumberAreSkipped() {
+        assertFalse(channel.isEnabledFor(new User("parent@example.com", "password", null)));
+        assertFalse(new WhatsAppNotificationChannel(new RestTemplateConfig().restClient(2000, 2000), false,
+                gateway.getUrl(), "", 1000, 3, 10, 5, 60).isEnabledFor(user));
+    }
+
+    private static Notification notification(Event... events) {
+        return new Notification(List.of(events), 60, Duration.ZERO);
+    }
+
+    private static Event event(String name) {
+        Event event = new Event();
+        event.setId(name.toLowerCase());
+        event.setName(name);
+        event.setDateTime(LocalDateTime.of(2025, 3, 10, 16, 30));
+        return event;
+    }
+}
@@ -0,0 +1,56 @@
+package com.arrayindex.kids_sync_app.recurrence;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures expanding a year of a user's weekly events into occurrences.
+ *
+ * The series start five years before the window, so the cost of jumping to the
+ * window is included. Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class OccurrenceExpansionBenchmarkTest {
+
+    private static final int SERIES = 10;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    @Test
+    void expandOneYearOfWeeklyEvents() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = from.plusYears(1);
+
+        List<Event> series = new ArrayList<>();
+        for (int i = 0; i < SERIES; i++) {
+            Event event = new Event();
+            event.setId("series" + i);
+            event.setName("Activity " + i);
+            event.setUserId("parent@example.com");
+            event.setRecurrence("WEEKLY");
+            event.setDateTime(from.minusYears(5).plusDays(i).plusHours(15));
+            series.add(event);
+        }
+
+        int occurrences = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            occurrences = Occurrences.expandAll(series, from, to).size();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            occurrences = Occurrences.expandAll(series, from, to).size();
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+
+        System.out.printf("Expanded %d weekly series into %d occurrences in %.1f us%n", SERIES, occurrences, micros);
+        assertEquals(SERIES * 52, occurrences, 1.0 * SERIES);
+    }
+}
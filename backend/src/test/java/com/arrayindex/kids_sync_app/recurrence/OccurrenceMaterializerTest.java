@@ -0,0 +1,133 @@
+package com.arrayindex.kids_sync_app.recurrence;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.EventOccurrence;
+import com.arrayindex.kids_sync_app.model.OccurrenceHorizon;
+import com.arrayindex.kids_sync_app.repository.EventOccurrenceRepository;
+import com.arrayindex.kids_sync_app.repository.EventRepository;
+import com.arrayindex.kids_sync_app.repository.OccurrenceHorizonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class OccurrenceMaterializerTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventOccurrenceRepository occurrenceRepository;
+
+    @Mock
+    private OccurrenceHorizonRepository horizonRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private OccurrenceMaterializer materializer;
+
+    private final LocalDateTime today = LocalDate.now().atStartOfDay();
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EventOccurrence.class)).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void testFirstStartBuildsHorizon() {
+        Event weekly = event("weekly1", "WEEKLY", today.minusWeeks(10).plusHours(16));
+        Event dentist = event("dentist1", "NONE", today.plusDays(3).plusHours(9));
+        when(horizonRepository.findById(OccurrenceHorizon.ID)).thenReturn(Optional.empty());
+        when(eventRepository.findByDateTimeBetween(any(), any())).thenReturn(List.of(dentist));
+        when(eventRepository.findRecurringActiveBetween(any(), any())).thenReturn(List.of(weekly));
+
+        materializer.initialize();
+
+        // 90 days of a weekly series plus the one-off event
+        verify(bulkOperations, times(14)).replaceOne(any(Query.class), any(EventOccurrence.class),
+                any(FindAndReplaceOptions.class));
+        verify(bulkOperations).execute();
+        verify(horizonRepository).save(any(OccurrenceHorizon.class));
+        assertTrue(materializer.covers(today, today.plusDays(30)));
+        assertFalse(materializer.covers(today.minusDays(1), today.plusDays(30)));
+        assertFalse(materializer.covers(today, today.plusDays(91)));
+    }
+
+    @Test
+    void testNightlyExtensionOnlyWritesNewSlice() {
+        LocalDateTime storedThrough = today.plusDays(89);
+        when(horizonRepository.findById(OccurrenceHorizon.ID))
+                .thenReturn(Optional.of(new OccurrenceHorizon(OccurrenceHorizon.ID, today.minusDays(1), storedThrough)));
+        when(eventRepository.findRecurringActiveBetween(any(), any()))
+                .thenReturn(List.of(event("daily1", "DAILY", today.minusDays(5).plusHours(7))));
+
+        materializer.initialize();
+
+        // Only the day that moved into the horizon is expanded
+        verify(eventRepository).findRecurringActiveBetween(storedThrough.plusNanos(1), today.plusDays(90));
+        verify(bulkOperations, times(1)).replaceOne(any(Query.class), any(EventOccurrence.class),
+                any(FindAndReplaceOptions.class));
+
+        ArgumentCaptor<OccurrenceHorizon> saved = ArgumentCaptor.forClass(OccurrenceHorizon.class);
+        verify(horizonRepository).save(saved.capture());
+        assertEquals(today.plusDays(90), saved.getValue().getMaterializedThrough());
+    }
+
+    @Test
+    void testRebuildSeriesReplacesOnlyThatEvent() {
+        when(horizonRepository.findById(OccurrenceHorizon.ID))
+                .thenReturn(Optional.of(new OccurrenceHorizon(OccurrenceHorizon.ID, today, today.plusDays(90))));
+        materializer.initialize();
+
+        // The rule changed from weekly to daily
+        materializer.rebuildSeries(event("series1", "DAILY", today.plusHours(8)));
+
+        verify(occurrenceRepository).deleteByEventId("series1");
+        verify(bulkOperations, times(90)).replaceOne(any(Query.class), any(EventOccurrence.class),
+                any(FindAndReplaceOptions.class));
+    }
+
+    @Test
+    void testNothingWrittenBeforeInitialization() {
+        materializer.rebuildSeries(event("series1", "DAILY", today.plusHours(8)));
+
+        verifyNoInteractions(occurrenceRepository);
+        assertFalse(materializer.covers(today, today.plusDays(1)));
+    }
+
+    private static Event event(String id, String recurrence, LocalDateTime dateTime) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName("Event " + id);
+        event.setUserId("parent@example.com");
+        event.setRecurrence(recurrence);
+        event.setDateTime(dateTime);
+        return event;
+    }
+}
@@ -0,0 +1,94 @@
+package com.arrayindex.kids_sync_app.recurrence;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OccurrencesTest {
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(2025, 1, 6, 15, 30);
+
+    @Test
+    void testWeeklyOccurrencesInsideWindow() {
+        Event soccer = series("WEEKLY", null);
+
+        List<Event> occurrences = Occurrences.expand(soccer,
+                LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 3, 31, 23, 59));
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 3, 3, 15, 30),
+                LocalDateTime.of(2025, 3, 10, 15, 30),
+                LocalDateTime.of(2025, 3, 17, 15, 30),
+                LocalDateTime.of(2025, 3, 24, 15, 30),
+                LocalDateTime.of(2025, 3, 31, 15, 30)), times(occurrences));
+        assertTrue(occurrences.stream().allMatch(occurrence -> "series1".equals(occurrence.getId())));
+    }
+
+    @Test
+    void testRecurrenceEndDateIsInclusive() {
+        Event piano = series("DAILY", LocalDateTime.of(2025, 1, 8, 0, 0));
+
+        List<Event> occurrences = Occurrences.expand(piano, FIRST.minusDays(1), FIRST.plusDays(30));
+
+        assertEquals(3, occurrences.size());
+        assertSame(piano, occurrences.get(0));
+        assertEquals(LocalDateTime.of(2025, 1, 8, 15, 30), occurrences.get(2).getDateTime());
+    }
+
+    @Test
+    void testMonthlyOccurrencesDoNotDrift() {
+        Event rent = series("MONTHLY", null);
+        rent.setDateTime(LocalDateTime.of(2025, 1, 31, 9, 0));
+
+        List<Event> occurrences = Occurrences.expand(rent,
+                LocalDateTime.of(2025, 2, 1, 0, 0), LocalDateTime.of(2025, 4, 30, 23, 59));
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 2, 28, 9, 0),
+                LocalDateTime.of(2025, 3, 31, 9, 0),
+                LocalDateTime.of(2025, 4, 30, 9, 0)), times(occurrences));
+    }
+
+    @Test
+    void testOneOffEvent() {
+        Event dentist = series("NONE", null);
+
+        assertEquals(List.of(dentist), Occurrences.expand(dentist, FIRST.minusHours(1), FIRST.plusHours(1)));
+        assertTrue(Occurrences.expand(dentist, FIRST.plusMinutes(1), FIRST.plusDays(7)).isEmpty());
+        assertFalse(Occurrences.isRecurring(dentist));
+    }
+
+    @Test
+    void testExpandAllOrdersByTime() {
+        Event weekly = series("WEEKLY", null);
+        Event daily = series("daily", null);
+        daily.setId("series2");
+        daily.setDateTime(FIRST.plusHours(1));
+
+        List<Event> occurrences = Occurrences.expandAll(List.of(weekly, daily), FIRST, FIRST.plusDays(7).plusHours(2));
+
+        assertEquals(10, occurrences.size());
+        for (int i = 1; i < occurrences.size(); i++) {
+            assertFalse(occurrences.get(i).getDateTime().isBefore(occurrences.get(i - 1).getDateTime()));
+        }
+    }
+
+    private static Event series(String recurrence, LocalDateTime endDate) {
+        Event event = new Event();
+        event.setId("series1");
+        event.setName("Soccer");
+        event.setUserId("parent@example.com");
+        event.setDateTime(FIRST);
+        event.setRecurrence(recurrence);
+        event.setRecurrenceEndDate(endDate);
+        return event;
+    }
+
+    private static List<LocalDateTime> times(List<Event> occurrences) {
+        return occurrences.stream().map(Event::getDateTime).toList();
+    }
+}
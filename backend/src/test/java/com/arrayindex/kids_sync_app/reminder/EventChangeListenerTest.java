@@ -0,0 +1,170 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.ChangeStreamCheckpoint;
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.service.ReminderService;
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class EventChangeListenerTest {
+
+    private static final String TOKEN = "{\"_data\": \"8264A1B2C3000000012B022C0100296E5A1004\"}";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ReminderService reminderService;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @Mock
+    private ChangeStreamIterable<Document> stream;
+
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    @Mock
+    private MongoConverter converter;
+
+    @Mock
+    private ReminderSnapshotStore snapshotStore;
+
+    private EventChangeListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new EventChangeListener(mongoTemplate, reminderService, snapshotStore, true, "node-a", 1000);
+        when(mongoTemplate.getCollectionName(Event.class)).thenReturn("events");
+        when(mongoTemplate.getCollection("events")).thenReturn(collection);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(collection.watch()).thenReturn(stream);
+        when(stream.fullDocument(FullDocument.UPDATE_LOOKUP)).thenReturn(stream);
+        when(stream.resumeAfter(any(BsonDocument.class))).thenReturn(stream);
+        when(stream.cursor()).thenReturn(cursor);
+        when(cursor.tryNext()).thenAnswer(invocation -> {
+            Thread.sleep(10);
+            return null;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Test
+    void testResumesFromStoredPosition() {
+        when(mongoTemplate.findById("events:node-a", ChangeStreamCheckpoint.class))
+                .thenReturn(new ChangeStreamCheckpoint("events:node-a", TOKEN, Instant.now()));
+
+        listener.start();
+        listener.startReading();
+
+        assertTrue(listener.isRunning());
+        verify(stream).resumeAfter(BsonDocument.parse(TOKEN));
+    }
+
+    @Test
+    void testReplaysChangesSinceSnapshot() {
+        String snapshotToken = "{\"_data\": \"8264A1B2AA000000012B022C0100296E5A1004\"}";
+        when(snapshotStore.restorable()).thenReturn(Optional.of(
+                new ReminderSnapshot(Instant.now(), LocalDateTime.now(), snapshotToken,
+                        new ReminderIndex().entries(), List.of())));
+        when(mongoTemplate.findById("events:node-a", ChangeStreamCheckpoint.class))
+                .thenReturn(new ChangeStreamCheckpoint("events:node-a", TOKEN, Instant.now()));
+
+        listener.start();
+
+        // The snapshot is older than the checkpoint, so the stream starts at the snapshot
+        verify(stream).resumeAfter(BsonDocument.parse(snapshotToken));
+        verify(snapshotStore, never()).discard();
+    }
+
+    @Test
+    void testChangesUpdateReminderIndex() {
+        Event event = new Event();
+        event.setId("event1");
+        Document document = new Document("name", "Swimming");
+        when(converter.read(Event.class, document)).thenReturn(event);
+        ObjectId deletedId = new ObjectId();
+
+        listener.apply(change(OperationType.INSERT, document, null));
+        listener.apply(change(OperationType.UPDATE, null, null));
+        listener.apply(change(OperationType.DELETE, null, new BsonDocument("_id", new BsonObjectId(deletedId))));
+
+        // An update whose document is already gone waits for the delete
+        verify(reminderService, times(1)).scheduleReminder(event);
+        verify(reminderService).cancelReminder(deletedId.toHexString());
+    }
+
+    @Test
+    void testPositionStoredOnStop() {
+        listener.start();
+        listener.startReading();
+        listener.apply(change(OperationType.DELETE, null, new BsonDocument("_id", new BsonObjectId())));
+
+        listener.stop();
+
+        ArgumentCaptor<ChangeStreamCheckpoint> saved = ArgumentCaptor.forClass(ChangeStreamCheckpoint.class);
+        verify(mongoTemplate, atLeastOnce()).save(saved.capture());
+        assertEquals("events:node-a", saved.getValue().getId());
+        assertEquals(BsonDocument.parse(TOKEN), BsonDocument.parse(saved.getValue().getResumeToken()));
+    }
+
+    @Test
+    void testStandaloneServerLeavesListenerOff() {
+        when(stream.cursor()).thenThrow(new MongoCommandException(
+                BsonDocument.parse("{\"ok\": 0, \"code\": 40573, \"errmsg\": \"replica sets only\"}"),
+                new ServerAddress()));
+
+        listener.start();
+
+        // Without a change stream the changes since a snapshot cannot be replayed
+        assertFalse(listener.isRunning());
+        verify(snapshotStore).discard();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamDocument<Document> change(OperationType type, Document fullDocument, BsonDocument key) {
+        ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+        when(change.getOperationType()).thenReturn(type);
+        when(change.getFullDocument()).thenReturn(fullDocument);
+        when(change.getDocumentKey()).thenReturn(key);
+        when(change.getResumeToken()).thenReturn(BsonDocument.parse(TOKEN));
+        return change;
+    }
+}
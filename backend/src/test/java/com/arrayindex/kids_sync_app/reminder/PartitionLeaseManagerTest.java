@@ -0,0 +1,119 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.PartitionLease;
+import com.arrayindex.kids_sync_app.model.ReminderNode;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class PartitionLeaseManagerTest {
+
+    private static final UpdateResult CLAIMED = UpdateResult.acknowledged(1, 1L, null);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void testPartitionOfIsStableAndInRange() {
+        assertEquals(PartitionLeaseManager.partitionOf("parent@example.com", 16),
+                PartitionLeaseManager.partitionOf("parent@example.com", 16));
+        IntStream.range(0, 1000).forEach(i -> {
+            int partition = PartitionLeaseManager.partitionOf("user" + i + "@example.com", 16);
+            assertTrue(partition >= 0 && partition < 16);
+        });
+    }
+
+    @Test
+    void testDisabledOwnsEverything() {
+        PartitionLeaseManager manager = new PartitionLeaseManager(mongoTemplate, false, 16, 30, "node-a");
+
+        manager.start();
+        manager.renewLeases();
+
+        assertTrue(manager.owns("parent@example.com"));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testClaimsFairShareOfFreePartitions() {
+        PartitionLeaseManager manager = new PartitionLeaseManager(mongoTemplate, true, 4, 30, "node-a");
+        when(mongoTemplate.count(any(Query.class), eq(ReminderNode.class))).thenReturn(2L);
+        when(mongoTemplate.findAll(PartitionLease.class)).thenReturn(leases(null, null, null, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(PartitionLease.class))).thenReturn(CLAIMED);
+
+        manager.renewLeases();
+
+        // Two nodes are alive, so this node stops at half of the partitions
+        assertEquals(2, manager.getOwnedPartitions().size());
+        verify(mongoTemplate).save(any(ReminderNode.class));
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(PartitionLease.class));
+    }
+
+    @Test
+    void testReleasesSurplusWhenNodeJoins() {
+        PartitionLeaseManager manager = new PartitionLeaseManager(mongoTemplate, true, 4, 30, "node-a");
+        when(mongoTemplate.count(any(Query.class), eq(ReminderNode.class))).thenReturn(2L);
+        when(mongoTemplate.findAll(PartitionLease.class)).thenReturn(leases("node-a", "node-a", "node-a", "node-a"));
+
+        manager.renewLeases();
+
+        assertEquals(Set.of(0, 1), manager.getOwnedPartitions());
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(PartitionLease.class));
+    }
+
+    @Test
+    void testTakesOverExpiredLeases() {
+        PartitionLeaseManager manager = new PartitionLeaseManager(mongoTemplate, true, 2, 30, "node-b");
+        when(mongoTemplate.count(any(Query.class), eq(ReminderNode.class))).thenReturn(1L);
+        when(mongoTemplate.findAll(PartitionLease.class)).thenReturn(List.of(
+                new PartitionLease(0, "node-a", Instant.now().minusSeconds(5)),
+                new PartitionLease(1, "node-a", Instant.now().minusSeconds(5))));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(PartitionLease.class))).thenReturn(CLAIMED);
+
+        manager.renewLeases();
+
+        assertEquals(Set.of(0, 1), manager.getOwnedPartitions());
+        assertTrue(manager.owns("parent@example.com"));
+    }
+
+    @Test
+    void testLosingClaimRaceOwnsNothing() {
+        PartitionLeaseManager manager = new PartitionLeaseManager(mongoTemplate, true, 2, 30, "node-a");
+        when(mongoTemplate.count(any(Query.class), eq(ReminderNode.class))).thenReturn(1L);
+        when(mongoTemplate.findAll(PartitionLease.class)).thenReturn(leases(null, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(PartitionLease.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        manager.renewLeases();
+
+        // Another node claimed the partitions first
+        assertTrue(manager.getOwnedPartitions().isEmpty());
+        assertFalse(manager.owns("parent@example.com"));
+    }
+
+    private static List<PartitionLease> leases(String... owners) {
+        Instant future = Instant.now().plusSeconds(20);
+        return IntStream.range(0, owners.length)
+                .mapToObj(i -> new PartitionLease(i, owners[i], owners[i] == null ? Instant.EPOCH : future))
+                .toList();
+    }
+}
@@ -0,0 +1,168 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReminderDispatcherTest {
+
+    private final ReminderDispatcher dispatcher = new ReminderDispatcher(4, 5000);
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testSendsForOneRecipientStayInOrder() {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        List<String> reminders = IntStream.range(0, 20).mapToObj(i -> "a@example.com:" + i).toList();
+
+        dispatcher.dispatch(reminders, reminder -> delivery(reminder.split(":")[0], 5), reminder -> {
+            sleep(1);
+            sent.add(reminder);
+        }, reminder -> fail("not late"));
+
+        assertEquals(reminders, sent);
+    }
+
+    @Test
+    void testInFlightSendsAreCapped() {
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<String> reminders = IntStream.range(0, 40).mapToObj(i -> "user" + i + "@example.com").toList();
+
+        dispatcher.dispatch(reminders, reminder -> delivery(reminder, 5), reminder -> {
+            peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+            sleep(10);
+            current.decrementAndGet();
+        }, reminder -> fail("not late"));
+
+        assertTrue(peak.get() <= 4, "peak in-flight was " + peak.get());
+        assertTrue(peak.get() > 1, "sends should overlap");
+    }
+
+    @Test
+    void testRoutineBurstLeavesPermitsForUrgentLane() {
+        AtomicInteger routineRunning = new AtomicInteger();
+        AtomicInteger routinePeak = new AtomicInteger();
+        AtomicInteger routineStarted = new AtomicInteger();
+        List<Integer> seenByUrgent = new ArrayList<>();
+        List<String> reminders = new ArrayList<>();
+        IntStream.range(0, 20).forEach(i -> reminders.add("routine" + i + "@example.com"));
+        reminders.add("urgent@example.com");
+
+        dispatcher.dispatch(reminders,
+                reminder -> delivery(reminder, reminder.startsWith("urgent") ? 5 : 24 * 60),
+                reminder -> {
+                    if (reminder.startsWith("urgent")) {
+                        seenByUrgent.add(routineStarted.get());
+                        return;
+                    }
+                    routineStarted.incrementAndGet();
+                    routinePeak.accumulateAndGet(routineRunning.incrementAndGet(), Math::max);
+                    sleep(20);
+                    routineRunning.decrementAndGet();
+                },
+                reminder -> fail("not late"));
+
+        // Of 4 permits, 1 is reserved for the urgent lane and 1 more for the soon lane
+        assertTrue(routinePeak.get() <= 2, "routine peak in-flight was " + routinePeak.get());
+        assertEquals(1, seenByUrgent.size());
+        assertTrue(seenByUrgent.get(0) < 20, "urgent reminder waited behind the routine burst");
+        assertEquals(1L, dispatcher.getLaneStats().get(ReminderLane.URGENT).get("sent"));
+        assertEquals(20L, dispatcher.getLaneStats().get(ReminderLane.ROUTINE).get("sent"));
+    }
+
+    @Test
+    void testSoonAndRoutineTogetherLeaveUrgentShare() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        List<String> reminders = new ArrayList<>();
+        IntStream.range(0, 10).forEach(i -> reminders.add("soon" + i + "@example.com"));
+        IntStream.range(0, 10).forEach(i -> reminders.add("routine" + i + "@example.com"));
+
+        Thread burst = Thread.ofPlatform().start(() -> dispatcher.dispatch(reminders,
+                reminder -> delivery(reminder, reminder.startsWith("soon") ? 4 * 60 : 24 * 60),
+                reminder -> {
+                    running.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                },
+                reminder -> fail("not late")));
+
+        // Of 4 permits, the soon and routine lanes together may hold at most 3
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (running.get() < 3 && System.nanoTime() < deadline) {
+            sleep(5);
+        }
+        sleep(50);
+        assertEquals(3, running.get());
+
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+        dispatcher.dispatch(List.of("urgent@example.com"), reminder -> delivery(reminder, 5), sent::add,
+                reminder -> fail("not late"));
+
+        assertEquals(List.of("urgent@example.com"), sent);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, "urgent send waited for a permit");
+
+        release.countDown();
+        burst.join(10_000);
+    }
+
+    @Test
+    void testLateDeliveryIsDroppedAsMissed() {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        List<String> missed = Collections.synchronizedList(new ArrayList<>());
+        LocalDateTime now = LocalDateTime.now();
+
+        dispatcher.dispatch(List.of("late", "on-time"),
+                reminder -> new ReminderDispatcher.Delivery(reminder, 5, now.minusMinutes(10),
+                        reminder.equals("late") ? now.minusMinutes(1) : now.plusMinutes(5)),
+                sent::add, missed::add);
+
+        assertEquals(List.of("on-time"), sent);
+        assertEquals(List.of("late"), missed);
+        assertEquals(1L, dispatcher.getLaneStats().get(ReminderLane.URGENT).get("missed"));
+
+        // Due ten minutes ago against a two minute target
+        long behind = (long) dispatcher.getLaneStats().get(ReminderLane.URGENT).get("behindSloMillis");
+        assertTrue(behind >= 8 * 60_000, "lane should be about 8 minutes behind, was " + behind + " ms");
+    }
+
+    @Test
+    void testLanesByLeadTime() {
+        assertEquals(ReminderLane.URGENT, dispatcher.laneFor(5));
+        assertEquals(ReminderLane.URGENT, dispatcher.laneFor(60));
+        assertEquals(ReminderLane.SOON, dispatcher.laneFor(240));
+        assertEquals(ReminderLane.ROUTINE, dispatcher.laneFor(24 * 60));
+    }
+
+    private static ReminderDispatcher.Delivery delivery(String recipient, int leadMinutes) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ReminderDispatcher.Delivery(recipient, leadMinutes, now, now.plusMinutes(leadMinutes));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
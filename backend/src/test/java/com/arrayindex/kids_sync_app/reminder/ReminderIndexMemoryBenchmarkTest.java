@@ -0,0 +1,80 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.ReminderWindow;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the heap retained per pending reminder by the compact reminder index, compared
+ * with keeping the events of a million pending reminders in a {@code List<Event>}.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class ReminderIndexMemoryBenchmarkTest {
+
+    private static final int EVENTS = 200_000;
+    private static final int USERS = 20_000;
+    private static final int REMINDERS = 1_000_000;
+
+    @Test
+    void bytesPerPendingReminder() throws InterruptedException {
+        ReminderSchedule schedule = ReminderSchedule.compile(List.of(
+                new ReminderWindow("24h", 20, 24, true, "24 hours before"),
+                new ReminderWindow("12h", 10, 12, true, "12 hours before"),
+                new ReminderWindow("4h", 2, 4, true, "4 hours before"),
+                new ReminderWindow("1h", 0.5, 1, false, "1 hour before"),
+                new ReminderWindow("5m", 0, 0.083, false, "5 minutes before")), 24 * 60);
+        LocalDateTime now = LocalDateTime.now();
+
+        long before = usedHeap();
+        List<Event> baseline = new ArrayList<>();
+        for (int i = 0; i < REMINDERS; i++) {
+            baseline.add(event(i, now));
+        }
+        long baselineBytes = usedHeap() - before;
+        Reference.reachabilityFence(baseline);
+        baseline = null;
+
+        before = usedHeap();
+        ReminderIndex index = new ReminderIndex();
+        for (int i = 0; i < EVENTS; i++) {
+            index.schedule(event(i, now), schedule);
+        }
+        long indexBytes = usedHeap() - before;
+        assertEquals(REMINDERS, index.size());
+        Reference.reachabilityFence(index);
+
+        System.out.printf("List<Event>: %d bytes per reminder, compact index: %d bytes per reminder%n",
+                baselineBytes / REMINDERS, indexBytes / REMINDERS);
+        assertTrue(indexBytes < baselineBytes);
+    }
+
+    private static Event event(int i, LocalDateTime now) {
+        Event event = new Event();
+        event.setId(new ObjectId().toHexString());
+        event.setName("Activity " + i % 50);
+        event.setUserId("user" + i % USERS + "@example.com");
+        event.setRecurrence("NONE");
+        event.setDateTime(now.plusMinutes(1500 + i % 1440));
+        return event;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
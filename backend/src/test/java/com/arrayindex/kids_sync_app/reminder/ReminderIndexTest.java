@@ -0,0 +1,186 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.ReminderWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReminderIndexTest {
+
+    private final ReminderSchedule windows = ReminderSchedule.compile(List.of(
+            new ReminderWindow("6h", 4, 6, true, "6 hours before"),
+            new ReminderWindow("1h", 0.5, 1, false, "1 hour before")), 24 * 60);
+
+    private ReminderIndex reminderIndex;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.of(2025, 3, 10, 12, 0);
+        reminderIndex = new ReminderIndex(Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @Test
+    void testPollDueReturnsOnlyReachedWindows() {
+        reminderIndex.schedule(event("event1", now.plusHours(5)), windows);
+
+        List<PendingReminder> due = reminderIndex.pollDue(now);
+
+        assertEquals(1, due.size());
+        assertEquals("6h", due.get(0).getWindow().getKey());
+        assertEquals(now.plusHours(4), reminderIndex.nextFireTime().orElseThrow());
+    }
+
+    @Test
+    void testRescheduleReplacesPreviousEntries() {
+        reminderIndex.schedule(event("event1", now.plusHours(5)), windows);
+        reminderIndex.schedule(event("event1", now.plusDays(2)), windows);
+
+        assertTrue(reminderIndex.pollDue(now).isEmpty());
+        assertEquals(2, reminderIndex.size());
+    }
+
+    @Test
+    void testCancelledEntriesAreSkipped() {
+        reminderIndex.schedule(event("event1", now.plusHours(5)), windows);
+        reminderIndex.cancel("event1");
+
+        assertTrue(reminderIndex.pollDue(now.plusHours(5)).isEmpty());
+        assertFalse(reminderIndex.contains("event1"));
+        assertTrue(reminderIndex.nextFireTime().isEmpty());
+    }
+
+    @Test
+    void testBatchUpdateCancelsAndReschedules() {
+        reminderIndex.schedule(event("event1", now.plusHours(5)), windows);
+        reminderIndex.schedule(event("event2", now.plusHours(5)), windows);
+
+        reminderIndex.update(List.of("event1"), List.of(
+                new ReminderIndex.Scheduled("event2", List.of(event("event2", now.plusDays(2))), windows),
+                new ReminderIndex.Scheduled("event3", List.of(event("event3", now.plusHours(5))), windows)));
+
+        assertFalse(reminderIndex.contains("event1"));
+        assertEquals(4, reminderIndex.size());
+        assertEquals(List.of("event3"), reminderIndex.pollDue(now).stream().map(PendingReminder::getEventId).toList());
+    }
+
+    @Test
+    void testClosedWindowsAreCountedAsMissed() {
+        reminderIndex.schedule(event("event1", now.plusHours(5)), windows);
+
+        assertTrue(reminderIndex.pollDue(now.plusHours(5)).isEmpty());
+        assertEquals(2, reminderIndex.getMissedCount());
+        assertFalse(reminderIndex.contains("event1"));
+    }
+
+    @Test
+    void testWindowsClosedBeforeIndexingAreSkipped() {
+        reminderIndex.schedule(event("event1", now.plusMinutes(10)), windows);
+        reminderIndex.schedule(event("event2", now.plusHours(3)), windows);
+
+        // Both windows of event1 and the 6h window of event2 closed before they were indexed
+        assertFalse(reminderIndex.contains("event1"));
+        assertEquals(1, reminderIndex.size());
+        assertEquals(List.of("1h"), reminderIndex.pollDue(now.plusHours(2)).stream()
+                .map(reminder -> reminder.getWindow().getKey()).toList());
+        assertEquals(0, reminderIndex.getMissedCount());
+    }
+
+    @Test
+    void testDroppedRemindersAreLeftToTheDispatcherToCount() {
+        reminderIndex.schedule(event("event1", now.plusHours(5)), windows);
+        PendingReminder late = reminderIndex.pollDue(now).get(0);
+
+        reminderIndex.drop(late);
+
+        assertEquals(0, reminderIndex.getMissedCount());
+        assertEquals(1, reminderIndex.size());
+    }
+
+    @Test
+    void testRetryIsDroppedAfterCancel() {
+        reminderIndex.schedule(event("event1", now.plusHours(5)), windows);
+        PendingReminder inFlight = reminderIndex.pollDue(now).get(0);
+
+        reminderIndex.cancel("event1");
+        reminderIndex.retry(inFlight, now.plusMinutes(1));
+
+        assertTrue(reminderIndex.pollDue(now.plusMinutes(1)).isEmpty());
+    }
+
+    @Test
+    void testRetryRequeuesInFlightEntry() {
+        reminderIndex.schedule(event("event1", now.plusHours(5)), windows);
+        PendingReminder inFlight = reminderIndex.pollDue(now).get(0);
+
+        reminderIndex.retry(inFlight, now.plusMinutes(1));
+
+        List<PendingReminder> due = reminderIndex.pollDue(now.plusMinutes(1));
+        assertEquals(1, due.size());
+        assertEquals("6h", due.get(0).getWindow().getKey());
+    }
+
+    @Test
+    void testEntriesComeOutInFireTimeOrder() {
+        ReminderSchedule wide = ReminderSchedule.compile(List.of(
+                new ReminderWindow("8h", 0, 8, true, "8 hours before")), 24 * 60);
+        for (int i = 0; i < 20; i++) {
+            reminderIndex.schedule(event("event" + i, now.plusMinutes(90 + (i * 37) % 300)), wide);
+        }
+        reminderIndex.cancel("event7");
+
+        List<PendingReminder> due = reminderIndex.pollDue(now);
+
+        assertEquals(19, due.size());
+        for (int i = 1; i < due.size(); i++) {
+            assertFalse(due.get(i).getFireAt().isBefore(due.get(i - 1).getFireAt()));
+        }
+        assertEquals("test@example.com", due.get(0).getUserId());
+        assertNull(due.get(0).getEvent());
+    }
+
+    @Test
+    void testCompletedSlotsAreReused() {
+        reminderIndex.schedule(event("event1", now.plusHours(5)), windows);
+        PendingReminder sent = reminderIndex.pollDue(now).get(0);
+
+        reminderIndex.complete(sent);
+        reminderIndex.schedule(event("event2", now.plusHours(5)), windows);
+        reminderIndex.complete(sent);
+
+        // Completing twice leaves the slot now used by event2 alone
+        assertEquals(3, reminderIndex.size());
+        assertEquals(List.of("event2"), reminderIndex.pollDue(now).stream().map(PendingReminder::getEventId).toList());
+    }
+
+    @Test
+    void testEditingWindowsManyTimesKeepsIndexing() {
+        // Every save of the user's windows reschedules their events with a new window set
+        for (int i = 0; i <= Short.MAX_VALUE; i++) {
+            ReminderSchedule edited = ReminderSchedule.compile(List.of(
+                    new ReminderWindow("w" + i, 0, 1, false, "Window " + i)), 24 * 60);
+            reminderIndex.schedule(event("event1", now.plusDays(2)), edited);
+        }
+
+        reminderIndex.schedule(event("event2", now.plusHours(5)), windows);
+
+        assertEquals(3, reminderIndex.size());
+        assertEquals(List.of("event2"), reminderIndex.pollDue(now).stream().map(PendingReminder::getEventId).toList());
+    }
+
+    private Event event(String id, LocalDateTime dateTime) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName("Event " + id);
+        event.setUserId("test@example.com");
+        event.setDateTime(dateTime);
+        return event;
+    }
+}
@@ -0,0 +1,81 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.SentReminder;
+import com.arrayindex.kids_sync_app.repository.SentReminderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReminderLedgerTest {
+
+    @Mock
+    private SentReminderRepository sentReminderRepository;
+
+    @InjectMocks
+    private ReminderLedger reminderLedger;
+
+    @Test
+    void testGenerateReminderKey() {
+        assertEquals("event123_1h", ReminderLedger.reminderKey("event123", "1h"));
+    }
+
+    @Test
+    void testMarkSentIsServedFromCache() {
+        reminderLedger.markSent(event("event1"), "1h");
+
+        assertTrue(reminderLedger.hasBeenSent("event1", "1h"));
+        verify(sentReminderRepository, never()).existsByEventIdAndWindowKey(any(), any());
+    }
+
+    @Test
+    void testMarkSentExpiresAfterEvent() {
+        Event event = event("event1");
+        reminderLedger.markSent(event, "1h");
+
+        ArgumentCaptor<SentReminder> captor = ArgumentCaptor.forClass(SentReminder.class);
+        verify(sentReminderRepository).save(captor.capture());
+        assertEquals("event1", captor.getValue().getEventId());
+        assertEquals("1h", captor.getValue().getWindowKey());
+        assertEquals(event.getDateTime().plusHours(24), captor.getValue().getExpiresAt());
+    }
+
+    @Test
+    void testDuplicateMarkIsIgnored() {
+        when(sentReminderRepository.save(any(SentReminder.class))).thenThrow(new DuplicateKeyException("duplicate"));
+
+        assertDoesNotThrow(() -> reminderLedger.markSent(event("event1"), "1h"));
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        ReflectionTestUtils.setField(reminderLedger, "cacheSize", 2);
+        reminderLedger.markSent(event("event1"), "1h");
+        reminderLedger.markSent(event("event2"), "1h");
+        reminderLedger.markSent(event("event3"), "1h");
+
+        // The oldest key was evicted, so the ledger falls back to MongoDB
+        when(sentReminderRepository.existsByEventIdAndWindowKey("event1", "1h")).thenReturn(true);
+        assertTrue(reminderLedger.hasBeenSent("event1", "1h"));
+        verify(sentReminderRepository).existsByEventIdAndWindowKey("event1", "1h");
+    }
+
+    private Event event(String id) {
+        Event event = new Event();
+        event.setId(id);
+        event.setDateTime(LocalDateTime.of(2025, 3, 10, 12, 0));
+        return event;
+    }
+}
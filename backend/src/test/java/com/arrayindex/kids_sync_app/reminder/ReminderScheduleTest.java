@@ -0,0 +1,42 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.ReminderWindow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReminderScheduleTest {
+
+    @Test
+    void testWindowsCompiledToMinuteOffsets() {
+        ReminderSchedule schedule = ReminderSchedule.compile(List.of(
+                new ReminderWindow("5m", 0, 0.083, false, "5 minutes before"),
+                new ReminderWindow("1h", 0.5, 1, false, "1 hour before"),
+                new ReminderWindow("24h", 20, 24, true, "24 hours before")), 24 * 60);
+
+        assertEquals(3, schedule.size());
+        assertEquals("24h", schedule.window(0).getKey());
+        assertEquals(1440, schedule.leadMinutes(0));
+        assertEquals(1200, schedule.closeMinutes(0));
+        assertEquals(60, schedule.leadMinutes(1));
+        assertEquals(30, schedule.closeMinutes(1));
+        assertEquals(5, schedule.leadMinutes(2));
+        assertEquals(0, schedule.closeMinutes(2));
+        assertEquals(1440, schedule.maxLeadMinutes());
+    }
+
+    @Test
+    void testInvalidWindowsAreRejected() {
+        ReminderWindow backwards = new ReminderWindow("late", 2, 1, true, "backwards");
+        ReminderWindow tooEarly = new ReminderWindow("2d", 40, 48, true, "2 days before");
+        ReminderWindow duplicate = new ReminderWindow("1h", 0.25, 0.5, false, "30 minutes before");
+        ReminderWindow oneHour = new ReminderWindow("1h", 0.5, 1, false, "1 hour before");
+
+        assertThrows(IllegalArgumentException.class, () -> ReminderSchedule.compile(List.of(), 1440));
+        assertThrows(IllegalArgumentException.class, () -> ReminderSchedule.compile(List.of(backwards), 1440));
+        assertThrows(IllegalArgumentException.class, () -> ReminderSchedule.compile(List.of(tooEarly), 1440));
+        assertThrows(IllegalArgumentException.class, () -> ReminderSchedule.compile(List.of(oneHour, duplicate), 1440));
+    }
+}
@@ -0,0 +1,68 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.ReminderWindow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures writing a snapshot of a million pending reminders and restoring it into an
+ * empty index, which is what a restart costs instead of reloading the horizon from MongoDB.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class ReminderSnapshotBenchmarkTest {
+
+    private static final int EVENTS = 200_000;
+    private static final int USERS = 20_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoreOneMillionReminders() throws Exception {
+        ReminderSchedule schedule = ReminderSchedule.compile(List.of(
+                new ReminderWindow("24h", 20, 24, true, "24 hours before"),
+                new ReminderWindow("12h", 10, 12, true, "12 hours before"),
+                new ReminderWindow("4h", 2, 4, true, "4 hours before"),
+                new ReminderWindow("1h", 0.5, 1, false, "1 hour before"),
+                new ReminderWindow("5m", 0, 0.083, false, "5 minutes before")), 24 * 60);
+
+        LocalDateTime now = LocalDateTime.now();
+        ReminderIndex index = new ReminderIndex();
+        for (int i = 0; i < EVENTS; i++) {
+            Event event = new Event();
+            event.setId("event" + i);
+            event.setName("Activity " + i % 50);
+            event.setUserId("user" + i % USERS + "@example.com");
+            event.setRecurrence("NONE");
+            event.setDateTime(now.plusMinutes(1500 + i % 1440));
+            index.schedule(event, schedule);
+        }
+        int pending = index.size();
+        Path file = directory.resolve("reminders.snapshot");
+
+        long start = System.nanoTime();
+        long size = new ReminderSnapshot(Instant.now(), now.plusHours(26), "{\"_data\": \"82\"}",
+                index.entries(), List.of()).write(file);
+        double writeMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        start = System.nanoTime();
+        ReminderSnapshot snapshot = ReminderSnapshot.read(file);
+        ReminderIndex restored = new ReminderIndex();
+        restored.restore(snapshot.getReminders());
+        double restoreMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        System.out.printf("Snapshot of %d reminders: %d MB, written in %.0f ms, restored in %.0f ms%n",
+                pending, size / (1024 * 1024), writeMillis, restoreMillis);
+        assertEquals(pending, restored.size());
+    }
+}
@@ -0,0 +1,120 @@
+package com.arrayindex.kids_sync_app.reminder;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.ReminderWindow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReminderSnapshotTest {
+
+    private final ReminderSchedule windows = ReminderSchedule.compile(List.of(
+            new ReminderWindow("6h", 4, 6, true, "6 hours before"),
+            new ReminderWindow("1h", 0.5, 1, false, "1 hour before")), 24 * 60);
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+        ReminderIndex index = new ReminderIndex(Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        Event dentist = event("event1", now.plusHours(5), "NONE");
+        dentist.setNotes("Bring the insurance card");
+        Event swimming = event("event2", now.plusHours(3).plusSeconds(30).plusNanos(5000), "WEEKLY");
+        swimming.setRecurrenceEndDate(now.plusMonths(3));
+        index.schedule(dentist, windows);
+        index.schedule(swimming, windows);
+
+        // One reminder is waiting for a retry, the other event's 6h window had closed when it was indexed
+        PendingReminder due = index.pollDue(now).get(0);
+        index.retry(due, now.plusMinutes(1));
+
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Path file = directory.resolve("reminders.snapshot");
+        new ReminderSnapshot(createdAt, now.plusHours(26), "{\"_data\": \"82\"}", index.entries(),
+                List.of("event0_1h", "event0_5m")).write(file);
+
+        ReminderSnapshot read = ReminderSnapshot.read(file);
+
+        assertEquals(createdAt, read.getCreatedAt());
+        assertEquals(now.plusHours(26), read.getHorizonEnd());
+        assertEquals("{\"_data\": \"82\"}", read.getStreamPosition());
+        assertEquals(List.of("event0_1h", "event0_5m"), read.getSentKeys());
+        assertEquals(3, read.getReminders().size());
+
+        ReminderIndex restored = new ReminderIndex();
+        restored.restore(read.getReminders());
+        assertEquals(now.plusMinutes(1), restored.nextFireTime().orElseThrow());
+        assertTrue(restored.contains("event1"));
+        assertEquals(1, restored.pollDue(now.plusMinutes(1)).size());
+
+        // Occurrence times are kept to the millisecond, like MongoDB stores them
+        List<PendingReminder> swimmingDue = restored.pollDue(now.plusHours(2).plusMinutes(1));
+        assertEquals(1, swimmingDue.size());
+        PendingReminder swimmingReminder = swimmingDue.get(0);
+        assertEquals("event2", swimmingReminder.getEventId());
+        assertEquals("parent@example.com", swimmingReminder.getUserId());
+        assertEquals(windows.window(1), swimmingReminder.getWindow());
+        assertEquals(swimming.getDateTime().truncatedTo(ChronoUnit.MILLIS), swimmingReminder.getOccurrenceTime());
+        assertEquals(swimmingReminder.getOccurrenceTime().minusMinutes(30), swimmingReminder.getDeadline());
+        assertEquals(List.of("event1"), restored.pollDue(now.plusHours(4)).stream().map(PendingReminder::getEventId).toList());
+    }
+
+    @Test
+    void testMoreWindowSetsThanFitInAShort() throws IOException {
+        int count = 40_000;
+        String[] eventIds = new String[count];
+        String[] userIds = new String[count];
+        for (int i = 0; i < count; i++) {
+            eventIds[i] = "event" + i;
+            userIds[i] = "parent" + i + "@example.com";
+        }
+        ReminderIndex.Entries entries = new ReminderIndex.Entries(eventIds, userIds, count);
+        long fireAt = now.toEpochSecond(ZoneOffset.UTC) / 60;
+        for (int i = 0; i < count; i++) {
+            entries.event[i] = i;
+            entries.schedule[i] = ReminderSchedule.compile(
+                    List.of(new ReminderWindow("w" + i, 0, 1, false, "Window " + i)), 24 * 60);
+            entries.occursAt[i] = now.plusHours(1).toInstant(ZoneOffset.UTC).toEpochMilli();
+            entries.fireAt[i] = fireAt;
+        }
+
+        Path file = directory.resolve("reminders.snapshot");
+        new ReminderSnapshot(Instant.now(), now.plusHours(26), "{}", entries, List.of()).write(file);
+        ReminderSnapshot read = ReminderSnapshot.read(file);
+
+        assertEquals(count, read.getReminders().size());
+        assertEquals("w" + (count - 1), read.getReminders().schedule[count - 1].window(0).getKey());
+    }
+
+    @Test
+    void testUnreadableSnapshotIsRejected() throws IOException {
+        Path file = directory.resolve("reminders.snapshot");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        assertThrows(IOException.class, () -> ReminderSnapshot.read(file));
+    }
+
+    private static Event event(String id, LocalDateTime dateTime, String recurrence) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName("Event " + id);
+        event.setUserId("parent@example.com");
+        event.setRecurrence(recurrence);
+        event.setDateTime(dateTime);
+        return event;
+    }
+}
@@ -1,6 +1,10 @@
 package com.arrayindex.kids_sync_app.service;
 
+import com.arrayindex.kids_sync_app.mail.SmtpDeliveryEngine;
+import com.arrayindex.kids_sync_app.model.Event;
 import com.arrayindex.kids_sync_app.service.impl.EmailServiceImpl;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -10,9 +14,18 @@ import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class EmailServiceTest {
@@ -20,6 +33,9 @@ public class EmailServiceTest {
     @Mock
     private JavaMailSender mailSender;
 
+    @Mock
+    private SmtpDeliveryEngine deliveryEngine;
+
     @InjectMocks
     private EmailServiceImpl emailService;
 
@@ -29,6 +45,7 @@ public class EmailServiceTest {
         ReflectionTestUtils.setField(emailService, "fromEmail", "test@example.com");
         ReflectionTestUtils.setField(emailService, "isTestMode", false);
         ReflectionTestUtils.setField(emailService, "testEmail", "test@example.com");
+        ReflectionTestUtils.setField(emailService, "pooledDelivery", false);
 
         // Mock the JavaMailSender behavior
         doNothing().when(mailSender).send(any(SimpleMailMessage.class));
@@ -42,4 +59,57 @@ public class EmailServiceTest {
 
         assertTrue(result, "Email should be sent successfully");
     }
+
+    @Test
+    public void testSendEmailOverPooledConnection() throws Exception {
+        ReflectionTestUtils.setField(emailService, "fromEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(emailService, "isTestMode", false);
+
+        MimeMessage mimeMessage = new MimeMessage(Session.getInstance(new Properties()));
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(deliveryEngine.submit(mimeMessage)).thenReturn(CompletableFuture.completedFuture(true));
+
+        boolean result = emailService.sendEmail("parent@example.com", "Reminder: Soccer", "Bring water");
+
+        assertTrue(result, "Email should be sent successfully");
+        verify(deliveryEngine).submit(mimeMessage);
+        assertEquals("parent@example.com", mimeMessage.getAllRecipients()[0].toString());
+        assertEquals("Reminder: Soccer", mimeMessage.getSubject());
+    }
+
+    @Test
+    public void testSendEmailReportsPooledFailure() {
+        ReflectionTestUtils.setField(emailService, "fromEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(emailService, "isTestMode", false);
+
+        MimeMessage mimeMessage = new MimeMessage(Session.getInstance(new Properties()));
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(deliveryEngine.submit(mimeMessage)).thenReturn(CompletableFuture.completedFuture(false));
+
+        assertFalse(emailService.sendEmail("parent@example.com", "Reminder: Soccer", "Bring water"));
+    }
+
+    @Test
+    public void testSendReminderDigest() throws Exception {
+        ReflectionTestUtils.setField(emailService, "fromEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(emailService, "isTestMode", false);
+
+        MimeMessage mimeMessage = new MimeMessage(Session.getInstance(new Properties()));
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(deliveryEngine.submit(mimeMessage)).thenReturn(CompletableFuture.completedFuture(true));
+
+        Event soccer = new Event();
+        soccer.setName("Soccer");
+        soccer.setDateTime(LocalDateTime.of(2025, 5, 12, 15, 30));
+        Event piano = new Event();
+        piano.setName("Piano");
+        piano.setDateTime(LocalDateTime.of(2025, 5, 12, 17, 0));
+
+        assertTrue(emailService.sendReminderDigest(List.of(soccer, piano), "parent@example.com"));
+
+        assertEquals("Reminder: 2 upcoming events", mimeMessage.getSubject());
+        String content = (String) mimeMessage.getContent();
+        assertTrue(content.indexOf("Event: Soccer") < content.indexOf("Event: Piano"));
+        assertTrue(content.contains("Time: 5:00 PM"));
+    }
 }
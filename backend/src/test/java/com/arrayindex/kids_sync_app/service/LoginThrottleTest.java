@@ -0,0 +1,58 @@
+package com.arrayindex.kids_sync_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginThrottleTest {
+
+    @Test
+    void testAccountIsBlockedAfterRepeatedFailures() {
+        LoginThrottle throttle = new LoginThrottle(3, 100, 900, 1024);
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(throttle.isBlocked("parent@example.com", "10.0.0.1"));
+            throttle.recordFailure("parent@example.com", "10.0.0.1");
+        }
+
+        assertTrue(throttle.isBlocked("parent@example.com", "10.0.0.2"));
+        assertTrue(throttle.isBlocked("Parent@Example.com", "10.0.0.3"));
+        assertFalse(throttle.isBlocked("other@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void testAddressIsBlockedAcrossAccounts() {
+        LoginThrottle throttle = new LoginThrottle(3, 5, 900, 1024);
+
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        assertTrue(throttle.isBlocked("new@example.com", "10.0.0.1"));
+        assertFalse(throttle.isBlocked("new@example.com", "10.0.0.2"));
+    }
+
+    @Test
+    void testSuccessClearsAccountFailures() {
+        LoginThrottle throttle = new LoginThrottle(3, 100, 900, 1024);
+        throttle.recordFailure("parent@example.com", "10.0.0.1");
+        throttle.recordFailure("parent@example.com", "10.0.0.1");
+
+        throttle.recordSuccess("parent@example.com");
+        throttle.recordFailure("parent@example.com", "10.0.0.1");
+        throttle.recordFailure("parent@example.com", "10.0.0.1");
+
+        assertFalse(throttle.isBlocked("parent@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void testFailuresExpireWithWindow() throws InterruptedException {
+        LoginThrottle throttle = new LoginThrottle(1, 100, 1, 1024);
+        throttle.recordFailure("parent@example.com", "10.0.0.1");
+        assertTrue(throttle.isBlocked("parent@example.com", "10.0.0.1"));
+
+        Thread.sleep(2_000);
+
+        assertFalse(throttle.isBlocked("parent@example.com", "10.0.0.1"));
+    }
+}
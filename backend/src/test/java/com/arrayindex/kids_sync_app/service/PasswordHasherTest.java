@@ -0,0 +1,80 @@
+package com.arrayindex.kids_sync_app.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void testEncodesAndMatchesOnPool() {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), 4, 1, 1);
+
+        String encoded = passwordHasher.encode("secret");
+
+        assertTrue(encoded.startsWith("$2a$04$"));
+        assertTrue(passwordHasher.matches("secret", encoded));
+        assertFalse(passwordHasher.matches("wrong", encoded));
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        passwordHasher = new PasswordHasher(blockingEncoder, 4, 1, 1);
+
+        // One hash running, one waiting in the queue
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHasher.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHasher.encode("second"));
+        while (passwordHasher.getQueuedCount() < 1) {
+            Thread.sleep(10);
+        }
+
+        assertThrows(RejectedExecutionException.class, () -> passwordHasher.encode("third"));
+        assertEquals(1, passwordHasher.getRejectedCount());
+
+        release.countDown();
+        String first = running.get(5, TimeUnit.SECONDS);
+        String second = queued.get(5, TimeUnit.SECONDS);
+        assertTrue(passwordHasher.matches("first", first));
+        assertTrue(passwordHasher.matches("second", second));
+    }
+
+    @Test
+    void testNeedsRehashWhenCostDiffers() {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), 4, 1, 1);
+
+        assertFalse(passwordHasher.needsRehash(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(passwordHasher.needsRehash(new BCryptPasswordEncoder(5).encode("secret")));
+        assertFalse(passwordHasher.needsRehash("not-a-bcrypt-hash"));
+        assertFalse(passwordHasher.needsRehash(null));
+    }
+}
@@ -0,0 +1,108 @@
+package com.arrayindex.kids_sync_app.service.impl;
+
+import com.arrayindex.kids_sync_app.model.ErasureJob;
+import com.arrayindex.kids_sync_app.repository.ErasureJobRepository;
+import com.arrayindex.kids_sync_app.service.EventService;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountErasureServiceImplTest {
+
+    private static final String TEST_EMAIL = "test@example.com";
+
+    @Mock
+    private ErasureJobRepository erasureJobRepository;
+
+    @Mock
+    private EventService eventService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private AccountErasureServiceImpl erasureService;
+
+    @BeforeEach
+    void setUp() {
+        erasureService = new AccountErasureServiceImpl(erasureJobRepository, eventService, mongoTemplate, 1000, 120, 7);
+    }
+
+    @AfterEach
+    void tearDown() {
+        erasureService.shutdown();
+    }
+
+    @Test
+    void testJobDeletesInChunksAndRecordsProgress() {
+        ErasureJob job = new ErasureJob(TEST_EMAIL, 2500, LocalDateTime.now());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ErasureJob.class)))
+                .thenReturn(job, (ErasureJob) null);
+        when(eventService.deleteUserEvents(TEST_EMAIL, 1000)).thenReturn(1000, 1000, 500, 0);
+
+        erasureService.drain();
+
+        verify(eventService, times(4)).deleteUserEvents(TEST_EMAIL, 1000);
+        List<Document> updates = updates(4);
+        assertEquals(List.of(1000, 1000, 500), updates.subList(0, 3).stream()
+                .map(update -> ((Document) update.get("$inc")).get("eventsDeleted"))
+                .toList());
+        Document done = (Document) updates.get(3).get("$set");
+        assertEquals(ErasureJob.Status.DONE, done.get("status"));
+        assertNotNull(done.get("expiresAt"));
+    }
+
+    @Test
+    void testFailedJobStaysClaimedForResume() {
+        ErasureJob job = new ErasureJob(TEST_EMAIL, 10, LocalDateTime.now());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ErasureJob.class)))
+                .thenReturn(job, (ErasureJob) null);
+        when(eventService.deleteUserEvents(TEST_EMAIL, 1000)).thenThrow(new IllegalStateException("connection lost"));
+
+        erasureService.drain();
+
+        Document failure = (Document) updates(1).get(0).get("$set");
+        assertEquals("connection lost", failure.get("lastError"));
+        assertFalse(failure.containsKey("status"));
+    }
+
+    @Test
+    void testSignupIsBlockedWhileErasing() {
+        when(erasureJobRepository.existsByEmailAndStatusNot(TEST_EMAIL, ErasureJob.Status.DONE)).thenReturn(true);
+
+        assertTrue(erasureService.isErasing(TEST_EMAIL));
+    }
+
+    @Test
+    void testJobIdsAreLongRandomTokens() {
+        String first = new ErasureJob(TEST_EMAIL, 0, LocalDateTime.now()).getId();
+        String second = new ErasureJob(TEST_EMAIL, 0, LocalDateTime.now()).getId();
+
+        // The ID is the only credential for the public status endpoint
+        assertTrue(first.matches("[A-Za-z0-9_-]{32}"));
+        assertNotEquals(first, second);
+    }
+
+    private List<Document> updates(int count) {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(count)).updateFirst(any(Query.class), update.capture(), eq(ErasureJob.class));
+        return update.getAllValues().stream().map(Update::getUpdateObject).toList();
+    }
+}
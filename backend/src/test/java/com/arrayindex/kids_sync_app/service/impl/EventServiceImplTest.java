@@ -0,0 +1,335 @@
+package com.arrayindex.kids_sync_app.service.impl;
+
+import com.arrayindex.kids_sync_app.dto.EventBatchOperation;
+import com.arrayindex.kids_sync_app.dto.EventBatchResult;
+import com.arrayindex.kids_sync_app.dto.EventCursor;
+import com.arrayindex.kids_sync_app.dto.EventPage;
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.OutboxMessage;
+import com.arrayindex.kids_sync_app.recurrence.OccurrenceMaterializer;
+import com.arrayindex.kids_sync_app.repository.EventRepository;
+import com.arrayindex.kids_sync_app.service.OutboxService;
+import com.arrayindex.kids_sync_app.service.ReminderService;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EventServiceImplTest {
+
+    private static final String TEST_EMAIL = "test@example.com";
+    private static final LocalDateTime NOTIFIED_AT = LocalDateTime.of(2029, 12, 1, 0, 0);
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private ReminderService reminderService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OccurrenceMaterializer occurrenceMaterializer;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private EventServiceImpl eventService;
+
+    @Test
+    void testUpcomingEventsReadOnlyNextPage() {
+        LocalDateTime now = LocalDateTime.now();
+        Event dentist = event("dentist", "NONE", now.plusDays(2));
+        Event party = event("party", "NONE", now.plusDays(9));
+        Event swimming = event("swimming", "WEEKLY", now.minusWeeks(3).plusDays(1));
+        when(eventRepository.findOneOffByUserIdAfter(eq(TEST_EMAIL), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(dentist, party));
+        when(eventRepository.findRecurringByUserIdActiveBetween(eq(TEST_EMAIL), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(swimming));
+
+        List<Event> upcoming = eventService.getUpcomingEvents(TEST_EMAIL, 3);
+
+        // Swimming on day 1, dentist on day 2, swimming on day 8; the party falls outside the page
+        assertEquals(List.of("swimming", "dentist", "swimming"), upcoming.stream().map(Event::getId).toList());
+        assertEquals(now.plusDays(1).withNano(0), upcoming.get(0).getDateTime().withNano(0));
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> horizon = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(eventRepository).findOneOffByUserIdAfter(eq(TEST_EMAIL), from.capture(), page.capture());
+        // The page is not full, so the series are expanded up to the horizon
+        verify(eventRepository).findRecurringByUserIdActiveBetween(eq(TEST_EMAIL), eq(from.getValue()), horizon.capture());
+        assertEquals(from.getValue().plusDays(30), horizon.getValue());
+        assertEquals(3, page.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.ASC, "dateTime"), page.getValue().getSort());
+        verify(eventRepository, never()).findByUserId(anyString());
+    }
+
+    @Test
+    void testUpcomingLimitIsCapped() {
+        eventService.getUpcomingEvents(TEST_EMAIL, 10_000);
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(eventRepository).findOneOffByUserIdAfter(eq(TEST_EMAIL), any(LocalDateTime.class), page.capture());
+        assertEquals(200, page.getValue().getPageSize());
+    }
+
+    @Test
+    void testUpcomingEventsIncludeOneOffsBeyondHorizon() {
+        Event camp = event("camp", "NONE", LocalDateTime.now().plusDays(60));
+        when(eventRepository.findOneOffByUserIdAfter(eq(TEST_EMAIL), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(camp));
+
+        assertEquals(List.of(camp), eventService.getUpcomingEvents(TEST_EMAIL, 3));
+    }
+
+    @Test
+    void testFullPageExpandsSeriesOnlyToLastOneOff() {
+        LocalDateTime now = LocalDateTime.now();
+        Event dentist = event("dentist", "NONE", now.plusDays(2));
+        Event party = event("party", "NONE", now.plusDays(45));
+        Event swimming = event("swimming", "WEEKLY", now.minusWeeks(3).plusDays(1));
+        when(eventRepository.findOneOffByUserIdAfter(eq(TEST_EMAIL), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(dentist, party));
+        when(eventRepository.findRecurringByUserIdActiveBetween(eq(TEST_EMAIL), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(swimming));
+
+        List<Event> upcoming = eventService.getUpcomingEvents(TEST_EMAIL, 2);
+
+        assertEquals(List.of("swimming", "dentist"), upcoming.stream().map(Event::getId).toList());
+        verify(eventRepository).findRecurringByUserIdActiveBetween(eq(TEST_EMAIL), any(LocalDateTime.class),
+                eq(party.getDateTime()));
+    }
+
+    @Test
+    void testEventPageReturnsCursorOfLastEventWhenMoreRemain() {
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 9, 0);
+        Event first = event("a", "NONE", time);
+        Event second = event("b", "NONE", time);
+        Event third = event("c", "NONE", time.plusDays(1));
+        when(eventRepository.findByUserId(eq(TEST_EMAIL), any(Pageable.class))).thenReturn(List.of(first, second, third));
+
+        EventPage page = eventService.getEventPage(TEST_EMAIL, null, 2);
+
+        assertEquals(List.of(first, second), page.events());
+        assertEquals(new EventCursor(time, "b"), EventCursor.decode(page.nextCursor()));
+
+        // One event more than the page is read to find out whether another page follows
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(eventRepository).findByUserId(eq(TEST_EMAIL), pageable.capture());
+        assertEquals(3, pageable.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Order.asc("dateTime"), Sort.Order.asc("id")), pageable.getValue().getSort());
+    }
+
+    @Test
+    void testEventPageContinuesAfterCursor() {
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 9, 0);
+        String lastId = new ObjectId().toHexString();
+        Event next = event("d", "NONE", time.plusDays(2));
+        when(eventRepository.findByUserIdAfter(eq(TEST_EMAIL), eq(time), eq(new ObjectId(lastId)), any(Pageable.class)))
+                .thenReturn(List.of(next));
+
+        EventPage page = eventService.getEventPage(TEST_EMAIL, new EventCursor(time, lastId).encode(), 2);
+
+        assertEquals(List.of(next), page.events());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testEventPageRejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> eventService.getEventPage(TEST_EMAIL, "not a cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> eventService.getEventPage(TEST_EMAIL, "bm9wZQ", 10));
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void testBatchIsOneBulkWriteAndOneReminderUpdate() {
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 9, 0);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Event.class)).thenReturn(bulkOperations);
+        holdNotifications();
+        when(mongoTemplate.find(any(Query.class), eq(Event.class)))
+                .thenReturn(List.of(event("owned1", "NONE", time), event("owned2", "NONE", time)));
+
+        List<EventBatchResult> results = eventService.applyBatch(TEST_EMAIL, List.of(
+                new EventBatchOperation(EventBatchOperation.Type.CREATE, null, event(null, "NONE", time)),
+                new EventBatchOperation(EventBatchOperation.Type.UPDATE, "owned1", event(null, "WEEKLY", time)),
+                new EventBatchOperation(EventBatchOperation.Type.UPDATE, "someone-elses", event(null, "NONE", time)),
+                new EventBatchOperation(EventBatchOperation.Type.DELETE, "owned2", null),
+                new EventBatchOperation(EventBatchOperation.Type.DELETE, "owned2", null)));
+
+        assertEquals(List.of(EventBatchResult.Status.CREATED, EventBatchResult.Status.UPDATED,
+                        EventBatchResult.Status.NOT_FOUND, EventBatchResult.Status.DELETED, EventBatchResult.Status.FAILED),
+                results.stream().map(EventBatchResult::getStatus).toList());
+        String createdId = results.get(0).getId();
+        assertTrue(ObjectId.isValid(createdId));
+
+        verify(bulkOperations).insert(any(Event.class));
+        verify(bulkOperations).replaceOne(any(Query.class), any(Event.class));
+        verify(bulkOperations).remove(any(Query.class));
+        verify(bulkOperations, times(1)).execute();
+        verify(eventRepository, never()).save(any());
+
+        // Notifications are recorded before the bulk write and released after it
+        ArgumentCaptor<List<Event>> saved = ArgumentCaptor.captor();
+        InOrder order = inOrder(outboxService, bulkOperations);
+        order.verify(outboxService).holdEventNotifications(saved.capture());
+        order.verify(bulkOperations).execute();
+        order.verify(outboxService).releaseEventNotifications(
+                eq(List.of(notification(createdId), notification("owned1"))), eq(List.of()));
+        assertEquals(List.of(createdId, "owned1"), saved.getValue().stream().map(Event::getId).toList());
+        assertTrue(saved.getValue().stream().allMatch(event -> TEST_EMAIL.equals(event.getUserId())));
+        verify(occurrenceMaterializer).rebuildSeries(saved.getValue(), List.of("owned2"));
+        verify(reminderService).updateReminders(saved.getValue(), List.of("owned2"));
+        verify(reminderService, never()).scheduleReminder(any());
+    }
+
+    @Test
+    void testBatchReportsFailedWritesPerItem() {
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 9, 0);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Event.class)).thenReturn(bulkOperations);
+        holdNotifications();
+        MongoBulkWriteException error = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)), null,
+                new ServerAddress(), Set.of());
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("Bulk write failed", error));
+
+        List<EventBatchResult> results = eventService.applyBatch(TEST_EMAIL, List.of(
+                new EventBatchOperation(EventBatchOperation.Type.CREATE, null, event(null, "NONE", time)),
+                new EventBatchOperation(EventBatchOperation.Type.CREATE, null, event(null, "NONE", time))));
+
+        assertEquals(EventBatchResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(EventBatchResult.Status.FAILED, results.get(1).getStatus());
+        assertEquals("duplicate key", results.get(1).getError());
+
+        ArgumentCaptor<List<Event>> saved = ArgumentCaptor.captor();
+        verify(reminderService).updateReminders(saved.capture(), eq(List.of()));
+        assertEquals(List.of(results.get(0).getId()), saved.getValue().stream().map(Event::getId).toList());
+        // The notification of the event that was not written is cancelled right away
+        ArgumentCaptor<List<Event>> held = ArgumentCaptor.captor();
+        verify(outboxService).holdEventNotifications(held.capture());
+        verify(outboxService).releaseEventNotifications(List.of(notification(results.get(0).getId())),
+                List.of(notification(held.getValue().get(1).getId())));
+    }
+
+    @Test
+    void testBatchCancelsNotificationsWhenBulkWriteFails() {
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 9, 0);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Event.class)).thenReturn(bulkOperations);
+        holdNotifications();
+        when(bulkOperations.execute()).thenThrow(new DataAccessResourceFailureException("Connection reset"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> eventService.applyBatch(TEST_EMAIL, List.of(
+                new EventBatchOperation(EventBatchOperation.Type.CREATE, null, event(null, "NONE", time)))));
+
+        ArgumentCaptor<List<Event>> held = ArgumentCaptor.captor();
+        verify(outboxService).holdEventNotifications(held.capture());
+        verify(outboxService).releaseEventNotifications(List.of(),
+                List.of(notification(held.getValue().get(0).getId())));
+        verifyNoInteractions(reminderService, occurrenceMaterializer);
+    }
+
+    @Test
+    void testBatchRejectsTooManyOperations() {
+        List<EventBatchOperation> operations = new ArrayList<>(Collections.nCopies(1001,
+                new EventBatchOperation(EventBatchOperation.Type.DELETE, "event", null)));
+
+        assertThrows(IllegalArgumentException.class, () -> eventService.applyBatch(TEST_EMAIL, operations));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testDeleteAllUserEventsDeletesByChunk() {
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 9, 0);
+        when(eventRepository.findIdsByUserId(eq(TEST_EMAIL), any(Pageable.class)))
+                .thenReturn(List.of(event("a", "NONE", time), event("b", "WEEKLY", time)), List.of());
+
+        assertEquals(2, eventService.deleteAllUserEvents(TEST_EMAIL));
+
+        verify(eventRepository).deleteByIdIn(List.of("a", "b"));
+        verify(occurrenceMaterializer).removeSeries(List.of("a", "b"));
+        verify(reminderService).updateReminders(List.of(), List.of("a", "b"));
+        verify(eventRepository, never()).delete(any(Event.class));
+        verify(reminderService, never()).cancelReminder(anyString());
+    }
+
+    @Test
+    void testRecurrenceIsStoredInUpperCase() {
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 9, 0);
+        when(eventRepository.save(any(Event.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(eventRepository.existsById("owned1")).thenReturn(true);
+
+        assertEquals("WEEKLY", eventService.createEvent(event(null, " weekly", time)).getRecurrence());
+        assertEquals("MONTHLY", eventService.updateEvent("owned1", event(null, "Monthly", time)).getRecurrence());
+        assertEquals("NONE", eventService.createEvent(event(null, "fortnightly", time)).getRecurrence());
+        assertNull(eventService.createEvent(event(null, null, time)).getRecurrence());
+    }
+
+    @Test
+    void testBatchStoresRecurrenceInUpperCase() {
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 9, 0);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Event.class)).thenReturn(bulkOperations);
+        holdNotifications();
+
+        eventService.applyBatch(TEST_EMAIL, List.of(
+                new EventBatchOperation(EventBatchOperation.Type.CREATE, null, event(null, "daily", time))));
+
+        ArgumentCaptor<Event> inserted = ArgumentCaptor.forClass(Event.class);
+        verify(bulkOperations).insert(inserted.capture());
+        assertEquals("DAILY", inserted.getValue().getRecurrence());
+    }
+
+    private void holdNotifications() {
+        when(outboxService.holdEventNotifications(anyList())).thenAnswer(invocation -> {
+            List<Event> events = invocation.getArgument(0);
+            return events.stream().map(event -> notification(event.getId())).toList();
+        });
+    }
+
+    private static OutboxMessage notification(String eventId) {
+        return new OutboxMessage(eventId, TEST_EMAIL, NOTIFIED_AT);
+    }
+
+    private static Event event(String id, String recurrence, LocalDateTime dateTime) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName(id);
+        event.setUserId(TEST_EMAIL);
+        event.setRecurrence(recurrence);
+        event.setDateTime(dateTime);
+        return event;
+    }
+}
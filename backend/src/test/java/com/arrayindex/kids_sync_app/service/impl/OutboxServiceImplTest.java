@@ -0,0 +1,209 @@
+package com.arrayindex.kids_sync_app.service.impl;
+
+import com.arrayindex.kids_sync_app.model.Event;
+import com.arrayindex.kids_sync_app.model.OutboxMessage;
+import com.arrayindex.kids_sync_app.model.User;
+import com.arrayindex.kids_sync_app.repository.EventRepository;
+import com.arrayindex.kids_sync_app.repository.OutboxRepository;
+import com.arrayindex.kids_sync_app.service.ReminderService;
+import com.arrayindex.kids_sync_app.service.UserDirectory;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class OutboxServiceImplTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private UserDirectory userDirectory;
+
+    @Mock
+    private ReminderService reminderService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private OutboxServiceImpl outboxService;
+
+    private final String TEST_EMAIL = "test@example.com";
+    private Event event;
+    private OutboxMessage message;
+
+    @BeforeEach
+    void setUp() {
+        event = new Event();
+        event.setId("event1");
+        event.setUserId(TEST_EMAIL);
+        event.setDateTime(LocalDateTime.now().plusDays(1));
+
+        User user = new User();
+        user.setEmail(TEST_EMAIL);
+
+        message = new OutboxMessage("event1", TEST_EMAIL, LocalDateTime.now().minusSeconds(1));
+        message.setId("message1");
+
+        when(outboxRepository.findTop50ByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                eq(OutboxMessage.Status.PENDING), any(LocalDateTime.class))).thenReturn(List.of(message));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(OutboxMessage.class)))
+                .thenAnswer(invocation -> {
+                    message.setAttempts(message.getAttempts() + 1);
+                    message.setNextAttemptAt(LocalDateTime.now().plusSeconds(120));
+                    return message;
+                });
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboxMessage.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(eventRepository.findById("event1")).thenReturn(Optional.of(event));
+        when(userDirectory.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void testDrainMarksMessageSent() {
+        when(reminderService.sendEventReminder(event, TEST_EMAIL)).thenReturn(true);
+
+        outboxService.drain();
+
+        Document set = recorded().get("$set", Document.class);
+        assertEquals(OutboxMessage.Status.SENT, set.get("status"));
+        assertNotNull(set.get("completedAt"));
+        verify(outboxRepository, never()).save(any(OutboxMessage.class));
+    }
+
+    @Test
+    void testOutcomeIsRecordedOnlyForTheClaimedAttempt() {
+        when(reminderService.sendEventReminder(event, TEST_EMAIL)).thenReturn(true);
+
+        outboxService.drain();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(OutboxMessage.class));
+        Document criteria = query.getValue().getQueryObject();
+        assertEquals("message1", criteria.get("_id"));
+        assertEquals(OutboxMessage.Status.PENDING, criteria.get("status"));
+        assertEquals(1, criteria.get("attempts"));
+        assertEquals(message.getNextAttemptAt(), criteria.get("nextAttemptAt"));
+    }
+
+    @Test
+    void testDrainStopsWaitingForSlowDelivery() throws InterruptedException {
+        ReflectionTestUtils.setField(outboxService, "deliveryTimeoutSeconds", 1L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(reminderService.sendEventReminder(event, TEST_EMAIL)).thenAnswer(invocation -> {
+            release.await();
+            return true;
+        });
+
+        long started = System.nanoTime();
+        outboxService.drain();
+
+        assertTrue(System.nanoTime() - started < 5_000_000_000L);
+        // The abandoned delivery is interrupted and recorded as a failed attempt
+        verify(mongoTemplate, timeout(5000)).updateFirst(any(Query.class), any(Update.class), eq(OutboxMessage.class));
+        release.countDown();
+        outboxService.shutdown();
+    }
+
+    @Test
+    void testFailedDeliveryBacksOff() {
+        when(reminderService.sendEventReminder(event, TEST_EMAIL)).thenReturn(false);
+        LocalDateTime before = LocalDateTime.now();
+
+        outboxService.drain();
+
+        Document set = recorded().get("$set", Document.class);
+        assertNull(set.get("status"));
+        assertEquals("Email delivery failed", set.get("lastError"));
+        assertFalse(((LocalDateTime) set.get("nextAttemptAt")).isBefore(before.plusSeconds(30)));
+    }
+
+    @Test
+    void testMessageIsDeadLetteredAfterMaxAttempts() {
+        when(reminderService.sendEventReminder(event, TEST_EMAIL)).thenReturn(false);
+        message.setAttempts(5);
+
+        outboxService.drain();
+
+        assertEquals(OutboxMessage.Status.DEAD, recorded().get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    void testDeletedEventCancelsMessage() {
+        when(eventRepository.findById("event1")).thenReturn(Optional.empty());
+
+        outboxService.drain();
+
+        assertEquals(OutboxMessage.Status.CANCELLED, recorded().get("$set", Document.class).get("status"));
+        verify(reminderService, never()).sendEventReminder(any(), any());
+    }
+
+    @Test
+    void testHeldNotificationIsNotDueUntilClaimTimeout() {
+        when(outboxRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        LocalDateTime before = LocalDateTime.now();
+
+        List<OutboxMessage> held = outboxService.holdEventNotifications(List.of(event));
+
+        assertEquals(1, held.size());
+        assertEquals("event1", held.get(0).getEventId());
+        assertEquals(OutboxMessage.Status.PENDING, held.get(0).getStatus());
+        assertFalse(held.get(0).getNextAttemptAt().isBefore(before.plusSeconds(120)));
+    }
+
+    @Test
+    void testReleaseMakesWrittenDueAndCancelsNotWritten() {
+        OutboxMessage failed = new OutboxMessage("event2", TEST_EMAIL, LocalDateTime.now());
+        failed.setId("message2");
+
+        outboxService.releaseEventNotifications(List.of(message), List.of(failed));
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateMulti(any(Query.class), updates.capture(), eq(OutboxMessage.class));
+        assertTrue(updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class).containsKey("nextAttemptAt"));
+        assertEquals(OutboxMessage.Status.CANCELLED,
+                updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    void testBackoffIsExponentialAndCapped() {
+        assertEquals(30, outboxService.backoffSeconds(1));
+        assertEquals(60, outboxService.backoffSeconds(2));
+        assertEquals(120, outboxService.backoffSeconds(3));
+        assertEquals(3600, outboxService.backoffSeconds(20));
+    }
+
+    private Document recorded() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(OutboxMessage.class));
+        return update.getValue().getUpdateObject();
+    }
+}
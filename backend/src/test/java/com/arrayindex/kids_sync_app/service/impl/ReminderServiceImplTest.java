@@ -1,11 +1,23 @@
 package com.arrayindex.kids_sync_app.service.impl;
 
+import com.arrayindex.kids_sync_app.mail.OutboundMailQueue;
 import com.arrayindex.kids_sync_app.model.Event;
 import com.arrayindex.kids_sync_app.model.ReminderWindow;
 import com.arrayindex.kids_sync_app.model.User;
+import com.arrayindex.kids_sync_app.notification.EmailNotificationChannel;
+import com.arrayindex.kids_sync_app.notification.NotificationFanout;
+import com.arrayindex.kids_sync_app.recurrence.OccurrenceMaterializer;
+import com.arrayindex.kids_sync_app.reminder.PartitionLeaseManager;
+import com.arrayindex.kids_sync_app.reminder.PendingReminder;
+import com.arrayindex.kids_sync_app.reminder.ReminderDispatcher;
+import com.arrayindex.kids_sync_app.reminder.ReminderIndex;
+import com.arrayindex.kids_sync_app.reminder.ReminderLedger;
+import com.arrayindex.kids_sync_app.reminder.ReminderSnapshot;
+import com.arrayindex.kids_sync_app.reminder.ReminderSnapshotStore;
 import com.arrayindex.kids_sync_app.repository.EventRepository;
-import com.arrayindex.kids_sync_app.repository.UserRepository;
 import com.arrayindex.kids_sync_app.service.EmailService;
+import com.arrayindex.kids_sync_app.service.UserDirectory;
+import com.arrayindex.kids_sync_app.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,19 +25,25 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -37,11 +55,32 @@ public class ReminderServiceImplTest {
     private EventRepository eventRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private UserDirectory userDirectory;
 
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private ReminderLedger reminderLedger;
+
+    @Mock
+    private OccurrenceMaterializer occurrenceMaterializer;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PartitionLeaseManager partitionLeaseManager;
+
+    @Mock
+    private ReminderSnapshotStore reminderSnapshotStore;
+
+    @Spy
+    private ReminderDispatcher reminderDispatcher = new ReminderDispatcher(10, 5000);
+
+    @Spy
+    private OutboundMailQueue outboundMailQueue = startedQueue();
+
     @InjectMocks
     private ReminderServiceImpl reminderService;
 
@@ -50,6 +89,7 @@ public class ReminderServiceImplTest {
 
     private Event testEvent;
     private User testUser;
+    private final Map<String, Event> storedEvents = new HashMap<>();
     private final String TEST_EMAIL = "test@example.com";
     private final String TEST_EVENT_ID = "event123";
 
@@ -67,77 +107,60 @@ public class ReminderServiceImplTest {
         testEvent.setDateTime(LocalDateTime.now().plusHours(2)); // 2 hours in the future
         testEvent.setUserId(TEST_EMAIL); // userId is actually the email
         testEvent.setNotes("Test notes");
-
-        // Mock userRepository to return our test user
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(testUser));
+        storedEvents.put(TEST_EVENT_ID, testEvent);
+
+        // Mock userDirectory to return our test user
+        when(userDirectory.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(testUser));
+        when(userDirectory.findByEmails(any())).thenReturn(Map.of(TEST_EMAIL, testUser));
+
+        // Reminders go out on the email channel only
+        ReflectionTestUtils.setField(reminderService, "notificationFanout", new NotificationFanout(List.of(
+                new EmailNotificationChannel(outboundMailQueue, emailService, 5000, 1, 0, 10, 30))));
+
+        // The index only keeps event IDs; due events are loaded by ID when they are sent
+        when(eventRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Event> found = new ArrayList<>();
+            for (String id : invocation.<Iterable<String>>getArgument(0)) {
+                Optional.ofNullable(storedEvents.get(id)).ifPresent(found::add);
+            }
+            return found;
+        });
     }
 
     @Test
-    void testScheduleReminder_Success() {
-        // Mock emailService to return success
-        when(emailService.sendEventReminder(any(Event.class), anyString())).thenReturn(true);
-
+    void testScheduleReminder_IndexesWithoutSending() {
         // Call the method under test
         reminderService.scheduleReminder(testEvent);
 
-        // Verify interactions
-        verify(userRepository).findByEmail(TEST_EMAIL);
-        verify(emailService).sendEventReminder(testEvent, TEST_EMAIL);
+        // The immediate notification is delivered by the outbox, not on the request path
+        verify(emailService, never()).sendEventReminder(any(Event.class), anyString());
 
-        // Verify that the reminder was removed from scheduledReminders after successful sending
-        ConcurrentHashMap<String, Boolean> scheduledReminders = 
-                (ConcurrentHashMap<String, Boolean>) ReflectionTestUtils.getField(reminderService, "scheduledReminders");
-        assertFalse(scheduledReminders.containsKey(TEST_EVENT_ID));
+        // Verify that the event's reminder windows were added to the index
+        assertTrue(getReminderIndex().contains(TEST_EVENT_ID));
     }
 
     @Test
-    void testScheduleReminder_EmailFailure() {
-        // Mock emailService to return failure
-        when(emailService.sendEventReminder(any(Event.class), anyString())).thenReturn(false);
+    void testScheduleReminder_OutsideHorizon() {
+        ReflectionTestUtils.setField(reminderService, "indexHorizonEnd", LocalDateTime.now().plusHours(26));
+        testEvent.setDateTime(LocalDateTime.now().plusDays(3));
 
-        // Call the method under test
         reminderService.scheduleReminder(testEvent);
 
-        // Verify interactions
-        verify(userRepository).findByEmail(TEST_EMAIL);
-        verify(emailService).sendEventReminder(testEvent, TEST_EMAIL);
-
-        // Verify that the reminder was not removed from scheduledReminders after failed sending
-        ConcurrentHashMap<String, Boolean> scheduledReminders = 
-                (ConcurrentHashMap<String, Boolean>) ReflectionTestUtils.getField(reminderService, "scheduledReminders");
-        assertTrue(scheduledReminders.containsKey(TEST_EVENT_ID));
-    }
-
-    @Test
-    void testScheduleReminder_UserNotFound() {
-        // Mock userRepository to return empty
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.empty());
-
-        // Call the method under test
-        reminderService.scheduleReminder(testEvent);
-
-        // Verify interactions
-        verify(userRepository).findByEmail(TEST_EMAIL);
-        verify(emailService, never()).sendEventReminder(any(Event.class), anyString());
-
-        // Verify that the reminder is still in scheduledReminders (since sending failed)
-        ConcurrentHashMap<String, Boolean> scheduledReminders = 
-                (ConcurrentHashMap<String, Boolean>) ReflectionTestUtils.getField(reminderService, "scheduledReminders");
-        assertTrue(scheduledReminders.containsKey(TEST_EVENT_ID));
+        // Picked up later when the horizon is extended
+        assertFalse(getReminderIndex().contains(TEST_EVENT_ID));
     }
 
     @Test
     void testCancelReminder() {
-        // Add a reminder to the scheduledReminders map directly
-        ConcurrentHashMap<String, Boolean> scheduledReminders = 
-                (ConcurrentHashMap<String, Boolean>) ReflectionTestUtils.getField(reminderService, "scheduledReminders");
-        scheduledReminders.put(TEST_EVENT_ID, true);
+        // Add the event's reminders to the index directly
+        ReminderIndex reminderIndex = getReminderIndex();
+        reminderIndex.schedule(testEvent, reminderService.getDefaultSchedule());
 
         // Call the method under test
         reminderService.cancelReminder(TEST_EVENT_ID);
 
-        // Verify that the reminder was removed
-        assertFalse(scheduledReminders.containsKey(TEST_EVENT_ID));
+        // Verify that the reminders were removed
+        assertFalse(reminderIndex.contains(TEST_EVENT_ID));
     }
 
     @Test
@@ -162,7 +185,7 @@ public class ReminderServiceImplTest {
         event2.setUserId(TEST_EMAIL);
         upcomingEvents.add(event2);
 
-        // Event 3: in the past (should be removed from scheduled reminders)
+        // Event 3: in the past (should be dropped from the index)
         Event event3 = new Event();
         event3.setId("event3");
         event3.setName("Event 3");
@@ -171,28 +194,34 @@ public class ReminderServiceImplTest {
         upcomingEvents.add(event3);
 
         // Mock repository to return our test events
+        upcomingEvents.forEach(event -> storedEvents.put(event.getId(), event));
         when(eventRepository.findByDateTimeBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
                 .thenReturn(upcomingEvents);
 
         // Mock emailService to return success
         when(emailService.sendEventReminder(any(Event.class), anyString())).thenReturn(true);
 
-        // Call the method under test
+        // Load the index, then run a tick
+        reminderService.loadReminderIndex();
         reminderService.checkAndSendReminders();
 
-        // Verify interactions
-        verify(eventRepository).findByDateTimeBetween(any(LocalDateTime.class), any(LocalDateTime.class));
-        verify(userRepository, times(3)).findByEmail(TEST_EMAIL);
+        // The repository is read once at startup, not on every tick
+        verify(eventRepository, times(1)).findByDateTimeBetween(any(LocalDateTime.class), any(LocalDateTime.class));
+
+        // Users are resolved once for the whole index load and once for the due batch
+        verify(userDirectory, times(2)).findByEmails(any());
+        verify(userDirectory, never()).findByEmail(anyString());
 
-        // Verify email service was called at least once
-        // Note: The exact number of calls depends on the reminder windows configuration
-        // and whether the events fall within those windows
-        verify(emailService, atLeastOnce()).sendEventReminder(any(Event.class), eq(TEST_EMAIL));
+        // Event 2 is inside its 6h window
+        verify(emailService).sendEventReminder(event2, TEST_EMAIL);
+        verify(emailService, never()).sendEventReminder(eq(event3), anyString());
 
-        // Verify that event3 (past event) was removed from scheduledReminders
-        ConcurrentHashMap<String, Boolean> scheduledReminders = 
-                (ConcurrentHashMap<String, Boolean>) ReflectionTestUtils.getField(reminderService, "scheduledReminders");
-        assertFalse(scheduledReminders.containsKey("event3"));
+        // Verify that event3 (past event) is no longer pending
+        assertFalse(getReminderIndex().contains("event3"));
+
+        // A second tick does not touch the database again
+        reminderService.checkAndSendReminders();
+        verify(eventRepository, times(1)).findByDateTimeBetween(any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
     @Test
@@ -231,52 +260,309 @@ public class ReminderServiceImplTest {
     }
 
     @Test
-    void testIsInWindow() {
-        // Create a reminder window for 1-2 hours
-        ReminderWindow window = new ReminderWindow("test", 1, 2, true, "Test Window");
+    void testDueReminderSentOnce() {
+        // Event 5 hours in the future is due for its 6h reminder
+        testEvent.setDateTime(LocalDateTime.now().plusHours(5));
+        when(emailService.sendEventReminder(any(Event.class), anyString())).thenReturn(true);
+        getReminderIndex().schedule(testEvent, reminderService.getDefaultSchedule());
+
+        reminderService.checkAndSendReminders();
+        reminderService.checkAndSendReminders();
+
+        verify(emailService, times(1)).sendEventReminder(testEvent, TEST_EMAIL);
+        verify(reminderLedger).markSent(testEvent, "6h");
+    }
+
+    @Test
+    void testReminderInLedgerIsNotSentAgain() {
+        // The 6h reminder was already sent before a restart
+        testEvent.setDateTime(LocalDateTime.now().plusHours(5));
+        when(reminderLedger.hasBeenSent(TEST_EVENT_ID, "6h")).thenReturn(true);
+        getReminderIndex().schedule(testEvent, reminderService.getDefaultSchedule());
+
+        reminderService.checkAndSendReminders();
+
+        verify(emailService, never()).sendEventReminder(any(Event.class), anyString());
+        verify(reminderLedger, never()).markSent(any(Event.class), anyString());
+    }
+
+    @Test
+    void testFailedReminderIsRetried() {
+        testEvent.setDateTime(LocalDateTime.now().plusHours(5));
+        when(emailService.sendEventReminder(any(Event.class), anyString())).thenReturn(false);
+        ReminderIndex reminderIndex = getReminderIndex();
+        reminderIndex.schedule(testEvent, reminderService.getDefaultSchedule());
+
+        reminderService.checkAndSendReminders();
+
+        // The failed reminder stays pending for the next tick
+        verify(emailService).sendEventReminder(testEvent, TEST_EMAIL);
+        assertTrue(reminderIndex.contains(TEST_EVENT_ID));
+        assertTrue(reminderIndex.nextFireTime().isPresent());
+    }
+
+    @Test
+    void testReminderOfDeletedEventIsDropped() {
+        testEvent.setDateTime(LocalDateTime.now().plusHours(5));
+        ReminderIndex reminderIndex = getReminderIndex();
+        reminderIndex.schedule(testEvent, reminderService.getDefaultSchedule());
+        storedEvents.clear();
 
-        // Test various scenarios using reflection with explicit return type
-        Boolean inWindow = ReflectionTestUtils.invokeMethod(reminderService, "isInWindow", 1.5, window);
-        assertTrue(inWindow); // In window
+        reminderService.checkAndSendReminders();
 
-        Boolean atMinBoundary = ReflectionTestUtils.invokeMethod(reminderService, "isInWindow", 1.0, window);
-        assertTrue(atMinBoundary); // At min boundary
+        // Loaded at send time, so the deleted event is noticed even without its delete reaching the index
+        verify(emailService, never()).sendEventReminder(any(Event.class), anyString());
+        assertTrue(reminderIndex.pollDue(LocalDateTime.now().plusMinutes(2)).isEmpty());
+    }
 
-        Boolean atMaxBoundary = ReflectionTestUtils.invokeMethod(reminderService, "isInWindow", 2.0, window);
-        assertTrue(atMaxBoundary); // At max boundary
+    @Test
+    void testDigestUserGetsOneEmailPerTick() {
+        testUser.setReminderDigest(true);
+        Event morning = eventAt("event1", LocalDateTime.now().plusHours(5));
+        Event afternoon = eventAt("event2", LocalDateTime.now().plusMinutes(45));
+        when(emailService.sendReminderDigest(anyList(), anyString())).thenReturn(true);
+        getReminderIndex().schedule(afternoon, reminderService.getDefaultSchedule());
+        getReminderIndex().schedule(morning, reminderService.getDefaultSchedule());
 
-        Boolean belowMin = ReflectionTestUtils.invokeMethod(reminderService, "isInWindow", 0.5, window);
-        assertFalse(belowMin); // Below min
+        reminderService.checkAndSendReminders();
 
-        Boolean aboveMax = ReflectionTestUtils.invokeMethod(reminderService, "isInWindow", 2.5, window);
-        assertFalse(aboveMax); // Above max
+        // Both reminders go out in one email, soonest event first
+        verify(emailService).sendReminderDigest(List.of(afternoon, morning), TEST_EMAIL);
+        verify(emailService, never()).sendEventReminder(any(Event.class), anyString());
+        verify(reminderLedger).markSent(morning, "6h");
+        verify(reminderLedger).markSent(afternoon, "1h");
     }
 
     @Test
-    void testHasReminderBeenSent() {
-        String reminderKey = "test_key";
-        ConcurrentHashMap<String, Boolean> sentReminders = 
-                (ConcurrentHashMap<String, Boolean>) ReflectionTestUtils.getField(reminderService, "sentReminders");
+    void testFailedDigestIsRetried() {
+        testUser.setReminderDigest(true);
+        Event first = eventAt("event1", LocalDateTime.now().plusHours(5));
+        Event second = eventAt("event2", LocalDateTime.now().plusMinutes(45));
+        when(emailService.sendReminderDigest(anyList(), anyString())).thenReturn(false);
+        ReminderIndex reminderIndex = getReminderIndex();
+        reminderIndex.schedule(first, reminderService.getDefaultSchedule());
+        reminderIndex.schedule(second, reminderService.getDefaultSchedule());
 
-        // Initially, the reminder should not be marked as sent
-        assertFalse(sentReminders.containsKey(reminderKey));
+        reminderService.checkAndSendReminders();
+
+        verify(reminderLedger, never()).markSent(any(Event.class), anyString());
+        assertEquals(1, reminderIndex.pollDue(LocalDateTime.now().plusMinutes(2)).stream()
+                .filter(reminder -> reminder.getEventId().equals("event1")).count());
+    }
+
+    @Test
+    void testRecurringEventRemindsEachOccurrence() {
+        // A daily event that started a week ago; today's occurrence is 5 hours away
+        LocalDateTime nextOccurrence = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusHours(5);
+        Event daily = eventAt("daily1", nextOccurrence.minusDays(7));
+        daily.setRecurrence("DAILY");
+        when(eventRepository.findRecurringActiveBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(daily));
+        when(emailService.sendEventReminder(any(Event.class), anyString())).thenReturn(true);
+
+        reminderService.loadReminderIndex();
+        reminderService.checkAndSendReminders();
 
-        // Mark the reminder as sent directly
-        sentReminders.put(reminderKey, true);
+        ArgumentCaptor<Event> sent = ArgumentCaptor.forClass(Event.class);
+        verify(emailService).sendEventReminder(sent.capture(), eq(TEST_EMAIL));
+        assertEquals(nextOccurrence, sent.getValue().getDateTime());
+        assertEquals("daily1", sent.getValue().getId());
 
-        // Now the reminder should be marked as sent
-        Boolean hasBeenSent = ReflectionTestUtils.invokeMethod(reminderService, "hasReminderBeenSent", reminderKey);
-        assertTrue(hasBeenSent);
+        // Each occurrence is recorded in the ledger under its own key
+        verify(reminderLedger).markSent(sent.getValue(), "6h@" + nextOccurrence);
+
+        // The occurrence's later windows are still pending
+        assertTrue(getReminderIndex().contains("daily1"));
+    }
+
+    @Test
+    void testIndexLoadedFromMaterializedOccurrences() {
+        Event occurrence = eventAt("weekly1", LocalDateTime.now().plusHours(5));
+        occurrence.setRecurrence("WEEKLY");
+        when(occurrenceMaterializer.covers(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(true);
+        when(occurrenceMaterializer.findBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(occurrence));
+
+        reminderService.loadReminderIndex();
+
+        // The events collection is not scanned when the occurrences cover the horizon
+        verify(eventRepository, never()).findByDateTimeBetween(any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(eventRepository, never()).findRecurringActiveBetween(any(LocalDateTime.class), any(LocalDateTime.class));
+        assertTrue(getReminderIndex().contains("weekly1"));
+    }
+
+    @Test
+    void testUserWindowsOnlyRescheduleThatUser() {
+        User other = new User();
+        other.setEmail("other@example.com");
+        Event mine = eventAt("mine", LocalDateTime.now().plusHours(3));
+        Event theirs = eventAt("theirs", LocalDateTime.now().plusHours(3));
+        theirs.setUserId("other@example.com");
+        when(userDirectory.findByEmails(any())).thenReturn(Map.of(TEST_EMAIL, testUser, "other@example.com", other));
+        when(eventRepository.findByDateTimeBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(mine, theirs));
+        reminderService.loadReminderIndex();
+
+        List<ReminderWindow> windows = List.of(new ReminderWindow("3h", 2.5, 3, true, "3 hours before"));
+        when(userService.updateReminderWindows(TEST_EMAIL, windows)).thenAnswer(invocation -> {
+            testUser.setReminderWindows(windows);
+            return testUser;
+        });
+        when(eventRepository.findByUserIdAndDateTimeBetween(eq(TEST_EMAIL), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(mine));
+
+        assertEquals(windows, reminderService.updateReminderWindows(TEST_EMAIL, windows));
+
+        // Only the user's own events are read again
+        verify(eventRepository).findByUserIdAndDateTimeBetween(eq(TEST_EMAIL), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(eventRepository, times(1)).findByDateTimeBetween(any(LocalDateTime.class), any(LocalDateTime.class));
+
+        // The 3h window opens now for the user; the other user still has the 4h default due
+        List<PendingReminder> due = getReminderIndex().pollDue(LocalDateTime.now().plusMinutes(1));
+        assertEquals(List.of("3h", "4h"), due.stream()
+                .sorted(Comparator.comparing(PendingReminder::getEventId))
+                .map(reminder -> reminder.getWindow().getKey())
+                .toList());
     }
 
     @Test
-    void testGenerateReminderKey() {
-        String eventId = "event123";
-        String windowKey = "1h";
+    void testInvalidWindowsAreRejected() {
+        List<ReminderWindow> windows = List.of(new ReminderWindow("late", 2, 1, true, "backwards"));
+
+        assertThrows(IllegalArgumentException.class, () -> reminderService.updateReminderWindows(TEST_EMAIL, windows));
+        verify(userService, never()).updateReminderWindows(anyString(), any());
+    }
 
-        String expectedKey = "event123_1h";
-        String actualKey = ReflectionTestUtils.invokeMethod(reminderService, "generateReminderKey", eventId, windowKey);
+    @Test
+    void testRemindersOfOtherPartitionsAreNotSent() {
+        User other = new User();
+        other.setEmail("other@example.com");
+        Event mine = eventAt("mine", LocalDateTime.now().plusHours(5));
+        Event theirs = eventAt("theirs", LocalDateTime.now().plusHours(5));
+        theirs.setUserId("other@example.com");
+        when(userDirectory.findByEmails(any())).thenReturn(Map.of(TEST_EMAIL, testUser, "other@example.com", other));
+        when(partitionLeaseManager.isEnabled()).thenReturn(true);
+        when(partitionLeaseManager.owns(TEST_EMAIL)).thenReturn(true);
+        when(emailService.sendEventReminder(any(Event.class), anyString())).thenReturn(true);
+        ReminderIndex reminderIndex = getReminderIndex();
+        reminderIndex.schedule(mine, reminderService.getDefaultSchedule());
+        reminderIndex.schedule(theirs, reminderService.getDefaultSchedule());
+
+        reminderService.checkAndSendReminders();
+
+        verify(emailService).sendEventReminder(mine, TEST_EMAIL);
+        verify(emailService, never()).sendEventReminder(theirs, "other@example.com");
+
+        // Kept for the next tick in case this node takes over the partition
+        assertEquals(List.of("theirs"), reminderIndex.pollDue(LocalDateTime.now().plusMinutes(2)).stream()
+                .map(PendingReminder::getEventId)
+                .toList());
+    }
+
+    @Test
+    void testResyncPicksUpChangesFromOtherNodes() {
+        Event kept = eventAt("kept", LocalDateTime.now().plusHours(3));
+        Event deletedElsewhere = eventAt("deleted", LocalDateTime.now().plusHours(3));
+        Event createdElsewhere = eventAt("created", LocalDateTime.now().plusHours(3));
+        when(partitionLeaseManager.isEnabled()).thenReturn(true);
+        when(eventRepository.findByDateTimeBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(kept, deletedElsewhere))
+                .thenReturn(List.of(kept, createdElsewhere));
+        reminderService.loadReminderIndex();
+
+        reminderService.resyncReminderIndex();
+
+        ReminderIndex reminderIndex = getReminderIndex();
+        assertTrue(reminderIndex.contains("kept"));
+        assertTrue(reminderIndex.contains("created"));
+        assertFalse(reminderIndex.contains("deleted"));
+    }
+
+    @Test
+    void testOccurrenceOnPreviousHorizonEndIsIndexed() {
+        LocalDateTime snapshotHorizon = LocalDateTime.now().plusHours(25);
+        when(reminderSnapshotStore.restorable()).thenReturn(Optional.of(new ReminderSnapshot(Instant.now(),
+                snapshotHorizon, "{\"_data\": \"82\"}", new ReminderIndex().entries(), List.of())));
+        Event series = eventAt("series", snapshotHorizon.minusWeeks(1));
+        series.setRecurrence("WEEKLY");
+        when(eventRepository.findRecurringActiveBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(series));
+
+        reminderService.loadReminderIndex();
+
+        // The occurrence falls exactly on the end of the restored slice, so it starts the new one
+        assertTrue(getReminderIndex().contains("series"));
+    }
+
+    @Test
+    void testOccurrenceOnHorizonEndIsIndexedOnce() {
+        LocalDateTime horizonEnd = LocalDateTime.now().plusHours(25);
+        ReflectionTestUtils.setField(reminderService, "indexHorizonEnd", horizonEnd);
+        Event series = eventAt("series", horizonEnd.minusWeeks(1));
+        series.setRecurrence("WEEKLY");
+        when(eventRepository.findRecurringActiveBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(series));
+
+        // The occurrence on the end of the horizon belongs to the next slice
+        reminderService.scheduleReminder(series);
+        reminderService.updateReminders(List.of(series), List.of());
+        assertFalse(getReminderIndex().contains("series"));
+
+        reminderService.extendReminderIndex();
+        assertEquals(reminderService.getDefaultSchedule().size(), getReminderIndex().size());
+    }
+
+    @Test
+    void testRestartRestoresSnapshotInsteadOfReloading() {
+        LocalDateTime snapshotHorizon = LocalDateTime.now().plusHours(25);
+        ReminderIndex previous = new ReminderIndex();
+        previous.schedule(eventAt("event1", LocalDateTime.now().plusHours(5)), reminderService.getDefaultSchedule());
+        when(reminderSnapshotStore.restorable()).thenReturn(Optional.of(new ReminderSnapshot(Instant.now(),
+                snapshotHorizon, "{\"_data\": \"82\"}", previous.entries(), List.of("event0_1h"))));
+
+        reminderService.loadReminderIndex();
+
+        assertTrue(getReminderIndex().contains("event1"));
+        verify(reminderLedger).restoreRecentKeys(List.of("event0_1h"));
+        verify(reminderSnapshotStore).discard();
+
+        // Only the slice that moved into the horizon since the snapshot is read
+        verify(eventRepository).findByDateTimeBetween(eq(snapshotHorizon), any(LocalDateTime.class));
+        verify(eventRepository, times(1)).findByDateTimeBetween(any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testSnapshotRecordsStreamPosition() {
+        when(reminderSnapshotStore.isEnabled()).thenReturn(true);
+        when(reminderSnapshotStore.streamPosition()).thenReturn(Optional.of("{\"_data\": \"82\"}"));
+        reminderService.loadReminderIndex();
+        reminderService.scheduleReminder(testEvent);
+
+        reminderService.writeSnapshot();
+
+        ArgumentCaptor<ReminderSnapshot> written = ArgumentCaptor.forClass(ReminderSnapshot.class);
+        verify(reminderSnapshotStore).write(written.capture());
+        assertEquals("{\"_data\": \"82\"}", written.getValue().getStreamPosition());
+        assertEquals(getReminderIndex().size(), written.getValue().getReminders().size());
+    }
+
+    private Event eventAt(String id, LocalDateTime dateTime) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName("Event " + id);
+        event.setDateTime(dateTime);
+        event.setUserId(TEST_EMAIL);
+        storedEvents.put(id, event);
+        return event;
+    }
+
+    private ReminderIndex getReminderIndex() {
+        return (ReminderIndex) ReflectionTestUtils.getField(reminderService, "reminderIndex");
+    }
 
-        assertEquals(expectedKey, actualKey);
+    private static OutboundMailQueue startedQueue() {
+        OutboundMailQueue queue = new OutboundMailQueue(1000, 100000, 6, 0.2, 100);
+        queue.start();
+        return queue;
     }
 }
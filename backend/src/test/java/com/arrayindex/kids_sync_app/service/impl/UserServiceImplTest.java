@@ -0,0 +1,86 @@
+package com.arrayindex.kids_sync_app.service.impl;
+
+import com.arrayindex.kids_sync_app.config.TokenRevocations;
+import com.arrayindex.kids_sync_app.model.User;
+import com.arrayindex.kids_sync_app.repository.TokenRevocationRepository;
+import com.arrayindex.kids_sync_app.repository.UserRepository;
+import com.arrayindex.kids_sync_app.service.PasswordHasher;
+import com.arrayindex.kids_sync_app.service.UserDirectory;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserServiceImplTest {
+
+    private static final String TEST_EMAIL = "test@example.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserDirectory userDirectory;
+
+    private PasswordHasher passwordHasher;
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        // Configured cost 5; stored hashes made with cost 4 are out of date
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(5), 5, 1, 4);
+        userService = new UserServiceImpl(userRepository, userDirectory, passwordHasher,
+                Keys.hmacShaKeyFor("test-secret-that-is-long-enough-for-hs256".getBytes(StandardCharsets.UTF_8)),
+                new TokenRevocations(mock(TokenRevocationRepository.class)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void testLoginRehashesPasswordWithChangedCost() {
+        User user = new User(TEST_EMAIL, new BCryptPasswordEncoder(4).encode("secret"));
+        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertNotNull(userService.loginUser(TEST_EMAIL, "secret"));
+
+        assertTrue(user.getPassword().startsWith("$2a$05$"));
+        assertTrue(passwordHasher.matches("secret", user.getPassword()));
+        verify(userRepository).save(user);
+        verify(userDirectory).put(user);
+    }
+
+    @Test
+    void testLoginKeepsCurrentHash() {
+        String hash = new BCryptPasswordEncoder(5).encode("secret");
+        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(new User(TEST_EMAIL, hash)));
+
+        assertNotNull(userService.loginUser(TEST_EMAIL, "secret"));
+
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testWrongPasswordIsNotRehashed() {
+        User user = new User(TEST_EMAIL, new BCryptPasswordEncoder(4).encode("secret"));
+        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(user));
+
+        assertNull(userService.loginUser(TEST_EMAIL, "wrong"));
+
+        verify(userRepository, never()).save(any(User.class));
+    }
+}